@@ -14,9 +14,15 @@ TOPICS=(
     "output-topic-json-converted"
     "output-topic-action-a"
     "output-topic-action-b"
+    "output-topic-action-unmatched"
     "inbound-message-topic"
     "create-chat-topic"
     "create-message-topic"
+    "inbound-message-late-topic"
+    "input-topic-dlq"
+    "legacy-events-topic-dlq"
+    "actions-topic-dlq"
+    "inbound-message-topic-dlq"
 )
 
 # Función para ejecutar comandos de Kafka en el container
@@ -37,9 +37,15 @@ create_topic "output-topic-transformed"
 create_topic "output-topic-json-converted"
 create_topic "output-topic-action-a"
 create_topic "output-topic-action-b"
+create_topic "output-topic-action-unmatched"
 create_topic "inbound-message-topic"
 create_topic "create-chat-topic"
 create_topic "create-message-topic"
+create_topic "inbound-message-late-topic"
+create_topic "input-topic-dlq"
+create_topic "legacy-events-topic-dlq"
+create_topic "actions-topic-dlq"
+create_topic "inbound-message-topic-dlq"
 
 echo "========================================="
 echo "Listing all topics:"
@@ -3,7 +3,6 @@ package com.example.kafkastream;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.EnableKafka;
-import org.springframework.kafka.annotation.EnableKafkaStreams;
 
 /**
  * Main Spring Boot Application class for Kafka Streams PoC
@@ -14,7 +13,7 @@ import org.springframework.kafka.annotation.EnableKafkaStreams;
  * 3. Routing and Division: GenericAction routing based on actionType
  * 
  * Features:
- * - Kafka Streams processing with custom topology
+ * - Kafka Streams processing, one streams application per use case (see KafkaStreamsConfig)
  * - H2 in-memory database for persistence
  * - REST API endpoints for event publishing and querying
  * - Automatic consumption and persistence of processed events
@@ -35,7 +34,6 @@ import org.springframework.kafka.annotation.EnableKafkaStreams;
  */
 @SpringBootApplication
 @EnableKafka
-@EnableKafkaStreams
 public class KafkaStreamPocApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Route table for Use Case 3 - Routing and Division
+ * Maps each actionType to its output topic and transformation prefix;
+ * actions whose type has no route go to the default topic unchanged
+ */
+@ConfigurationProperties(prefix = "app.kafka.action-routing")
+public class ActionRoutingProperties {
+
+    private String defaultTopic;
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public String getDefaultTopic() {
+        return defaultTopic;
+    }
+
+    public void setDefaultTopic(String defaultTopic) {
+        this.defaultTopic = defaultTopic;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * A single route: destination topic and the prefix added to the action details
+     */
+    public static class Route {
+
+        private String topic;
+
+        private String prefix = "";
+
+        public Route() {}
+
+        public Route(String topic, String prefix) {
+            this.topic = topic;
+            this.prefix = prefix;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+}
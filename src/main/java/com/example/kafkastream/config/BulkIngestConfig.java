@@ -0,0 +1,67 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.EventOutbox;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishing of REST events, one at a time or in bulk
+ * Each delivery mode gets its own template, on a copy of the application's producer factory with
+ * that mode's acks; the template closes its producer on shutdown.
+ */
+@Configuration
+@EnableConfigurationProperties({BulkIngestProperties.class, DeliveryProperties.class})
+public class BulkIngestConfig {
+
+    @Bean
+    KafkaTemplate<String, byte[]> fireAndForgetKafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return kafkaTemplate(producerFactory, DeliveryMode.FIRE_AND_FORGET);
+    }
+
+    @Bean
+    KafkaTemplate<String, byte[]> leaderKafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return kafkaTemplate(producerFactory, DeliveryMode.LEADER);
+    }
+
+    @Bean
+    KafkaTemplate<String, byte[]> allKafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return kafkaTemplate(producerFactory, DeliveryMode.ALL);
+    }
+
+    private static KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory, DeliveryMode mode) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(ProducerConfig.ACKS_CONFIG, mode.acks());
+        // The idempotent producer requires acks=all
+        if (mode != DeliveryMode.ALL) {
+            overrides.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        }
+        return new KafkaTemplate<>(producerFactory, overrides);
+    }
+
+    @Bean
+    EventIngestionService eventIngestionService(ProducerFactory<String, byte[]> producerFactory,
+                                                OriginalEventService originalEventService, EventOutbox eventOutbox,
+                                                ObjectMapper objectMapper, TraceLatencyRecorder traceLatency,
+                                                MeterRegistry meterRegistry,
+                                                BulkIngestProperties bulkProperties, DeliveryProperties deliveryProperties) {
+        Map<DeliveryMode, KafkaTemplate<String, byte[]>> kafkaTemplates = Map.of(
+                DeliveryMode.FIRE_AND_FORGET, fireAndForgetKafkaTemplate(producerFactory),
+                DeliveryMode.LEADER, leaderKafkaTemplate(producerFactory),
+                DeliveryMode.ALL, allKafkaTemplate(producerFactory));
+        return new EventIngestionService(kafkaTemplates, originalEventService, eventOutbox, objectMapper, traceLatency,
+                meterRegistry, bulkProperties.getMaxEvents(), deliveryProperties.getAckTimeout());
+    }
+}
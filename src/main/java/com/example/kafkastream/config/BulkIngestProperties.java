@@ -0,0 +1,22 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk variants of the publish endpoints
+ * A request carries at most maxEvents events; the response waits up to app.ingest.delivery.ack-timeout
+ * for the sends of all of them
+ */
+@ConfigurationProperties(prefix = "app.ingest.bulk")
+public class BulkIngestProperties {
+
+    private int maxEvents = 1_000;
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+}
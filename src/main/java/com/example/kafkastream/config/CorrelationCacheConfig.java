@@ -0,0 +1,20 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.service.CorrelationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through cache in front of the original-event lookups of the persistence listeners
+ */
+@Configuration
+@EnableConfigurationProperties(CorrelationCacheProperties.class)
+public class CorrelationCacheConfig {
+
+    @Bean
+    CorrelationCache correlationCache(CorrelationCacheProperties properties, MeterRegistry meterRegistry) {
+        return new CorrelationCache(properties.getMaximumSize(), properties.getTtl(), properties.getNegativeTtl(), meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache of original-event correlation lookups made by the persistence listeners
+ * Present IDs live for the TTL, IDs without an original event for the negative TTL
+ */
+@ConfigurationProperties(prefix = "app.persistence.correlation-cache")
+public class CorrelationCacheProperties {
+
+    private long maximumSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+}
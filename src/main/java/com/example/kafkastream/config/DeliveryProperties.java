@@ -0,0 +1,52 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.service.DeliveryMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Delivery mode of each publish endpoint
+ * Endpoints are named after their path (simple, legacy, action, inbound-message) and the mode
+ * applies to their bulk variant too; endpoints not listed use the default mode. A single-event
+ * request is answered with an error if its send hasn't completed within ackTimeout.
+ */
+@ConfigurationProperties(prefix = "app.ingest.delivery")
+public class DeliveryProperties {
+
+    private DeliveryMode mode = DeliveryMode.OUTBOX;
+
+    private Map<String, DeliveryMode> endpoints = new HashMap<>();
+
+    private Duration ackTimeout = Duration.ofSeconds(30);
+
+    public DeliveryMode modeFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, mode);
+    }
+
+    public DeliveryMode getMode() {
+        return mode;
+    }
+
+    public void setMode(DeliveryMode mode) {
+        this.mode = mode;
+    }
+
+    public Map<String, DeliveryMode> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, DeliveryMode> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Duration getAckTimeout() {
+        return ackTimeout;
+    }
+
+    public void setAckTimeout(Duration ackTimeout) {
+        this.ackTimeout = ackTimeout;
+    }
+}
@@ -5,22 +5,26 @@ import com.example.kafkastream.dto.CreateMessageEvent;
 import com.example.kafkastream.dto.GenericAction;
 import com.example.kafkastream.dto.NewFormatEvent;
 import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.serde.WireFormatSerde;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Kafka Consumer Configuration with specific type mappings for different topics
+ * Values are decoded by WireFormatSerde, so JSON and binary producers can share a topic
  */
 @Configuration
 @EnableKafka
@@ -32,21 +36,65 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.consumer.isolation-level:read_committed}")
+    private String isolationLevel;
+
+    @Value("${app.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final PipelineMetrics metrics;
+
+    public KafkaConsumerConfig(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
-     * Consumer factory for CreateChatEvent
+     * Settings shared by every listener consumer
+     * With read_committed, records from aborted or still-open Kafka Streams transactions
+     * (processing.guarantee=exactly_once_v2) are never handed to the listeners.
+     * Listeners are batch listeners, so max.poll.records is also the largest batch persisted in one transaction
      */
-    @Bean
-    public ConsumerFactory<String, CreateChatEvent> createChatEventConsumerFactory() {
+    private Map<String, Object> consumerConfigs() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.kafkastream.dto");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CreateChatEvent.class.getName());
-        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, isolationLevel);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return configProps;
+    }
+
+    /**
+     * Listeners receive each poll as one batch and acknowledge it from the write-behind writer once
+     * its rows are committed. With async acks the container accepts those acknowledgments from
+     * other threads and defers committing an offset until every lower offset is acknowledged.
+     * With spring.threads.virtual.enabled the consumer threads are virtual, as for the factory
+     * Spring Boot would auto-configure.
+     */
+    private void configureWriteBehind(ConcurrentKafkaListenerContainerFactory<String, ?> factory, String name) {
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
+
+    /**
+     * Consumer factory for CreateChatEvent
+     */
+    @Bean
+    public ConsumerFactory<String, CreateChatEvent> createChatEventConsumerFactory() {
+        Map<String, Object> configProps = consumerConfigs();
+
+        // Value decoder is chosen per record from the content-type header (JSON, Smile or CBOR)
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(),
+                metrics.deserializer(PipelineMetrics.PERSISTENCE, "create-chat-event", new WireFormatSerde<>(CreateChatEvent.class).deserializer()));
     }
 
     /**
@@ -56,6 +104,7 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, CreateChatEvent> createChatEventKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, CreateChatEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(createChatEventConsumerFactory());
+        configureWriteBehind(factory, "create-chat-event");
         return factory;
     }
 
@@ -64,16 +113,12 @@ public class KafkaConsumerConfig {
      */
     @Bean
     public ConsumerFactory<String, CreateMessageEvent> createMessageEventConsumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.kafkastream.dto");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CreateMessageEvent.class.getName());
-        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        Map<String, Object> configProps = consumerConfigs();
+
+        // Value decoder is chosen per record from the content-type header (JSON, Smile or CBOR)
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(),
+                metrics.deserializer(PipelineMetrics.PERSISTENCE, "create-message-event", new WireFormatSerde<>(CreateMessageEvent.class).deserializer()));
     }
 
     /**
@@ -83,6 +128,7 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, CreateMessageEvent> createMessageEventKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, CreateMessageEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(createMessageEventConsumerFactory());
+        configureWriteBehind(factory, "create-message-event");
         return factory;
     }
 
@@ -91,16 +137,12 @@ public class KafkaConsumerConfig {
      */
     @Bean
     public ConsumerFactory<String, SimpleEvent> simpleEventConsumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.kafkastream.dto");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, SimpleEvent.class.getName());
-        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        Map<String, Object> configProps = consumerConfigs();
+
+        // Value decoder is chosen per record from the content-type header (JSON, Smile or CBOR)
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(),
+                metrics.deserializer(PipelineMetrics.PERSISTENCE, "simple-event", new WireFormatSerde<>(SimpleEvent.class).deserializer()));
     }
 
     /**
@@ -110,6 +152,7 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, SimpleEvent> simpleEventKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, SimpleEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(simpleEventConsumerFactory());
+        configureWriteBehind(factory, "simple-event");
         return factory;
     }
 
@@ -118,16 +161,12 @@ public class KafkaConsumerConfig {
      */
     @Bean
     public ConsumerFactory<String, NewFormatEvent> newFormatEventConsumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.kafkastream.dto");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, NewFormatEvent.class.getName());
-        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        Map<String, Object> configProps = consumerConfigs();
+
+        // Value decoder is chosen per record from the content-type header (JSON, Smile or CBOR)
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(),
+                metrics.deserializer(PipelineMetrics.PERSISTENCE, "new-format-event", new WireFormatSerde<>(NewFormatEvent.class).deserializer()));
     }
 
     /**
@@ -137,6 +176,7 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, NewFormatEvent> newFormatEventKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, NewFormatEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(newFormatEventConsumerFactory());
+        configureWriteBehind(factory, "new-format-event");
         return factory;
     }
 
@@ -145,16 +185,12 @@ public class KafkaConsumerConfig {
      */
     @Bean
     public ConsumerFactory<String, GenericAction> genericActionConsumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.kafkastream.dto");
-        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, GenericAction.class.getName());
-        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        Map<String, Object> configProps = consumerConfigs();
+
+        // Value decoder is chosen per record from the content-type header (JSON, Smile or CBOR)
+        return new DefaultKafkaConsumerFactory<>(configProps,
+                new StringDeserializer(),
+                metrics.deserializer(PipelineMetrics.PERSISTENCE, "generic-action", new WireFormatSerde<>(GenericAction.class).deserializer()));
     }
 
     /**
@@ -164,6 +200,7 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, GenericAction> genericActionKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, GenericAction> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(genericActionConsumerFactory());
+        configureWriteBehind(factory, "generic-action");
         return factory;
     }
 }
\ No newline at end of file
@@ -1,38 +1,91 @@
 package com.example.kafkastream.config;
 
+import com.example.kafkastream.dlq.DeadLetterHeaders;
 import com.example.kafkastream.dto.GenericAction;
 import com.example.kafkastream.dto.LegacyEvent;
 import com.example.kafkastream.dto.NewFormatEvent;
 import com.example.kafkastream.dto.SimpleEvent;
-import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.InboundMessageView;
 import com.example.kafkastream.dto.CreateChatEvent;
 import com.example.kafkastream.dto.CreateMessageEvent;
-import com.example.kafkastream.serde.JsonSerde;
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.logging.StageLogger;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.processor.ActionRoutingProcessor;
+import com.example.kafkastream.processor.ChatEventDedupProcessor;
+import com.example.kafkastream.processor.DeadLetteringMapProcessor;
+import com.example.kafkastream.processor.InboundMessageDedupProcessor;
+import com.example.kafkastream.processor.InboundMessageFanOutProcessor;
+import com.example.kafkastream.processor.LateRecordRouter;
+import com.example.kafkastream.processor.PayloadTimestampExtractor;
+import com.example.kafkastream.serde.InboundMessageViewSerde;
+import com.example.kafkastream.serde.WireFormat;
+import com.example.kafkastream.serde.WireFormatSerde;
+import com.example.kafkastream.trace.TraceHeaders;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Kafka Streams Configuration with three main use cases:
  * 1. Content Transformation: Transform message payload
  * 2. JSON Schema Conversion: Convert between different JSON formats
  * 3. Routing and Division: Route messages based on criteria
+ * 4. Inbound Message Processing: Fan out inbound messages into chat and message events
+ * Each use case is a separate Kafka Streams application (see StreamsApplicationProperties)
  */
 @Configuration
-@EnableKafkaStreams
+@EnableConfigurationProperties({ActionRoutingProperties.class, StreamsApplicationProperties.class})
 public class KafkaStreamsConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaStreamsConfig.class);
 
+    // Application names under app.kafka.streams.applications; also the use case names of traces and metrics
+    public static final String CONTENT_TRANSFORMATION = "content-transformation";
+    public static final String SCHEMA_CONVERSION = "schema-conversion";
+    public static final String ACTION_ROUTING = "action-routing";
+    public static final String INBOUND_MESSAGE = "inbound-message";
+
+    static final String CREATE_CHAT_SINK = "create-chat-sink";
+    static final String CREATE_MESSAGE_SINK = "create-message-sink";
+    static final String CREATE_CHAT_DEDUP = "dedup-create-chat";
+    static final String CREATE_CHAT_BY_CHAT_ID = "create-chat-by-chat-id";
+    // Node the fan-out forwards chat events to, ahead of their repartition
+    static final String CREATE_CHAT_EVENTS = "create-chat-events";
+    static final String CREATE_CHAT_DEDUP_STORE = "create-chat-dedup-store";
+    static final String INBOUND_MESSAGE_DEDUP = "dedup-inbound-message";
+    static final String INBOUND_MESSAGE_DEDUP_STORE = "inbound-message-dedup-store";
+    static final String LATE_INBOUND_MESSAGE_SINK = "late-inbound-message-sink";
+    static final String ROUTE_LATE_INBOUND_MESSAGE = "route-late-inbound-message";
+    static final String TRANSFORM_SIMPLE_EVENT = "transform-simple-event";
+    static final String TRANSFORMED_SINK = "transformed-sink";
+    static final String SIMPLE_EVENT_DLQ_SINK = "simple-event-dlq-sink";
+    static final String CONVERT_LEGACY_EVENT = "convert-legacy-event";
+    static final String JSON_CONVERTED_SINK = "json-converted-sink";
+    static final String LEGACY_EVENT_DLQ_SINK = "legacy-event-dlq-sink";
+    static final String INBOUND_MESSAGE_DLQ_SINK = "inbound-message-dlq-sink";
+    static final String ROUTE_ACTIONS = "route-actions";
+
     @Value("${app.kafka.topics.input-topic}")
     private String inputTopic;
     
@@ -48,12 +101,6 @@ public class KafkaStreamsConfig {
     @Value("${app.kafka.topics.output-topic-json-converted}")
     private String outputTopicJsonConverted;
 
-    @Value("${app.kafka.topics.output-topic-action-a}")
-    private String outputTopicActionA;
-
-    @Value("${app.kafka.topics.output-topic-action-b}")
-    private String outputTopicActionB;
-
     @Value("${app.kafka.topics.inbound-message-topic}")
     private String inboundMessageTopic;
 
@@ -63,238 +110,250 @@ public class KafkaStreamsConfig {
     @Value("${app.kafka.topics.create-message-topic}")
     private String createMessageTopic;
 
+    @Value("${app.kafka.topics.inbound-message-late-topic}")
+    private String inboundMessageLateTopic;
+
+    @Value("${app.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${app.kafka.dedup.create-chat-ttl:24h}")
+    private Duration chatDedupTtl;
+
+    @Value("${app.kafka.dedup.inbound-message-window:1h}")
+    private Duration inboundDedupWindow;
+
+    @Value("${app.kafka.event-time.grace:5m}")
+    private Duration eventTimeGrace;
+
+    @Value("${app.kafka.dlq.topic-suffix:-dlq}")
+    private String deadLetterTopicSuffix;
+
+    private final StageLogRegistry stageLogs;
+    private final PipelineMetrics metrics;
+
+    public KafkaStreamsConfig(StageLogRegistry stageLogs, PipelineMetrics metrics) {
+        this.stageLogs = stageLogs;
+        this.metrics = metrics;
+    }
+
+    @Bean
+    StreamsApplicationFactory streamsApplicationFactory(KafkaProperties kafkaProperties, SslBundles sslBundles,
+                                                        StreamsApplicationProperties applications, MeterRegistry meterRegistry) {
+        return new StreamsApplicationFactory(kafkaProperties.buildStreamsProperties(sslBundles), applications, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.kafka.streams.applications." + CONTENT_TRANSFORMATION, name = "enabled", matchIfMissing = true)
+    StreamsBuilderFactoryBean contentTransformationStreams(StreamsApplicationFactory streamsApplications) {
+        return streamsApplications.create(CONTENT_TRANSFORMATION, this::transformContent);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.kafka.streams.applications." + SCHEMA_CONVERSION, name = "enabled", matchIfMissing = true)
+    StreamsBuilderFactoryBean schemaConversionStreams(StreamsApplicationFactory streamsApplications) {
+        return streamsApplications.create(SCHEMA_CONVERSION, this::convertSchema);
+    }
+
     @Bean
-    KStream<String, SimpleEvent> kStream(StreamsBuilder streamsBuilder) {
-        logger.info("Initializing Kafka Streams topology with JSON serialization");
-
-        // Configure JSON Serdes
-        final JsonSerde<SimpleEvent> simpleEventSerde = new JsonSerde<>(SimpleEvent.class);
-        final JsonSerde<LegacyEvent> legacyEventSerde = new JsonSerde<>(LegacyEvent.class);
-        final JsonSerde<NewFormatEvent> newFormatEventSerde = new JsonSerde<>(NewFormatEvent.class);
-        final JsonSerde<GenericAction> genericActionSerde = new JsonSerde<>(GenericAction.class);
-
-        // =====================================
-        // USE CASE 1: Content Transformation
-        // =====================================
+    @ConditionalOnProperty(prefix = "app.kafka.streams.applications." + ACTION_ROUTING, name = "enabled", matchIfMissing = true)
+    StreamsBuilderFactoryBean actionRoutingStreams(StreamsApplicationFactory streamsApplications,
+                                                   ActionRoutingProperties actionRouting) {
+        return streamsApplications.create(ACTION_ROUTING, builder -> routeActions(builder, actionRouting));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.kafka.streams.applications." + INBOUND_MESSAGE, name = "enabled", matchIfMissing = true)
+    StreamsBuilderFactoryBean inboundMessageStreams(StreamsApplicationFactory streamsApplications) {
+        return streamsApplications.create(INBOUND_MESSAGE, this::processInboundMessages);
+    }
+
+    // =====================================
+    // USE CASE 1: Content Transformation
+    // =====================================
+    void transformContent(StreamsBuilder streamsBuilder) {
+        final Serde<SimpleEvent> simpleEventSerde = TraceHeaders.traced(new WireFormatSerde<>(SimpleEvent.class, wireFormat()));
+        final StageLogger stageLog = stageLogs.stage(CONTENT_TRANSFORMATION);
+
         KStream<String, SimpleEvent> inputStream = streamsBuilder
-                .stream(inputTopic, Consumed.with(Serdes.String(), simpleEventSerde))
-                .peek((key, value) -> logger.info("Processing input-topic SimpleEvent: key={}, id={}, payload={}", 
-                      key, value.getId(), value.getPayload()));
-
-        // Transform SimpleEvent by adding processed timestamp and modifying payload
-        inputStream
-                .mapValues(event -> {
-                    try {
-                        logger.info("Processing SimpleEvent transformation: id={}, payload={}", event.getId(), event.getPayload());
-                        
-                        // Transform the content using regular constructor
-                        String originalPayload = event.getPayload();
-                        SimpleEvent transformedEvent = new SimpleEvent(
-                                event.getId(),
-                                "TRANSFORMED: " + originalPayload,
-                                System.currentTimeMillis()
-                        );
-                        
-                        logger.info("Transformed SimpleEvent from '{}' to: {}", originalPayload, transformedEvent.getPayload());
-                        return transformedEvent;
-                    } catch (Exception e) {
-                        logger.error("Error transforming SimpleEvent: {}", e.getMessage(), e);
-                        return event; // Return original on error
-                    }
-                }, Named.as("transform-simple-event"))
-                .to(outputTopicTransformed, Produced.with(Serdes.String(), simpleEventSerde));
-
-        // =====================================
-        // USE CASE 2: JSON Schema Conversion
-        // =====================================
+                .stream(inputTopic, Consumed.with(Serdes.String(), metrics.serde(CONTENT_TRANSFORMATION, inputTopic, simpleEventSerde))
+                        .withTimestampExtractor(new PayloadTimestampExtractor()))
+                .peek((key, value) -> stageLog.log("received", key, value,
+                        (event, log) -> log.field("id", event.getId())));
+
+        // Transform SimpleEvent by adding processed timestamp and modifying payload;
+        // events that fail the transformation go to the input topic's dead-letter topic
+        KStream<String, Object> transformedEvents = inputStream
+                .process(metrics.processor(CONTENT_TRANSFORMATION, TRANSFORM_SIMPLE_EVENT, SIMPLE_EVENT_DLQ_SINK,
+                        () -> new DeadLetteringMapProcessor<SimpleEvent, SimpleEvent>(TRANSFORM_SIMPLE_EVENT, event -> {
+                    // Transform the content using regular constructor
+                    String originalPayload = event.getPayload();
+                    SimpleEvent transformedEvent = new SimpleEvent(
+                            event.getId(),
+                            "TRANSFORMED: " + originalPayload,
+                            System.currentTimeMillis()
+                    );
+
+                    stageLog.log("transformed", event.getId(), transformedEvent,
+                            (transformed, log) -> log.field("payloadLength", transformed.getPayload().length()));
+                    return transformedEvent;
+                }, TRANSFORMED_SINK, SIMPLE_EVENT_DLQ_SINK)), Named.as(TRANSFORM_SIMPLE_EVENT));
+        forwardedAs(transformedEvents, SimpleEvent.class)
+                .to(outputTopicTransformed, Produced.with(Serdes.String(), metrics.serde(CONTENT_TRANSFORMATION, TRANSFORMED_SINK, simpleEventSerde)).withName(TRANSFORMED_SINK));
+        forwardedAs(transformedEvents, SimpleEvent.class)
+                .to(deadLetterTopic(inputTopic), Produced.with(Serdes.String(), metrics.serde(CONTENT_TRANSFORMATION, SIMPLE_EVENT_DLQ_SINK, simpleEventSerde)).withName(SIMPLE_EVENT_DLQ_SINK));
+    }
+
+    // =====================================
+    // USE CASE 2: JSON Schema Conversion
+    // =====================================
+    void convertSchema(StreamsBuilder streamsBuilder) {
+        final WireFormat format = wireFormat();
+        final Serde<LegacyEvent> legacyEventSerde = TraceHeaders.traced(new WireFormatSerde<>(LegacyEvent.class, format));
+        final Serde<NewFormatEvent> newFormatEventSerde = TraceHeaders.traced(new WireFormatSerde<>(NewFormatEvent.class, format));
+        final StageLogger stageLog = stageLogs.stage(SCHEMA_CONVERSION);
+
         // Convert legacy format to new format (using separate topic to avoid serde conflicts)
         KStream<String, LegacyEvent> legacyStream = streamsBuilder
-                .stream(legacyEventsTopic, Consumed.with(Serdes.String(), legacyEventSerde))
-                .peek((key, value) -> logger.info("Processing legacy-events-topic LegacyEvent: key={}, value={}", 
-                      key, value.getValue()));
-
-        legacyStream
-                .mapValues(legacyEvent -> {
-                    try {
-                        logger.info("Processing LegacyEvent conversion: value={}", legacyEvent.getValue());
-                        
-                        // Convert to new format using regular constructor
-                        NewFormatEvent newEvent = new NewFormatEvent(
-                                legacyEvent.getValue(),
-                                "legacy-system",
-                                System.currentTimeMillis()
-                        );
-                        
-                        logger.info("Converted LegacyEvent '{}' to NewFormatEvent: {}", 
-                                  legacyEvent.getValue(), newEvent.getNewFieldName());
-                        return newEvent;
-                    } catch (Exception e) {
-                        logger.error("Error converting legacy event: {}", e.getMessage(), e);
-                        // Return a default NewFormatEvent on error
-                        return new NewFormatEvent(
-                                "ERROR_PROCESSING",
-                                "error-occurred",
-                                System.currentTimeMillis()
-                        );
-                    }
-                }, Named.as("convert-legacy-event"))
-                .to(outputTopicJsonConverted, Produced.with(Serdes.String(), newFormatEventSerde));
-
-        // =====================================
-        // USE CASE 3: Process actions-topic for Routing and Division
-        // =====================================
+                .stream(legacyEventsTopic, Consumed.with(Serdes.String(), metrics.serde(SCHEMA_CONVERSION, legacyEventsTopic, legacyEventSerde)))
+                .peek((key, value) -> stageLog.log("received", key, value,
+                        (event, log) -> log.field("oldFieldName", event.getOldFieldName())));
+
+        KStream<String, Object> convertedEvents = legacyStream
+                .process(metrics.processor(SCHEMA_CONVERSION, CONVERT_LEGACY_EVENT, LEGACY_EVENT_DLQ_SINK,
+                        () -> new DeadLetteringMapProcessor<LegacyEvent, NewFormatEvent>(CONVERT_LEGACY_EVENT, legacyEvent -> {
+                    // Convert to new format using regular constructor
+                    NewFormatEvent newEvent = new NewFormatEvent(
+                            legacyEvent.getValue(),
+                            "legacy-system",
+                            System.currentTimeMillis()
+                    );
+
+                    stageLog.log("converted", null, newEvent,
+                            (converted, log) -> log.field("newFieldName", converted.getNewFieldName()));
+                    return newEvent;
+                }, JSON_CONVERTED_SINK, LEGACY_EVENT_DLQ_SINK)), Named.as(CONVERT_LEGACY_EVENT));
+        forwardedAs(convertedEvents, NewFormatEvent.class)
+                .to(outputTopicJsonConverted, Produced.with(Serdes.String(), metrics.serde(SCHEMA_CONVERSION, JSON_CONVERTED_SINK, newFormatEventSerde)).withName(JSON_CONVERTED_SINK));
+        forwardedAs(convertedEvents, LegacyEvent.class)
+                .to(deadLetterTopic(legacyEventsTopic), Produced.with(Serdes.String(), metrics.serde(SCHEMA_CONVERSION, LEGACY_EVENT_DLQ_SINK, legacyEventSerde)).withName(LEGACY_EVENT_DLQ_SINK));
+    }
+
+    // =====================================
+    // USE CASE 3: Process actions-topic for Routing and Division
+    // =====================================
+    void routeActions(StreamsBuilder streamsBuilder, ActionRoutingProperties actionRouting) {
+        final Serde<GenericAction> genericActionSerde = TraceHeaders.traced(new WireFormatSerde<>(GenericAction.class, wireFormat()));
+        final StageLogger stageLog = stageLogs.stage(ACTION_ROUTING);
+
         KStream<String, GenericAction> actionsStream = streamsBuilder
-                .stream(actionsTopic, Consumed.with(Serdes.String(), genericActionSerde))
-                .peek((key, value) -> logger.info("Processing actions-topic GenericAction: key={}, actionType={}, details={}", 
-                      key, value.getActionType(), value.getDetails()));
-
-        // Split stream based on actionType and route to different topics
-        actionsStream
-                .filter((key, value) -> {
-                    boolean isActionA = "A".equalsIgnoreCase(value.getActionType());
-                    logger.debug("Checking Action Type A filter: isActionA={}, actionType={}", isActionA, value.getActionType());
-                    return isActionA;
-                })
-                .mapValues(action -> {
-                    try {
-                        logger.info("Processing Action Type A transformation: actionType={}, details={}", 
-                                  action.getActionType(), action.getDetails());
-                        
-                        // Transform for Action A using regular constructor
-                        String originalDetails = action.getDetails();
-                        GenericAction processedAction = new GenericAction(
-                                action.getActionType(),
-                                "ACTION_A_PROCESSED: " + originalDetails
-                        );
-                        
-                        logger.info("Transformed Action A from '{}' to: {}", originalDetails, processedAction.getDetails());
-                        return processedAction;
-                    } catch (Exception e) {
-                        logger.error("Error processing Action A: {}", e.getMessage(), e);
-                        return action;
-                    }
-                }, Named.as("process-action-a"))
-                .to(outputTopicActionA, Produced.with(Serdes.String(), genericActionSerde));
-
-        // Process Action Type B
-        actionsStream
-                .filter((key, value) -> {
-                    boolean isActionB = "B".equalsIgnoreCase(value.getActionType());
-                    logger.debug("Checking Action Type B filter: isActionB={}, actionType={}", isActionB, value.getActionType());
-                    return isActionB;
-                })
-                .mapValues(action -> {
-                    try {
-                        logger.info("Processing Action Type B transformation: actionType={}, details={}", 
-                                  action.getActionType(), action.getDetails());
-                        
-                        // Transform for Action B using regular constructor
-                        String originalDetails = action.getDetails();
-                        GenericAction processedAction = new GenericAction(
-                                action.getActionType(),
-                                "ACTION_B_PROCESSED: " + originalDetails
-                        );
-                        
-                        logger.info("Transformed Action B from '{}' to: {}", originalDetails, processedAction.getDetails());
-                        return processedAction;
-                    } catch (Exception e) {
-                        logger.error("Error processing Action B: {}", e.getMessage(), e);
-                        return action;
-                    }
-                }, Named.as("process-action-b"))
-                .to(outputTopicActionB, Produced.with(Serdes.String(), genericActionSerde));
-
-        // =====================================
-        // USE CASE 4: Inbound Message Processing
-        // =====================================
-        final JsonSerde<InboundMessageEvent> inboundMessageEventSerde = new JsonSerde<>(InboundMessageEvent.class);
-        final JsonSerde<CreateChatEvent> createChatEventSerde = new JsonSerde<>(CreateChatEvent.class);
-        final JsonSerde<CreateMessageEvent> createMessageEventSerde = new JsonSerde<>(CreateMessageEvent.class);
-
-        KStream<String, InboundMessageEvent> inboundMessageStream = streamsBuilder
-                .stream(inboundMessageTopic, Consumed.with(Serdes.String(), inboundMessageEventSerde))
-                .peek((key, value) -> logger.info("Processing inbound-message-topic InboundMessageEvent: key={}, app={}, type={}", 
-                      key, value.getApp(), value.getType()));
-
-        // Transform InboundMessageEvent into CreateChatEvent
-        inboundMessageStream
-                .mapValues(inboundEvent -> {
-                    try {
-                        logger.info("Processing InboundMessageEvent to CreateChatEvent transformation: messageId={}, senderName={}", 
-                                  inboundEvent.getPayload().getId(), inboundEvent.getPayload().getSender().getName());
-                        
-                        // Extract data from inbound message
-                        InboundMessageEvent.MessagePayload payload = inboundEvent.getPayload();
-                        InboundMessageEvent.Sender sender = payload.getSender();
-                        
-                        // Create CreateChatEvent
-                        CreateChatEvent chatEvent = new CreateChatEvent(
-                                payload.getSource(),           // chat_id
-                                sender.getName(),              // user_name
-                                sender.getPhone(),             // user_phone
-                                sender.getCountryCode(),       // country_code
-                                sender.getDialCode(),          // dial_code
-                                inboundEvent.getTimestamp()    // created_at
-                        );
-                        
-                        logger.info("Created CreateChatEvent: chatId={}, userName={}, userPhone={}", 
-                                  chatEvent.getChatId(), chatEvent.getUserName(), chatEvent.getUserPhone());
-                        return chatEvent;
-                    } catch (Exception e) {
-                        logger.error("Error transforming InboundMessageEvent to CreateChatEvent: {}", e.getMessage(), e);
-                        // Return a default CreateChatEvent on error
-                        return new CreateChatEvent(
-                                "ERROR_CHAT_ID",
-                                "ERROR_USER",
-                                "ERROR_PHONE",
-                                "ERROR_COUNTRY",
-                                "ERROR_DIAL",
-                                System.currentTimeMillis()
-                        );
-                    }
-                }, Named.as("transform-to-chat-event"))
-                .to(createChatTopic, Produced.with(Serdes.String(), createChatEventSerde));
-
-        // Transform InboundMessageEvent into CreateMessageEvent
-        inboundMessageStream
-                .mapValues(inboundEvent -> {
-                    try {
-                        logger.info("Processing InboundMessageEvent to CreateMessageEvent transformation: messageId={}, content={}", 
-                                  inboundEvent.getPayload().getId(), inboundEvent.getPayload().getPayload().getText());
-                        
-                        // Extract data from inbound message
-                        InboundMessageEvent.MessagePayload payload = inboundEvent.getPayload();
-                        InboundMessageEvent.Sender sender = payload.getSender();
-                        
-                        // Create CreateMessageEvent
-                        CreateMessageEvent messageEvent = new CreateMessageEvent(
-                                payload.getId(),                       // message_id
-                                sender.getPhone(),                     // sender_phone
-                                payload.getSource(),                   // chat_id
-                                payload.getType(),                     // message_type
-                                payload.getPayload().getText(),       // content
-                                inboundEvent.getTimestamp()           // timestamp
-                        );
-                        
-                        logger.info("Created CreateMessageEvent: messageId={}, chatId={}, content={}", 
-                                  messageEvent.getMessageId(), messageEvent.getChatId(), messageEvent.getContent());
-                        return messageEvent;
-                    } catch (Exception e) {
-                        logger.error("Error transforming InboundMessageEvent to CreateMessageEvent: {}", e.getMessage(), e);
-                        // Return a default CreateMessageEvent on error
-                        return new CreateMessageEvent(
-                                "ERROR_MESSAGE_ID",
-                                "ERROR_SENDER",
-                                "ERROR_CHAT_ID",
-                                "error",
-                                "ERROR_CONTENT",
-                                System.currentTimeMillis()
-                        );
-                    }
-                }, Named.as("transform-to-message-event"))
-                .to(createMessageTopic, Produced.with(Serdes.String(), createMessageEventSerde));
-
-        logger.info("Kafka Streams topology configured successfully with JSON serialization");
-        return inputStream; // Return the main stream
+                .stream(actionsTopic, Consumed.with(Serdes.String(), metrics.serde(ACTION_ROUTING, actionsTopic, genericActionSerde)))
+                .peek((key, value) -> stageLog.log("received", key, value,
+                        (action, log) -> log.field("actionType", action.getActionType())));
+
+        // Route every action in one pass using the configured route table
+        Map<String, String> sinkNamesByTopic = new LinkedHashMap<>();
+        Map<String, ActionRoutingProcessor.CompiledRoute> routesByActionType = new LinkedHashMap<>();
+        actionRouting.getRoutes().forEach((actionType, route) -> {
+            String sinkName = sinkNamesByTopic.computeIfAbsent(route.getTopic(), KafkaStreamsConfig::actionSinkName);
+            routesByActionType.put(actionType, new ActionRoutingProcessor.CompiledRoute(route.getPrefix(), sinkName));
+        });
+        final Map<String, ActionRoutingProcessor.CompiledRoute> compiledRoutes = ActionRoutingProcessor.compile(routesByActionType);
+        final String defaultSinkName = sinkNamesByTopic.computeIfAbsent(actionRouting.getDefaultTopic(), KafkaStreamsConfig::actionSinkName);
+        logger.info("Compiled action routes {} with default topic {}", actionRouting.getRoutes().keySet(), actionRouting.getDefaultTopic());
+
+        KStream<String, GenericAction> routedActions = actionsStream
+                .process(metrics.processor(ACTION_ROUTING, ROUTE_ACTIONS,
+                        () -> new ActionRoutingProcessor(compiledRoutes, defaultSinkName)), Named.as(ROUTE_ACTIONS));
+
+        sinkNamesByTopic.forEach((topic, sinkName) ->
+                routedActions.to(topic, Produced.with(Serdes.String(), metrics.serde(ACTION_ROUTING, sinkName, genericActionSerde)).withName(sinkName)));
+    }
+
+    // =====================================
+    // USE CASE 4: Inbound Message Processing
+    // =====================================
+    void processInboundMessages(StreamsBuilder streamsBuilder) {
+        final WireFormat format = wireFormat();
+        final Serde<InboundMessageView> inboundMessageViewSerde = TraceHeaders.traced(new InboundMessageViewSerde(format));
+        final Serde<CreateChatEvent> createChatEventSerde = TraceHeaders.traced(new WireFormatSerde<>(CreateChatEvent.class, format));
+        final Serde<CreateMessageEvent> createMessageEventSerde = TraceHeaders.traced(new WireFormatSerde<>(CreateMessageEvent.class, format));
+        final StageLogger stageLog = stageLogs.stage(INBOUND_MESSAGE);
+
+        // Inbound messages are decoded into a flat view holding only the fields used below,
+        // and stamped with the event time carried in the payload
+        KStream<String, InboundMessageView> inboundMessageStream = streamsBuilder
+                .stream(inboundMessageTopic, Consumed.with(Serdes.String(), metrics.serde(INBOUND_MESSAGE, inboundMessageTopic, inboundMessageViewSerde))
+                        .withTimestampExtractor(new PayloadTimestampExtractor()))
+                .peek((key, value) -> stageLog.log("received", key, value,
+                        (message, log) -> log.field("messageId", message.getMessageId()).field("type", message.getMessageType())));
+
+        // Records older than stream time minus the grace period go to the late side output
+        KStream<String, InboundMessageView> onTimeInboundMessages = inboundMessageStream
+                .process(metrics.processor(INBOUND_MESSAGE, ROUTE_LATE_INBOUND_MESSAGE,
+                        () -> new LateRecordRouter<InboundMessageView>(eventTimeGrace, INBOUND_MESSAGE_DEDUP, LATE_INBOUND_MESSAGE_SINK)),
+                        Named.as(ROUTE_LATE_INBOUND_MESSAGE));
+        onTimeInboundMessages.to(inboundMessageLateTopic,
+                Produced.with(Serdes.String(), metrics.serde(INBOUND_MESSAGE, LATE_INBOUND_MESSAGE_SINK, inboundMessageViewSerde))
+                        .withName(LATE_INBOUND_MESSAGE_SINK));
+
+        // Drop webhook redeliveries of the same message id before any work is done on them
+        streamsBuilder.addStateStore(InboundMessageDedupProcessor.storeBuilder(INBOUND_MESSAGE_DEDUP_STORE, inboundDedupWindow));
+        KStream<String, InboundMessageView> uniqueInboundMessages = onTimeInboundMessages
+                .process(metrics.processor(INBOUND_MESSAGE, INBOUND_MESSAGE_DEDUP,
+                        () -> new InboundMessageDedupProcessor(INBOUND_MESSAGE_DEDUP_STORE, inboundDedupWindow)),
+                        Named.as(INBOUND_MESSAGE_DEDUP), INBOUND_MESSAGE_DEDUP_STORE);
+
+        // Single pass over each inbound message: the fan-out node forwards one record to each named child
+        KStream<String, Object> inboundFanOut = uniqueInboundMessages
+                .process(metrics.processor(INBOUND_MESSAGE, InboundMessageFanOutProcessor.NAME, INBOUND_MESSAGE_DLQ_SINK,
+                        () -> new InboundMessageFanOutProcessor(CREATE_CHAT_EVENTS, CREATE_MESSAGE_SINK, INBOUND_MESSAGE_DLQ_SINK)),
+                        Named.as(InboundMessageFanOutProcessor.NAME));
+
+        // Chat events only go out for new chats or changed sender attributes. Inbound messages are
+        // keyed by message id, so chat events are first repartitioned by chat id to bring every event
+        // of a chat to the task holding its dedup state; the repartition topic is not traced so that
+        // the stream-in/out stamps stay those of the source and sink topics
+        streamsBuilder.addStateStore(ChatEventDedupProcessor.storeBuilder(CREATE_CHAT_DEDUP_STORE, chatDedupTtl));
+        inboundFanOut
+                .mapValues(value -> (CreateChatEvent) value, Named.as(CREATE_CHAT_EVENTS))
+                .repartition(Repartitioned.with(Serdes.String(),
+                                metrics.serde(INBOUND_MESSAGE, CREATE_CHAT_BY_CHAT_ID, new WireFormatSerde<>(CreateChatEvent.class, format)))
+                        .withStreamPartitioner(ChatEventDedupProcessor.partitioner())
+                        .withName(CREATE_CHAT_BY_CHAT_ID))
+                .process(metrics.processor(INBOUND_MESSAGE, CREATE_CHAT_DEDUP,
+                        () -> new ChatEventDedupProcessor(CREATE_CHAT_DEDUP_STORE, chatDedupTtl)),
+                        Named.as(CREATE_CHAT_DEDUP), CREATE_CHAT_DEDUP_STORE)
+                .to(createChatTopic, Produced.with(Serdes.String(), metrics.serde(INBOUND_MESSAGE, CREATE_CHAT_SINK, createChatEventSerde))
+                        .withName(CREATE_CHAT_SINK));
+
+        forwardedAs(inboundFanOut, CreateMessageEvent.class)
+                .to(createMessageTopic, Produced.with(Serdes.String(), metrics.serde(INBOUND_MESSAGE, CREATE_MESSAGE_SINK, createMessageEventSerde))
+                        .withName(CREATE_MESSAGE_SINK));
+
+        // Messages that could not be fanned out are kept on the inbound topic's dead-letter topic
+        forwardedAs(inboundFanOut, InboundMessageView.class)
+                .to(deadLetterTopic(inboundMessageTopic), Produced.with(Serdes.String(), metrics.serde(INBOUND_MESSAGE, INBOUND_MESSAGE_DLQ_SINK, inboundMessageViewSerde))
+                        .withName(INBOUND_MESSAGE_DLQ_SINK));
+    }
+
+    private WireFormat wireFormat() {
+        return WireFormat.fromName(wireFormat);
+    }
+
+    private String deadLetterTopic(String sourceTopic) {
+        return DeadLetterHeaders.topicFor(sourceTopic, deadLetterTopicSuffix);
+    }
+
+    static String actionSinkName(String topic) {
+        return "action-sink-" + topic;
+    }
+
+    /**
+     * Typed view of a multi-child processor's output; each child only ever receives the type
+     * the processor forwards to it by name, so the cast is safe
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> KStream<String, T> forwardedAs(KStream<String, Object> stream, Class<T> type) {
+        return (KStream<String, T>) (KStream<String, ?>) stream;
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sampling of per-record pipeline logs
+ * Each stage logs a fraction of its records (0 = off, 1 = every record), capped per second
+ */
+@ConfigurationProperties(prefix = "app.logging.sampling")
+public class LogSamplingProperties {
+
+    private double defaultRate = 0.01;
+
+    private int maxPerSecond = 100;
+
+    private Map<String, Double> stages = new LinkedHashMap<>();
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public Map<String, Double> getStages() {
+        return stages;
+    }
+
+    public void setStages(Map<String, Double> stages) {
+        this.stages = stages;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-node latency and error metrics and per-use-case trace latencies, exported with the rest
+ * of the Micrometer meters on the Actuator Prometheus endpoint
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Value("${app.metrics.latency-sample-rate:0.05}")
+    private double latencySampleRate;
+
+    @Bean
+    PipelineMetrics pipelineMetrics(MeterRegistry meterRegistry) {
+        return new PipelineMetrics(meterRegistry, latencySampleRate);
+    }
+
+    @Bean
+    TraceLatencyRecorder traceLatencyRecorder(MeterRegistry meterRegistry) {
+        return new TraceLatencyRecorder(meterRegistry);
+    }
+}
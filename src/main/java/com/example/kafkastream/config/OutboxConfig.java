@@ -0,0 +1,44 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.repository.OutboxMessageRepository;
+import com.example.kafkastream.service.OutboxRelay;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+
+/**
+ * Outbox relay, on its own idempotent producer; with app.outbox.enabled=false records written
+ * in OUTBOX mode stay in the outbox
+ */
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    KafkaTemplate<String, byte[]> outboxKafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true));
+    }
+
+    @Bean
+    OutboxRelay outboxRelay(OutboxMessageRepository outboxMessageRepository, ProducerFactory<String, byte[]> producerFactory,
+                            TraceLatencyRecorder traceLatency, MeterRegistry meterRegistry, OutboxProperties properties,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        OutboxRelay relay = new OutboxRelay(outboxMessageRepository, outboxKafkaTemplate(producerFactory), traceLatency,
+                meterRegistry, properties.getBatchSize(), properties.getPollInterval(), properties.getSendTimeout(),
+                properties.getRetryBackoff());
+        relay.setVirtualThreads(virtualThreads);
+        return relay;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.logging.StageLogRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sampled per-record logging for the topology stages and persistence listeners
+ */
+@Configuration
+@EnableConfigurationProperties(LogSamplingProperties.class)
+public class StageLoggingConfig {
+
+    @Bean
+    StageLogRegistry stageLogRegistry(LogSamplingProperties sampling) {
+        return new StageLogRegistry(sampling.getDefaultRate(), sampling.getMaxPerSecond(), sampling.getStages());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.dlq.DeadLetterPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.KafkaStreamsInfrastructureCustomizer;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsMicrometerListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds one StreamsBuilderFactoryBean per use case
+ * Every application starts from the shared spring.kafka.streams properties and applies its own
+ * entry from app.kafka.streams.applications; the topology is attached when the factory bean
+ * builds its StreamsBuilder, so each KafkaStreams instance only contains its own use case.
+ * Each application also gets its own dead-letter publisher, configured from its properties and
+ * closed after its KafkaStreams instance.
+ */
+public class StreamsApplicationFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamsApplicationFactory.class);
+
+    private final Map<String, Object> baseProperties;
+    private final StreamsApplicationProperties applications;
+    private final MeterRegistry meterRegistry;
+
+    public StreamsApplicationFactory(Map<String, Object> baseProperties, StreamsApplicationProperties applications,
+                                     MeterRegistry meterRegistry) {
+        this.baseProperties = baseProperties;
+        this.applications = applications;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name     use case key under app.kafka.streams.applications
+     * @param topology adds the use case's processors to the application's StreamsBuilder
+     */
+    public StreamsBuilderFactoryBean create(String name, Consumer<StreamsBuilder> topology) {
+        StreamsApplicationProperties.Application application = application(name);
+        Map<String, Object> properties = properties(name);
+        logger.info("Configuring Kafka Streams application {}: application.id={}, threads={}",
+                name, properties.get(StreamsConfig.APPLICATION_ID_CONFIG),
+                properties.getOrDefault(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 1));
+
+        DeadLetterPublisher deadLetters = DeadLetterPublisher.create(properties);
+        properties.put(DeadLetterPublisher.PUBLISHER_CONFIG, deadLetters);
+
+        StreamsBuilderFactoryBean factoryBean = new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(properties));
+        factoryBean.setAutoStartup(application.isAutoStartup());
+        factoryBean.addListener(new StreamsBuilderFactoryBean.Listener() {
+            @Override
+            public void streamsRemoved(String id, KafkaStreams streams) {
+                deadLetters.close();
+            }
+        });
+        // Kafka Streams' own client, thread and task metrics (process-rate, commit latency, ...)
+        factoryBean.addListener(new KafkaStreamsMicrometerListener(meterRegistry, List.of(Tag.of("application", name))));
+        factoryBean.setInfrastructureCustomizer(new KafkaStreamsInfrastructureCustomizer() {
+            @Override
+            public void configureBuilder(StreamsBuilder builder) {
+                topology.accept(builder);
+            }
+        });
+        return factoryBean;
+    }
+
+    /**
+     * Effective Kafka Streams properties of an application
+     * The application id defaults to the shared application id suffixed with the use case name.
+     */
+    Map<String, Object> properties(String name) {
+        StreamsApplicationProperties.Application application = application(name);
+        Map<String, Object> properties = new HashMap<>(baseProperties);
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, application.getApplicationId() != null
+                ? application.getApplicationId()
+                : baseProperties.get(StreamsConfig.APPLICATION_ID_CONFIG) + "-" + name);
+        if (application.getNumStreamThreads() != null) {
+            properties.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, application.getNumStreamThreads());
+        }
+        if (application.getCommitIntervalMs() != null) {
+            properties.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, application.getCommitIntervalMs());
+        }
+        if (application.getCacheMaxBytes() != null) {
+            properties.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, application.getCacheMaxBytes());
+        }
+        properties.putAll(application.getProperties());
+        return properties;
+    }
+
+    private StreamsApplicationProperties.Application application(String name) {
+        return applications.getApplications().getOrDefault(name, new StreamsApplicationProperties.Application());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-use-case Kafka Streams applications
+ * Each use case runs in its own KafkaStreams instance with its own application id, threads,
+ * cache and commit settings; unset values fall back to spring.kafka.streams. Disabling the
+ * other applications runs a use case on its own, enabling several co-locates them in one JVM.
+ */
+@ConfigurationProperties(prefix = "app.kafka.streams")
+public class StreamsApplicationProperties {
+
+    private Map<String, Application> applications = new LinkedHashMap<>();
+
+    public Map<String, Application> getApplications() {
+        return applications;
+    }
+
+    public void setApplications(Map<String, Application> applications) {
+        this.applications = applications;
+    }
+
+    /**
+     * Settings of a single Kafka Streams application
+     */
+    public static class Application {
+
+        private boolean enabled = true;
+
+        private boolean autoStartup = true;
+
+        private String applicationId;
+
+        private Integer numStreamThreads;
+
+        private Long commitIntervalMs;
+
+        private Long cacheMaxBytes;
+
+        private Map<String, String> properties = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isAutoStartup() {
+            return autoStartup;
+        }
+
+        public void setAutoStartup(boolean autoStartup) {
+            this.autoStartup = autoStartup;
+        }
+
+        public String getApplicationId() {
+            return applicationId;
+        }
+
+        public void setApplicationId(String applicationId) {
+            this.applicationId = applicationId;
+        }
+
+        public Integer getNumStreamThreads() {
+            return numStreamThreads;
+        }
+
+        public void setNumStreamThreads(Integer numStreamThreads) {
+            this.numStreamThreads = numStreamThreads;
+        }
+
+        public Long getCommitIntervalMs() {
+            return commitIntervalMs;
+        }
+
+        public void setCommitIntervalMs(Long commitIntervalMs) {
+            this.commitIntervalMs = commitIntervalMs;
+        }
+
+        public Long getCacheMaxBytes() {
+            return cacheMaxBytes;
+        }
+
+        public void setCacheMaxBytes(Long cacheMaxBytes) {
+            this.cacheMaxBytes = cacheMaxBytes;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public void setProperties(Map<String, String> properties) {
+            this.properties = properties;
+        }
+    }
+}
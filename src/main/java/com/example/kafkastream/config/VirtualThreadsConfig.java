@@ -0,0 +1,28 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.metrics.VirtualThreadPinning;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Virtual-thread mode, switched with spring.threads.virtual.enabled
+ * Spring Boot then runs Tomcat's requests on virtual threads; the listener containers, the
+ * write-behind writers and the outbox relay follow the same property (KafkaConsumerConfig,
+ * WriteBehindConfig, OutboxConfig). Here the pinning report is added.
+ */
+@Configuration
+@EnableConfigurationProperties(VirtualThreadsProperties.class)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.threads.virtual", name = "pinning-report", matchIfMissing = true)
+    VirtualThreadPinning virtualThreadPinning(MeterRegistry meterRegistry, VirtualThreadsProperties properties) {
+        return new VirtualThreadPinning(meterRegistry, properties.getPinningThreshold());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Pinning report of the virtual-thread mode (spring.threads.virtual.enabled)
+ * Virtual threads blocked while pinned to their carrier for longer than pinningThreshold are
+ * reported; 20ms is the JDK's own default for the event.
+ */
+@ConfigurationProperties(prefix = "app.threads.virtual")
+public class VirtualThreadsProperties {
+
+    private boolean pinningReport = true;
+
+    private Duration pinningThreshold = Duration.ofMillis(20);
+
+    public boolean isPinningReport() {
+        return pinningReport;
+    }
+
+    public void setPinningReport(boolean pinningReport) {
+        this.pinningReport = pinningReport;
+    }
+
+    public Duration getPinningThreshold() {
+        return pinningThreshold;
+    }
+
+    public void setPinningThreshold(Duration pinningThreshold) {
+        this.pinningThreshold = pinningThreshold;
+    }
+}
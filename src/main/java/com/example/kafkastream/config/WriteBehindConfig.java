@@ -0,0 +1,53 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.service.KafkaPersistenceService;
+import com.example.kafkastream.service.ProcessedEventService;
+import com.example.kafkastream.service.ProcessedEventWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+/**
+ * Write-behind stage of the persistence listeners; backpressure pauses their containers
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+    @Bean
+    ProcessedEventWriter processedEventWriter(ProcessedEventService processedEventService, WriteBehindProperties properties,
+                                              KafkaListenerEndpointRegistry listenerRegistry, MeterRegistry meterRegistry,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ProcessedEventWriter writer = new ProcessedEventWriter(processedEventService, properties.getCapacity(),
+                properties.getMaxGroupRows(), properties.getWriterThreads(), properties.getRetryBackoff(),
+                properties.getMaxRetryBackoff(), new ProcessedEventWriter.Backpressure() {
+                    @Override
+                    public void pause() {
+                        KafkaPersistenceService.LISTENER_IDS.forEach(id -> container(listenerRegistry, id).pause());
+                    }
+
+                    @Override
+                    public void resume() {
+                        KafkaPersistenceService.LISTENER_IDS.forEach(id -> container(listenerRegistry, id).resume());
+                    }
+                });
+        writer.setVirtualThreads(virtualThreads);
+        Gauge.builder("persistence.write.behind.pending", writer, ProcessedEventWriter::pendingRows)
+                .description("Rows handed to the write-behind stage and not yet committed")
+                .register(meterRegistry);
+        return writer;
+    }
+
+    private static MessageListenerContainer container(KafkaListenerEndpointRegistry listenerRegistry, String id) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(id);
+        if (container == null) {
+            throw new IllegalStateException("No listener container with id " + id);
+        }
+        return container;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.kafkastream.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Write-behind persistence of the listener batches
+ * The listener containers are paused while more than capacity rows are waiting to be committed
+ * Rows that fail are retried after retryBackoff, doubled on every further failure up to maxRetryBackoff
+ */
+@ConfigurationProperties(prefix = "app.persistence.write-behind")
+public class WriteBehindProperties {
+
+    private int capacity = 10_000;
+
+    private int maxGroupRows = 2_000;
+
+    private int writerThreads = 2;
+
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxGroupRows() {
+        return maxGroupRows;
+    }
+
+    public void setMaxGroupRows(int maxGroupRows) {
+        this.maxGroupRows = maxGroupRows;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+}
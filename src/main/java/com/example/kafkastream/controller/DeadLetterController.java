@@ -0,0 +1,56 @@
+package com.example.kafkastream.controller;
+
+import com.example.kafkastream.service.DeadLetterReplayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for dead-letter topics
+ * Re-publishes failed records to their original topic once the cause has been fixed
+ */
+@RestController
+@RequestMapping("/api/dlq")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    public DeadLetterController(DeadLetterReplayService deadLetterReplayService) {
+        this.deadLetterReplayService = deadLetterReplayService;
+    }
+
+    /**
+     * POST /api/dlq/replay?topic=input-topic-dlq&maxRecords=100
+     * Replays pending records of a dead-letter topic to the topic they failed on
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> replay(@RequestParam String topic,
+                                                      @RequestParam(defaultValue = "100") int maxRecords) {
+        try {
+            DeadLetterReplayService.ReplayResult result = deadLetterReplayService.replay(topic, maxRecords);
+            return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "topic", result.topic(),
+                "replayed", result.replayed(),
+                "skipped", result.skipped()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            logger.error("Error replaying dead-letter topic {}", topic, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "status", "error",
+                "message", "Failed to replay " + topic + ": " + e.getMessage()
+            ));
+        }
+    }
+}
@@ -1,26 +1,48 @@
 package com.example.kafkastream.controller;
 
+import com.example.kafkastream.config.DeliveryProperties;
+import com.example.kafkastream.config.KafkaStreamsConfig;
 import com.example.kafkastream.dto.GenericAction;
 import com.example.kafkastream.dto.LegacyEvent;
 import com.example.kafkastream.dto.SimpleEvent;
 import com.example.kafkastream.dto.InboundMessageEvent;
 import com.example.kafkastream.model.OriginalEvent;
 import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.repository.EventCursor;
+import com.example.kafkastream.repository.EventFilter;
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventExportService;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.EventPage;
 import com.example.kafkastream.service.OriginalEventService;
 import com.example.kafkastream.service.ProcessedEventService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.kafkastream.service.ProcessedEventStats;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for Kafka Streams PoC
@@ -35,10 +57,14 @@ public class EventController {
 
     private static final Logger logger = LoggerFactory.getLogger(EventController.class);
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final ProcessedEventService processedEventService;
     private final OriginalEventService originalEventService;
-    private final ObjectMapper objectMapper;
+    private final EventExportService eventExportService;
+    private final EventIngestionService eventIngestionService;
+    private final DeliveryProperties deliveryProperties;
 
     @Value("${app.kafka.topics.input-topic}")
     private String inputTopic;
@@ -49,292 +75,421 @@ public class EventController {
     @Value("${app.kafka.topics.inbound-message-topic}")
     private String inboundMessageTopic;
 
-    public EventController(KafkaTemplate<String, Object> kafkaTemplate,
-                          ProcessedEventService processedEventService,
+    public EventController(ProcessedEventService processedEventService,
                           OriginalEventService originalEventService,
-                          ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
+                          EventExportService eventExportService,
+                          EventIngestionService eventIngestionService,
+                          DeliveryProperties deliveryProperties) {
         this.processedEventService = processedEventService;
         this.originalEventService = originalEventService;
-        this.objectMapper = objectMapper;
+        this.eventExportService = eventExportService;
+        this.eventIngestionService = eventIngestionService;
+        this.deliveryProperties = deliveryProperties;
     }
 
     /**
      * POST /api/events/simple
      * Accepts SimpleEvent as JSON and publishes JSON to input-topic - Use Case 1
+     * Answered once the send completes under the endpoint's delivery mode
      */
     @PostMapping("/simple")
-    public ResponseEntity<Map<String, Object>> publishSimpleEvent(@RequestBody Map<String, Object> eventData) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishSimpleEvent(@RequestBody SimpleEvent simpleEvent) {
         try {
-            // Create SimpleEvent from JSON data
-            SimpleEvent simpleEvent = new SimpleEvent(
-                    eventData.get("id") != null ? eventData.get("id").toString() : UUID.randomUUID().toString(),
-                    eventData.get("payload") != null ? eventData.get("payload").toString() : "",
-                    eventData.get("timestamp") != null ? 
-                            Long.valueOf(eventData.get("timestamp").toString()) : System.currentTimeMillis()
-            );
+            withDefaults(simpleEvent);
             
             String key = simpleEvent.getId();
             
             logger.info("Publishing SimpleEvent (JSON) to {}: key={}, id={}, payload={}", 
                       inputTopic, key, simpleEvent.getId(), simpleEvent.getPayload());
             
-            // Save original event for tracking
-            String jsonData = objectMapper.writeValueAsString(simpleEvent);
-            OriginalEvent originalEvent = new OriginalEvent(key, "SimpleEvent", inputTopic, jsonData);
-            originalEventService.saveOriginalEvent(originalEvent);
-            
-            kafkaTemplate.send(inputTopic, key, simpleEvent);
+            Map<String, Object> data = Map.of(
+                "id", simpleEvent.getId(),
+                "payload", simpleEvent.getPayload(),
+                "timestamp", simpleEvent.getTimestamp()
+            );
             
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", "SimpleEvent published successfully to " + inputTopic + " using JSON serialization",
-                "key", key,
-                "topic", inputTopic,
-                "eventType", "SimpleEvent",
-                "data", Map.of(
-                    "id", simpleEvent.getId(),
-                    "payload", simpleEvent.getPayload(),
-                    "timestamp", simpleEvent.getTimestamp()
-                ),
-                "originalEventId", originalEvent.getId()
-            ));
+            // Save original event for tracking and publish it
+            return eventIngestionService.ingest(new EventIngestionService.Event(
+                    "SimpleEvent", inputTopic, KafkaStreamsConfig.CONTENT_TRANSFORMATION, key, simpleEvent),
+                    deliveryProperties.modeFor("simple"))
+                .thenApply(delivery -> publishResponse(delivery, "SimpleEvent", inputTopic, key, data, null));
             
         } catch (Exception e) {
             logger.error("Error publishing simple event", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "status", "error",
                 "message", "Failed to publish SimpleEvent: " + e.getMessage()
-            ));
+            )));
         }
     }
 
     /**
      * POST /api/events/legacy
      * Accepts LegacyEvent as JSON and publishes JSON to input-topic - Use Case 2
+     * Answered once the send completes under the endpoint's delivery mode
      */
     @PostMapping("/legacy")
-    public ResponseEntity<Map<String, Object>> publishLegacyEvent(@RequestBody Map<String, Object> eventData) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishLegacyEvent(@RequestBody LegacyEvent legacyEvent) {
         try {
-            // Create LegacyEvent from JSON data
-            LegacyEvent legacyEvent = new LegacyEvent(
-                    eventData.get("old_field_name") != null ? 
-                            eventData.get("old_field_name").toString() : "",
-                    eventData.get("value") != null ? eventData.get("value").toString() : ""
-            );
+            withDefaults(legacyEvent);
             
             String key = UUID.randomUUID().toString();
             
             logger.info("Publishing LegacyEvent (JSON) to {}: key={}, oldFieldName={}, value={}", 
                       inputTopic, key, legacyEvent.getOldFieldName(), legacyEvent.getValue());
             
-            // Save original event for tracking
-            String jsonData = objectMapper.writeValueAsString(legacyEvent);
-            OriginalEvent originalEvent = new OriginalEvent(key, "LegacyEvent", inputTopic, jsonData);
-            originalEventService.saveOriginalEvent(originalEvent);
-            
-            kafkaTemplate.send(inputTopic, key, legacyEvent);
+            Map<String, Object> data = Map.of(
+                "old_field_name", legacyEvent.getOldFieldName(),
+                "value", legacyEvent.getValue()
+            );
             
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", "LegacyEvent published successfully to " + inputTopic + " using JSON serialization",
-                "key", key,
-                "topic", inputTopic,
-                "eventType", "LegacyEvent",
-                "data", Map.of(
-                    "old_field_name", legacyEvent.getOldFieldName(),
-                    "value", legacyEvent.getValue()
-                ),
-                "originalEventId", originalEvent.getId()
-            ));
+            // Save original event for tracking and publish it
+            return eventIngestionService.ingest(new EventIngestionService.Event(
+                    "LegacyEvent", inputTopic, KafkaStreamsConfig.CONTENT_TRANSFORMATION, key, legacyEvent),
+                    deliveryProperties.modeFor("legacy"))
+                .thenApply(delivery -> publishResponse(delivery, "LegacyEvent", inputTopic, key, data, null));
             
         } catch (Exception e) {
             logger.error("Error publishing legacy event", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "status", "error",
                 "message", "Failed to publish LegacyEvent: " + e.getMessage()
-            ));
+            )));
         }
     }
 
     /**
      * POST /api/events/action
      * Accepts GenericAction as JSON and publishes JSON to actions-topic - Use Case 3
+     * Answered once the send completes under the endpoint's delivery mode
      */
     @PostMapping("/action")
-    public ResponseEntity<Map<String, Object>> publishActionEvent(@RequestBody Map<String, Object> actionData) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishActionEvent(@RequestBody GenericAction genericAction) {
         try {
-            // Create GenericAction from JSON data
-            GenericAction genericAction = new GenericAction(
-                    actionData.get("actionType") != null ? 
-                            actionData.get("actionType").toString() : "",
-                    actionData.get("details") != null ? 
-                            actionData.get("details").toString() : ""
-            );
+            withDefaults(genericAction);
             
             String key = UUID.randomUUID().toString();
             
             logger.info("Publishing GenericAction (JSON) to {}: key={}, actionType={}, details={}", 
                       actionsTopic, key, genericAction.getActionType(), genericAction.getDetails());
             
-            // Save original event for tracking
-            String jsonData = objectMapper.writeValueAsString(genericAction);
-            OriginalEvent originalEvent = new OriginalEvent(key, "GenericAction", actionsTopic, jsonData);
-            originalEventService.saveOriginalEvent(originalEvent);
+            Map<String, Object> data = Map.of(
+                "actionType", genericAction.getActionType(),
+                "details", genericAction.getDetails()
+            );
             
-            kafkaTemplate.send(actionsTopic, key, genericAction);
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", "GenericAction published successfully to " + actionsTopic + " using JSON serialization",
-                "key", key,
-                "topic", actionsTopic,
-                "eventType", "GenericAction",
-                "data", Map.of(
-                    "actionType", genericAction.getActionType(),
-                    "details", genericAction.getDetails()
-                ),
-                "originalEventId", originalEvent.getId()
-            ));
+            // Save original event for tracking and publish it
+            return eventIngestionService.ingest(new EventIngestionService.Event(
+                    "GenericAction", actionsTopic, KafkaStreamsConfig.ACTION_ROUTING, key, genericAction),
+                    deliveryProperties.modeFor("action"))
+                .thenApply(delivery -> publishResponse(delivery, "GenericAction", actionsTopic, key, data, null));
             
         } catch (Exception e) {
             logger.error("Error publishing action event", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "status", "error",
                 "message", "Failed to publish GenericAction: " + e.getMessage()
-            ));
+            )));
         }
     }
 
     /**
      * POST /api/events/inbound-message
      * Accepts InboundMessageEvent as JSON and publishes JSON to inbound-message-topic - Use Case 4
+     * Answered once the send completes under the endpoint's delivery mode
      */
     @PostMapping("/inbound-message")
-    public ResponseEntity<Map<String, Object>> publishInboundMessageEvent(@RequestBody Map<String, Object> eventData) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishInboundMessageEvent(@RequestBody InboundMessageEvent inboundMessageEvent) {
         try {
-            logger.info("Received inbound message event data: {}", eventData);
-            
-            // Extract main event properties
-            String app = eventData.get("app") != null ? eventData.get("app").toString() : "TestApp";
-            Long timestamp = eventData.get("timestamp") != null ? 
-                    Long.valueOf(eventData.get("timestamp").toString()) : System.currentTimeMillis();
-            Integer version = eventData.get("version") != null ? 
-                    Integer.valueOf(eventData.get("version").toString()) : 2;
-            String type = eventData.get("type") != null ? eventData.get("type").toString() : "message";
-            
-            // Extract payload data
-            @SuppressWarnings("unchecked")
-            Map<String, Object> payloadData = (Map<String, Object>) eventData.get("payload");
-            if (payloadData == null) {
-                throw new IllegalArgumentException("Payload is required");
-            }
-            
-            String messageId = payloadData.get("id") != null ? payloadData.get("id").toString() : "";
-            String source = payloadData.get("source") != null ? payloadData.get("source").toString() : "";
-            String messageType = payloadData.get("type") != null ? payloadData.get("type").toString() : "text";
-            
-            // Extract nested payload (message content)
-            @SuppressWarnings("unchecked")
-            Map<String, Object> messageContentData = (Map<String, Object>) payloadData.get("payload");
-            String text = "";
-            if (messageContentData != null && messageContentData.get("text") != null) {
-                text = messageContentData.get("text").toString();
-            }
-            InboundMessageEvent.MessageContent messageContent = new InboundMessageEvent.MessageContent(text);
-            
-            // Extract sender data
-            @SuppressWarnings("unchecked")
-            Map<String, Object> senderData = (Map<String, Object>) payloadData.get("sender");
-            InboundMessageEvent.Sender sender = null;
-            if (senderData != null) {
-                String phone = senderData.get("phone") != null ? senderData.get("phone").toString() : "";
-                String name = senderData.get("name") != null ? senderData.get("name").toString() : "";
-                String countryCode = senderData.get("country_code") != null ? senderData.get("country_code").toString() : "";
-                String dialCode = senderData.get("dial_code") != null ? senderData.get("dial_code").toString() : "";
-                sender = new InboundMessageEvent.Sender(phone, name, countryCode, dialCode);
-            }
+            logger.info("Received inbound message event data: {}", inboundMessageEvent);
             
-            // Create message payload
-            InboundMessageEvent.MessagePayload messagePayload = new InboundMessageEvent.MessagePayload(
-                    messageId, source, messageType, messageContent, sender);
-            
-            // Create InboundMessageEvent
-            InboundMessageEvent inboundMessageEvent = new InboundMessageEvent(
-                    app, timestamp, version, type, messagePayload);
+            withDefaults(inboundMessageEvent);
+            String app = inboundMessageEvent.getApp();
+            String messageId = inboundMessageEvent.getPayload().getId();
             
             String key = messageId; // Use message ID as key
             
             logger.info("Publishing InboundMessageEvent (JSON) to {}: key={}, app={}, messageId={}", 
                       inboundMessageTopic, key, app, messageId);
             
-            // Save original event for tracking
-            String jsonData = objectMapper.writeValueAsString(inboundMessageEvent);
-            OriginalEvent originalEvent = new OriginalEvent(key, "InboundMessageEvent", inboundMessageTopic, jsonData);
-            originalEventService.saveOriginalEvent(originalEvent);
+            // Sender is optional
+            InboundMessageEvent.Sender sender = inboundMessageEvent.getPayload().getSender();
+            Map<String, Object> data = Map.of(
+                "app", inboundMessageEvent.getApp(),
+                "timestamp", inboundMessageEvent.getTimestamp(),
+                "version", inboundMessageEvent.getVersion(),
+                "type", inboundMessageEvent.getType(),
+                "messageId", inboundMessageEvent.getPayload().getId(),
+                "source", inboundMessageEvent.getPayload().getSource(),
+                "senderName", sender == null ? "" : sender.getName(),
+                "content", inboundMessageEvent.getPayload().getPayload().getText()
+            );
             
-            kafkaTemplate.send(inboundMessageTopic, key, inboundMessageEvent);
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "message", "InboundMessageEvent published successfully to " + inboundMessageTopic + " using JSON serialization",
-                "key", key,
-                "topic", inboundMessageTopic,
-                "eventType", "InboundMessageEvent",
-                "data", Map.of(
-                    "app", inboundMessageEvent.getApp(),
-                    "timestamp", inboundMessageEvent.getTimestamp(),
-                    "version", inboundMessageEvent.getVersion(),
-                    "type", inboundMessageEvent.getType(),
-                    "messageId", inboundMessageEvent.getPayload().getId(),
-                    "source", inboundMessageEvent.getPayload().getSource(),
-                    "senderName", inboundMessageEvent.getPayload().getSender().getName(),
-                    "content", inboundMessageEvent.getPayload().getPayload().getText()
-                ),
-                "originalEventId", originalEvent.getId(),
-                "note", "This event will be transformed into CreateChatEvent and CreateMessageEvent"
-            ));
+            // Save original event for tracking and publish it
+            return eventIngestionService.ingest(new EventIngestionService.Event(
+                    "InboundMessageEvent", inboundMessageTopic, KafkaStreamsConfig.INBOUND_MESSAGE, key, inboundMessageEvent),
+                    deliveryProperties.modeFor("inbound-message"))
+                .thenApply(delivery -> publishResponse(delivery, "InboundMessageEvent", inboundMessageTopic, key, data,
+                        "This event will be transformed into CreateChatEvent and CreateMessageEvent"));
             
         } catch (Exception e) {
             logger.error("Error publishing inbound message event", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "status", "error",
                 "message", "Failed to publish InboundMessageEvent: " + e.getMessage()
-            ));
+            )));
+        }
+    }
+
+    /**
+     * 200 once the send completed (or the event was queued in the outbox), 504 if it didn't within
+     * the ack timeout and 502 if it failed; the original event is saved in every case
+     */
+    private static ResponseEntity<Map<String, Object>> publishResponse(EventIngestionService.Delivery delivery, String eventType,
+                                                                       String topic, String key, Map<String, Object> data, String note) {
+        DeliveryMode mode = delivery.mode();
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (delivery.failure() == null) {
+            response.put("status", "success");
+            response.put("message", eventType + (mode == DeliveryMode.OUTBOX ? " queued for publishing to "
+                    : mode.acknowledged() ? " published successfully to " : " sent without broker acknowledgement to ")
+                    + topic + " using JSON serialization");
+        } else {
+            response.put("status", "error");
+            response.put("message", delivery.failure() instanceof TimeoutException
+                    ? "No completion of the " + eventType + " send to " + topic + " within the ack timeout; it may still be delivered"
+                    : "Failed to publish " + eventType + " to " + topic + ": " + delivery.failure().getMessage());
+        }
+        response.put("key", key);
+        response.put("topic", topic);
+        response.put("eventType", eventType);
+        response.put("data", data);
+        response.put("originalEventId", delivery.originalEvent().getId());
+        response.put("correlationId", delivery.originalEvent().getCorrelationId());
+        response.put("delivery", mode.tag());
+        if (mode != DeliveryMode.OUTBOX) {
+            response.put("ackLatencyMs", delivery.ackNanos() / 1_000_000.0);
         }
+        if (delivery.failure() == null && mode.acknowledged()) {
+            response.put("partition", delivery.metadata().partition());
+            response.put("offset", delivery.metadata().offset());
+        }
+        if (note != null) {
+            response.put("note", note);
+        }
+        
+        if (delivery.failure() == null) {
+            return ResponseEntity.ok(response);
+        }
+        logger.error("Error publishing {} to {}", eventType, topic, delivery.failure());
+        return ResponseEntity.status(delivery.failure() instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY)
+                .body(response);
+    }
+
+    /**
+     * POST /api/events/simple/bulk
+     * Accepts a JSON array or newline-delimited JSON of SimpleEvents and publishes them to input-topic
+     */
+    @PostMapping(value = "/simple/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishSimpleEvents(InputStream body) {
+        return publishBulk("SimpleEvent", "simple", body, SimpleEvent.class, simpleEvent -> {
+            withDefaults(simpleEvent);
+            return new EventIngestionService.Event("SimpleEvent", inputTopic, KafkaStreamsConfig.CONTENT_TRANSFORMATION,
+                    simpleEvent.getId(), simpleEvent);
+        });
+    }
+
+    /**
+     * POST /api/events/legacy/bulk
+     * Accepts a JSON array or newline-delimited JSON of LegacyEvents and publishes them to input-topic
+     */
+    @PostMapping(value = "/legacy/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishLegacyEvents(InputStream body) {
+        return publishBulk("LegacyEvent", "legacy", body, LegacyEvent.class, legacyEvent -> new EventIngestionService.Event("LegacyEvent", inputTopic,
+                KafkaStreamsConfig.CONTENT_TRANSFORMATION, UUID.randomUUID().toString(), withDefaults(legacyEvent)));
+    }
+
+    /**
+     * POST /api/events/action/bulk
+     * Accepts a JSON array or newline-delimited JSON of GenericActions and publishes them to actions-topic
+     */
+    @PostMapping(value = "/action/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishActionEvents(InputStream body) {
+        return publishBulk("GenericAction", "action", body, GenericAction.class, genericAction -> new EventIngestionService.Event("GenericAction", actionsTopic,
+                KafkaStreamsConfig.ACTION_ROUTING, UUID.randomUUID().toString(), withDefaults(genericAction)));
+    }
+
+    /**
+     * POST /api/events/inbound-message/bulk
+     * Accepts a JSON array or newline-delimited JSON of InboundMessageEvents and publishes them to inbound-message-topic
+     */
+    @PostMapping(value = "/inbound-message/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publishInboundMessageEvents(InputStream body) {
+        return publishBulk("InboundMessageEvent", "inbound-message", body, InboundMessageEvent.class, inboundMessageEvent -> {
+            withDefaults(inboundMessageEvent);
+            return new EventIngestionService.Event("InboundMessageEvent", inboundMessageTopic, KafkaStreamsConfig.INBOUND_MESSAGE,
+                    inboundMessageEvent.getPayload().getId(), inboundMessageEvent);
+        });
+    }
+
+    /**
+     * 200 when every event was published (or queued in the outbox), 207 with the status of each one otherwise
+     * @param endpoint name the delivery mode is configured under
+     */
+    private <T> CompletableFuture<ResponseEntity<Map<String, Object>>> publishBulk(String eventType, String endpoint, InputStream body,
+                                                                                   Class<T> type, Function<T, EventIngestionService.Event> converter) {
+        DeliveryMode mode = deliveryProperties.modeFor(endpoint);
+        try {
+            return eventIngestionService.ingestAll(body, type, converter, mode).thenApply(results -> {
+                long published = results.stream()
+                        .filter(result -> result.status() == EventIngestionService.Status.PUBLISHED)
+                        .count();
+                long queued = results.stream()
+                        .filter(result -> result.status() == EventIngestionService.Status.QUEUED)
+                        .count();
+                long accepted = published + queued;
+                
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("status", accepted == results.size() ? "success" : accepted > 0 ? "partial" : "error");
+                response.put("eventType", eventType);
+                response.put("delivery", mode.tag());
+                response.put("received", results.size());
+                response.put(mode == DeliveryMode.OUTBOX ? "queued" : "published", accepted);
+                response.put("items", results);
+                return ResponseEntity.status(accepted == results.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+            });
+            
+        } catch (IllegalArgumentException | IOException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", "Invalid bulk request: " + e.getMessage()
+            )));
+        } catch (Exception e) {
+            logger.error("Error publishing {} events in bulk", eventType, e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "status", "error",
+                "message", "Failed to publish " + eventType + " events: " + e.getMessage()
+            )));
+        }
+    }
+
+    // Fields missing from the request get the same defaults whether it was posted alone or in bulk
+
+    private static SimpleEvent withDefaults(SimpleEvent simpleEvent) {
+        if (simpleEvent.getId() == null) {
+            simpleEvent.setId(UUID.randomUUID().toString());
+        }
+        if (simpleEvent.getPayload() == null) {
+            simpleEvent.setPayload("");
+        }
+        if (simpleEvent.getTimestamp() == null) {
+            simpleEvent.setTimestamp(System.currentTimeMillis());
+        }
+        return simpleEvent;
+    }
+
+    private static LegacyEvent withDefaults(LegacyEvent legacyEvent) {
+        if (legacyEvent.getOldFieldName() == null) {
+            legacyEvent.setOldFieldName("");
+        }
+        if (legacyEvent.getValue() == null) {
+            legacyEvent.setValue("");
+        }
+        return legacyEvent;
+    }
+
+    private static GenericAction withDefaults(GenericAction genericAction) {
+        if (genericAction.getActionType() == null) {
+            genericAction.setActionType("");
+        }
+        if (genericAction.getDetails() == null) {
+            genericAction.setDetails("");
+        }
+        return genericAction;
+    }
+
+    private static InboundMessageEvent withDefaults(InboundMessageEvent inboundMessageEvent) {
+        // Main event properties
+        if (inboundMessageEvent.getApp() == null) {
+            inboundMessageEvent.setApp("TestApp");
+        }
+        if (inboundMessageEvent.getTimestamp() == null) {
+            inboundMessageEvent.setTimestamp(System.currentTimeMillis());
+        }
+        if (inboundMessageEvent.getVersion() == null) {
+            inboundMessageEvent.setVersion(2);
+        }
+        if (inboundMessageEvent.getType() == null) {
+            inboundMessageEvent.setType("message");
+        }
+        
+        InboundMessageEvent.MessagePayload messagePayload = inboundMessageEvent.getPayload();
+        if (messagePayload == null) {
+            throw new IllegalArgumentException("Payload is required");
+        }
+        if (messagePayload.getId() == null) {
+            messagePayload.setId("");
+        }
+        if (messagePayload.getSource() == null) {
+            messagePayload.setSource("");
+        }
+        if (messagePayload.getType() == null) {
+            messagePayload.setType("text");
+        }
+        
+        // Nested payload (message content)
+        if (messagePayload.getPayload() == null) {
+            messagePayload.setPayload(new InboundMessageEvent.MessageContent(""));
+        } else if (messagePayload.getPayload().getText() == null) {
+            messagePayload.getPayload().setText("");
+        }
+        
+        // Sender is optional, but its fields are never null
+        InboundMessageEvent.Sender sender = messagePayload.getSender();
+        if (sender != null) {
+            if (sender.getPhone() == null) {
+                sender.setPhone("");
+            }
+            if (sender.getName() == null) {
+                sender.setName("");
+            }
+            if (sender.getCountryCode() == null) {
+                sender.setCountryCode("");
+            }
+            if (sender.getDialCode() == null) {
+                sender.setDialCode("");
+            }
+        }
+        return inboundMessageEvent;
     }
 
     /**
      * GET /api/events/processed
-     * Retrieves all processed events from H2 database
+     * Retrieves one page of processed events from H2 database, newest first
+     * Pass the returned nextCursor as cursor to get the following page.
      */
     @GetMapping("/processed")
     public ResponseEntity<Map<String, Object>> getProcessedEvents(
             @RequestParam(required = false) String eventType,
-            @RequestParam(required = false) String sourceTopic) {
+            @RequestParam(required = false) String sourceTopic,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant until,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + EventPage.DEFAULT_LIMIT) int limit) {
         try {
-            List<ProcessedEvent> events;
+            EventFilter filter = new EventFilter(eventType, sourceTopic, since, until);
+            EventPage<ProcessedEvent> page = processedEventService.getProcessedEventsPage(filter,
+                    cursor != null ? EventCursor.decode(cursor) : null, limit);
             
-            if (eventType != null) {
-                events = processedEventService.getProcessedEventsByType(eventType);
-            } else if (sourceTopic != null) {
-                events = processedEventService.getProcessedEventsBySourceTopic(sourceTopic);
-            } else {
-                events = processedEventService.getAllProcessedEvents();
-            }
+            logger.info("Retrieved {} processed events", page.events().size());
             
-            logger.info("Retrieved {} processed events", events.size());
+            return ResponseEntity.ok(pageResponse(page, filter));
             
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "count", events.size(),
-                "events", events,
-                "filters", Map.of(
-                    "eventType", eventType != null ? eventType : "all",
-                    "sourceTopic", sourceTopic != null ? sourceTopic : "all"
-                )
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
             ));
-            
         } catch (Exception e) {
             logger.error("Error retrieving processed events", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -346,27 +501,12 @@ public class EventController {
 
     /**
      * GET /api/events/processed/stats
-     * Retrieves statistics about processed events
+     * Retrieves statistics about processed events from the maintained counters
      */
     @GetMapping("/processed/stats")
     public ResponseEntity<Map<String, Object>> getProcessedEventsStats() {
         try {
-            long totalEvents = processedEventService.getAllProcessedEvents().size();
-            long transformedEvents = processedEventService.getCountByEventType("SIMPLE_EVENT_TRANSFORMED");
-            long convertedEvents = processedEventService.getCountByEventType("LEGACY_EVENT_CONVERTED");
-            long actionAEvents = processedEventService.getCountByEventType("GENERIC_ACTION_TYPE_A");
-            long actionBEvents = processedEventService.getCountByEventType("GENERIC_ACTION_TYPE_B");
-            
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "totalProcessedEvents", totalEvents,
-                "eventTypeBreakdown", Map.of(
-                    "SIMPLE_EVENT_TRANSFORMED", transformedEvents,
-                    "LEGACY_EVENT_CONVERTED", convertedEvents,
-                    "GENERIC_ACTION_TYPE_A", actionAEvents,
-                    "GENERIC_ACTION_TYPE_B", actionBEvents
-                )
-            ));
+            return ResponseEntity.ok(statsResponse(processedEventService.getStats()));
             
         } catch (Exception e) {
             logger.error("Error retrieving processed events statistics", e);
@@ -377,37 +517,60 @@ public class EventController {
         }
     }
 
+    /**
+     * POST /api/events/processed/stats/reconcile
+     * Recounts the processed events table and resets the counters to the result
+     */
+    @PostMapping("/processed/stats/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileProcessedEventsStats() {
+        try {
+            return ResponseEntity.ok(statsResponse(processedEventService.reconcileStats()));
+            
+        } catch (Exception e) {
+            logger.error("Error reconciling processed events statistics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "status", "error",
+                "message", "Failed to reconcile statistics: " + e.getMessage()
+            ));
+        }
+    }
+
+    private static Map<String, Object> statsResponse(ProcessedEventStats.Snapshot stats) {
+        return Map.of(
+            "status", "success",
+            "totalProcessedEvents", stats.total(),
+            "eventTypeBreakdown", stats.byEventType(),
+            "sourceTopicBreakdown", stats.bySourceTopic()
+        );
+    }
+
     /**
      * GET /api/events/original
-     * Retrieves all original events from H2 database
+     * Retrieves one page of original events from H2 database, newest first
+     * Pass the returned nextCursor as cursor to get the following page.
      */
     @GetMapping("/original")
     public ResponseEntity<Map<String, Object>> getOriginalEvents(
             @RequestParam(required = false) String eventType,
-            @RequestParam(required = false) String sourceTopic) {
+            @RequestParam(required = false) String sourceTopic,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant until,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + EventPage.DEFAULT_LIMIT) int limit) {
         try {
-            List<OriginalEvent> events;
+            EventFilter filter = new EventFilter(eventType, sourceTopic, since, until);
+            EventPage<OriginalEvent> page = originalEventService.getOriginalEventsPage(filter,
+                    cursor != null ? EventCursor.decode(cursor) : null, limit);
             
-            if (eventType != null) {
-                events = originalEventService.getOriginalEventsByType(eventType);
-            } else if (sourceTopic != null) {
-                events = originalEventService.getOriginalEventsBySourceTopic(sourceTopic);
-            } else {
-                events = originalEventService.getAllOriginalEvents();
-            }
+            logger.info("Retrieved {} original events", page.events().size());
             
-            logger.info("Retrieved {} original events", events.size());
+            return ResponseEntity.ok(pageResponse(page, filter));
             
-            return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "count", events.size(),
-                "events", events,
-                "filters", Map.of(
-                    "eventType", eventType != null ? eventType : "all",
-                    "sourceTopic", sourceTopic != null ? sourceTopic : "all"
-                )
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
             ));
-            
         } catch (Exception e) {
             logger.error("Error retrieving original events", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -417,6 +580,78 @@ public class EventController {
         }
     }
 
+    private static Map<String, Object> pageResponse(EventPage<?> page, EventFilter filter) {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("eventType", filter.eventType() != null ? filter.eventType() : "all");
+        filters.put("sourceTopic", filter.sourceTopic() != null ? filter.sourceTopic() : "all");
+        filters.put("since", filter.since());
+        filters.put("until", filter.until());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "success");
+        response.put("count", page.events().size());
+        response.put("events", page.events());
+        response.put("nextCursor", page.next() != null ? page.next().encode() : null);
+        response.put("filters", filters);
+        return response;
+    }
+
+    /**
+     * GET /api/events/processed/export
+     * Streams every processed event as newline-delimited JSON, gzip-compressed with gzip=true
+     */
+    @GetMapping("/processed/export")
+    public void exportProcessedEvents(@RequestParam(defaultValue = "false") boolean gzip,
+                                      HttpServletResponse response) throws IOException {
+        export("processed-events", gzip, response, eventExportService::exportProcessedEvents);
+    }
+
+    /**
+     * GET /api/events/original/export
+     * Streams every original event as newline-delimited JSON, gzip-compressed with gzip=true
+     */
+    @GetMapping("/original/export")
+    public void exportOriginalEvents(@RequestParam(defaultValue = "false") boolean gzip,
+                                     HttpServletResponse response) throws IOException {
+        export("original-events", gzip, response, eventExportService::exportOriginalEvents);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Written straight to the response as rows are read, without building the body in memory
+     * Once the first bytes are sent a failure can only cut the body short, which the client sees
+     * as a truncated transfer.
+     */
+    private void export(String name, boolean gzip, HttpServletResponse response, Export export) throws IOException {
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + (gzip ? ".ndjson.gz" : ".ndjson")).build().toString());
+        try {
+            if (gzip) {
+                GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+                export.writeTo(out);
+                out.finish();
+            } else {
+                export.writeTo(response.getOutputStream());
+            }
+        } catch (Exception e) {
+            logger.error("Error exporting {}", name, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to export " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * DELETE /api/events/processed
      * Deletes all processed events (useful for testing)
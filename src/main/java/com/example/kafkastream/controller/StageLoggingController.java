@@ -0,0 +1,59 @@
+package com.example.kafkastream.controller;
+
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.logging.StageLogger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for pipeline log sampling
+ * Lists the pipeline stages and changes their sample rate without a restart
+ */
+@RestController
+@RequestMapping("/api/logging/stages")
+public class StageLoggingController {
+
+    private final StageLogRegistry stageLogRegistry;
+
+    public StageLoggingController(StageLogRegistry stageLogRegistry) {
+        this.stageLogRegistry = stageLogRegistry;
+    }
+
+    /**
+     * GET /api/logging/stages
+     * Current sample rate of every registered stage
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getStages() {
+        return ResponseEntity.ok(stageLogRegistry.stages().stream()
+                .map(StageLoggingController::describe)
+                .toList());
+    }
+
+    /**
+     * PUT /api/logging/stages/{stage}?sampleRate=0.05
+     * Change the fraction of records a stage logs (0 = off, 1 = every record)
+     */
+    @PutMapping("/{stage}")
+    public ResponseEntity<Map<String, Object>> setSampleRate(@PathVariable String stage, @RequestParam double sampleRate) {
+        try {
+            return ResponseEntity.ok(describe(stageLogRegistry.setSampleRate(stage, sampleRate)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "status", "error",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    private static Map<String, Object> describe(StageLogger stage) {
+        return Map.of(
+            "stage", stage.getStage(),
+            "sampleRate", stage.getSampleRate(),
+            "maxPerSecond", stage.getMaxPerSecond()
+        );
+    }
+}
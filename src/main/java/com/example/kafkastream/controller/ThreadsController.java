@@ -0,0 +1,46 @@
+package com.example.kafkastream.controller;
+
+import com.example.kafkastream.metrics.VirtualThreadPinning;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for the thread mode of the request, listener, writer and relay threads
+ */
+@RestController
+@RequestMapping("/api/threads")
+public class ThreadsController {
+
+    private final boolean virtualThreads;
+    private final ObjectProvider<VirtualThreadPinning> pinning;
+
+    public ThreadsController(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                             ObjectProvider<VirtualThreadPinning> pinning) {
+        this.virtualThreads = virtualThreads;
+        this.pinning = pinning;
+    }
+
+    /**
+     * GET /api/threads/pinning
+     * Where virtual threads blocked while pinned to their carrier, most frequent first; the report
+     * only runs in virtual-thread mode
+     */
+    @GetMapping("/pinning")
+    public ResponseEntity<Map<String, Object>> getPinning() {
+        VirtualThreadPinning report = pinning.getIfAvailable();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("virtualThreads", virtualThreads);
+        response.put("pinningReport", report != null);
+        if (report != null) {
+            response.put("sites", report.report());
+        }
+        return ResponseEntity.ok(response);
+    }
+}
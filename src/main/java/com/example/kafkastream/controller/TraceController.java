@@ -0,0 +1,33 @@
+package com.example.kafkastream.controller;
+
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST Controller for end-to-end pipeline latency
+ * Summarises, per use case, how long traced records spent in each stage from REST accept to database commit
+ */
+@RestController
+@RequestMapping("/api/trace")
+public class TraceController {
+
+    private final TraceLatencyRecorder traceLatencyRecorder;
+
+    public TraceController(TraceLatencyRecorder traceLatencyRecorder) {
+        this.traceLatencyRecorder = traceLatencyRecorder;
+    }
+
+    /**
+     * GET /api/trace/latency
+     * Count, mean, max and p50/p99/p999 in milliseconds of every stage, per use case
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Map<String, Map<String, Object>>>> getLatency() {
+        return ResponseEntity.ok(traceLatencyRecorder.summary());
+    }
+}
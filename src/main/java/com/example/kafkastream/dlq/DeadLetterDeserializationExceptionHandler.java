@@ -0,0 +1,43 @@
+package com.example.kafkastream.dlq;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.streams.errors.DeserializationExceptionHandler;
+import org.apache.kafka.streams.errors.ErrorHandlerContext;
+
+import java.util.Map;
+
+/**
+ * Sends records the value serde cannot decode to the source topic's dead-letter topic
+ * The original bytes are kept as-is so a fixed consumer can replay them unchanged.
+ * Processing continues only once the dead-letter copy is acknowledged; otherwise the
+ * stream thread fails rather than dropping the record.
+ */
+public class DeadLetterDeserializationExceptionHandler implements DeserializationExceptionHandler {
+
+    private DeadLetterPublisher publisher;
+
+    public DeadLetterDeserializationExceptionHandler() {}
+
+    DeadLetterDeserializationExceptionHandler(DeadLetterPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        if (publisher == null) {
+            publisher = DeadLetterPublisher.from(configs);
+        }
+    }
+
+    @Override
+    public DeserializationHandlerResponse handle(ErrorHandlerContext context,
+                                                 ConsumerRecord<byte[], byte[]> record,
+                                                 Exception exception) {
+        Headers headers = DeadLetterHeaders.stamp(record.headers(), ErrorCategory.DESERIALIZATION, exception,
+                context.processorNodeId(), record.topic(), record.partition(), record.offset(), record.topic());
+        return publisher.publish(record.topic(), record.key(), record.value(), headers)
+                ? DeserializationHandlerResponse.CONTINUE
+                : DeserializationHandlerResponse.FAIL;
+    }
+}
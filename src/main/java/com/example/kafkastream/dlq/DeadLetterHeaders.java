@@ -0,0 +1,105 @@
+package com.example.kafkastream.dlq;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Header contract for dead-letter records
+ * A dead-letter record keeps the headers of the failed record and adds the failure
+ * classification plus the source coordinates, all as UTF-8 strings. The replay topic is the
+ * topic the record should be re-published to once the cause has been fixed.
+ */
+public final class DeadLetterHeaders {
+
+    public static final String PREFIX = "dlq-";
+    public static final String ERROR_CATEGORY = PREFIX + "error-category";
+    public static final String EXCEPTION_CLASS = PREFIX + "exception-class";
+    public static final String EXCEPTION_MESSAGE = PREFIX + "exception-message";
+    public static final String PROCESSOR = PREFIX + "processor";
+    public static final String SOURCE_TOPIC = PREFIX + "source-topic";
+    public static final String SOURCE_PARTITION = PREFIX + "source-partition";
+    public static final String SOURCE_OFFSET = PREFIX + "source-offset";
+    public static final String REPLAY_TOPIC = PREFIX + "replay-topic";
+
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+
+    private DeadLetterHeaders() {}
+
+    /**
+     * Dead-letter topic for a source topic, e.g. input-topic -> input-topic-dlq
+     */
+    public static String topicFor(String sourceTopic, String suffix) {
+        return sourceTopic + suffix;
+    }
+
+    /**
+     * Copy the failed record's headers and add the failure details
+     * Dead-letter headers from an earlier failure are replaced rather than stacked.
+     */
+    public static Headers stamp(Headers original, ErrorCategory category, Exception error, String processor,
+                                String sourceTopic, int partition, long offset, String replayTopic) {
+        Headers headers = stripped(original);
+        add(headers, ERROR_CATEGORY, category.name());
+        add(headers, EXCEPTION_CLASS, error.getClass().getName());
+        add(headers, EXCEPTION_MESSAGE, truncate(error.getMessage()));
+        add(headers, PROCESSOR, processor);
+        add(headers, SOURCE_TOPIC, sourceTopic);
+        add(headers, SOURCE_PARTITION, String.valueOf(partition));
+        add(headers, SOURCE_OFFSET, String.valueOf(offset));
+        add(headers, REPLAY_TOPIC, replayTopic);
+        return headers;
+    }
+
+    /**
+     * Headers for a record that failed inside a processor; the replay target is its source topic
+     */
+    public static Headers processingFailure(Headers original, Exception error, String processor,
+                                            Optional<RecordMetadata> metadata) {
+        String sourceTopic = metadata.map(RecordMetadata::topic).orElse(null);
+        return stamp(original, ErrorCategory.PROCESSING, error, processor, sourceTopic,
+                metadata.map(RecordMetadata::partition).orElse(-1),
+                metadata.map(RecordMetadata::offset).orElse(-1L),
+                sourceTopic);
+    }
+
+    /**
+     * Copy of the headers without any dead-letter entries, as sent back on replay
+     */
+    public static Headers stripped(Headers original) {
+        RecordHeaders headers = new RecordHeaders();
+        if (original != null) {
+            for (Header header : original) {
+                if (!header.key().startsWith(PREFIX)) {
+                    headers.add(header.key(), header.value());
+                }
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Last value of a dead-letter header, or null when absent
+     */
+    public static String value(Headers headers, String name) {
+        Header header = headers == null ? null : headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void add(Headers headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+}
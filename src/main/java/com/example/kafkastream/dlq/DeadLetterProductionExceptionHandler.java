@@ -0,0 +1,72 @@
+package com.example.kafkastream.dlq;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.streams.errors.ErrorHandlerContext;
+import org.apache.kafka.streams.errors.ProductionExceptionHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Dead-letters output records that cannot be encoded or that the broker rejects
+ * Rejected records keep their encoded bytes and name the sink topic as replay target.
+ * Records that fail to encode have no bytes to keep; their dead-letter entry carries the
+ * source coordinates only, so the input can be re-read once the serde is fixed.
+ * Retriable broker errors are left to Kafka Streams' own retry and fail handling.
+ */
+public class DeadLetterProductionExceptionHandler implements ProductionExceptionHandler {
+
+    private DeadLetterPublisher publisher;
+
+    public DeadLetterProductionExceptionHandler() {}
+
+    DeadLetterProductionExceptionHandler(DeadLetterPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        if (publisher == null) {
+            publisher = DeadLetterPublisher.from(configs);
+        }
+    }
+
+    @Override
+    public ProductionExceptionHandlerResponse handle(ErrorHandlerContext context,
+                                                     ProducerRecord<byte[], byte[]> record,
+                                                     Exception exception) {
+        if (exception instanceof RetriableException) {
+            return ProductionExceptionHandlerResponse.FAIL;
+        }
+        String sourceTopic = sourceTopic(context, record);
+        Headers headers = DeadLetterHeaders.stamp(record.headers(), ErrorCategory.PRODUCTION, exception,
+                context.processorNodeId(), sourceTopic, context.partition(), context.offset(), record.topic());
+        return respond(publisher.publish(sourceTopic, record.key(), record.value(), headers));
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public ProductionExceptionHandlerResponse handleSerializationException(ErrorHandlerContext context,
+                                                                           ProducerRecord record,
+                                                                           Exception exception,
+                                                                           SerializationExceptionOrigin origin) {
+        String sourceTopic = sourceTopic(context, record);
+        Headers headers = DeadLetterHeaders.stamp(record.headers(), ErrorCategory.SERIALIZATION, exception,
+                context.processorNodeId(), sourceTopic, context.partition(), context.offset(), null);
+        byte[] key = record.key() instanceof String stringKey ? stringKey.getBytes(StandardCharsets.UTF_8) : null;
+        return respond(publisher.publish(sourceTopic, key, null, headers));
+    }
+
+    /**
+     * Dead-letter topics are per source topic; punctuator output has no source and uses the sink topic
+     */
+    private static String sourceTopic(ErrorHandlerContext context, ProducerRecord<?, ?> record) {
+        return context.topic() != null ? context.topic() : record.topic();
+    }
+
+    private static ProductionExceptionHandlerResponse respond(boolean deadLettered) {
+        return deadLettered ? ProductionExceptionHandlerResponse.CONTINUE : ProductionExceptionHandlerResponse.FAIL;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.kafkastream.dlq;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Raw-bytes producer used by the Kafka Streams exception handlers
+ * Handlers run outside the topology and cannot forward to a sink node, so they write
+ * dead-letter records through this producer instead. Sends are synchronous: the handler
+ * only lets Kafka Streams skip a record once its dead-letter copy has been acknowledged.
+ * The producer is not transactional, so under exactly_once_v2 a dead-letter record may be
+ * written again if the task's transaction aborts.
+ * Each Kafka Streams application owns one publisher, handed to its handlers through the
+ * PUBLISHER_CONFIG streams property and closed when the application stops. The producer is
+ * only created on the first dead letter, and again after a restart.
+ */
+public class DeadLetterPublisher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterPublisher.class);
+
+    /** Streams property holding the suffix appended to the source topic name */
+    public static final String TOPIC_SUFFIX_CONFIG = "dlq.topic.suffix";
+    public static final String DEFAULT_TOPIC_SUFFIX = "-dlq";
+    /** Streams property holding the application's publisher instance */
+    public static final String PUBLISHER_CONFIG = "dlq.publisher";
+
+    private static final Set<String> EXCLUDED_PRODUCER_CONFIGS = Set.of(
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+            ProducerConfig.TRANSACTIONAL_ID_CONFIG,
+            ProducerConfig.CLIENT_ID_CONFIG);
+
+    private final Supplier<Producer<byte[], byte[]>> producerFactory;
+    private final String topicSuffix;
+    private Producer<byte[], byte[]> producer;
+
+    DeadLetterPublisher(Supplier<Producer<byte[], byte[]>> producerFactory, String topicSuffix) {
+        this.producerFactory = producerFactory;
+        this.topicSuffix = topicSuffix;
+    }
+
+    /**
+     * Publisher of one application, built from its Kafka Streams configuration (connection and
+     * security settings are reused)
+     */
+    public static DeadLetterPublisher create(Map<String, ?> streamsConfigs) {
+        Map<String, Object> producerConfigs = producerConfigs(streamsConfigs);
+        return new DeadLetterPublisher(() -> new KafkaProducer<>(producerConfigs), topicSuffix(streamsConfigs));
+    }
+
+    /**
+     * The publisher of the application whose configuration is handed to an exception handler
+     */
+    static DeadLetterPublisher from(Map<String, ?> streamsConfigs) {
+        if (streamsConfigs.get(PUBLISHER_CONFIG) instanceof DeadLetterPublisher publisher) {
+            return publisher;
+        }
+        throw new ConfigException(PUBLISHER_CONFIG, streamsConfigs.get(PUBLISHER_CONFIG),
+                "The dead-letter exception handlers need the application's DeadLetterPublisher");
+    }
+
+    static String topicSuffix(Map<String, ?> streamsConfigs) {
+        Object suffix = streamsConfigs.get(TOPIC_SUFFIX_CONFIG);
+        return suffix == null ? DEFAULT_TOPIC_SUFFIX : suffix.toString();
+    }
+
+    static Map<String, Object> producerConfigs(Map<String, ?> streamsConfigs) {
+        Map<String, Object> props = new HashMap<>();
+        Set<String> producerConfigNames = ProducerConfig.configNames();
+        streamsConfigs.forEach((key, value) -> {
+            if (producerConfigNames.contains(key) && !EXCLUDED_PRODUCER_CONFIGS.contains(key)) {
+                props.put(key, value);
+            }
+        });
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, streamsConfigs.get(StreamsConfig.APPLICATION_ID_CONFIG) + "-dlq-producer");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return props;
+    }
+
+    /**
+     * Write a failed record to the dead-letter topic of its source topic
+     *
+     * @return true once the broker acknowledged the dead-letter record
+     */
+    public boolean publish(String sourceTopic, byte[] key, byte[] value, Headers headers) {
+        String deadLetterTopic = DeadLetterHeaders.topicFor(sourceTopic, topicSuffix);
+        try {
+            producer().send(new ProducerRecord<>(deadLetterTopic, null, key, value, headers)).get();
+            logger.warn("Dead-lettered record from {} to {}: category={}, exception={}", sourceTopic, deadLetterTopic,
+                    DeadLetterHeaders.value(headers, DeadLetterHeaders.ERROR_CATEGORY),
+                    DeadLetterHeaders.value(headers, DeadLetterHeaders.EXCEPTION_CLASS));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while dead-lettering record from {} to {}", sourceTopic, deadLetterTopic, e);
+            return false;
+        } catch (Exception e) {
+            logger.error("Failed to dead-letter record from {} to {}: {}", sourceTopic, deadLetterTopic, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private synchronized Producer<byte[], byte[]> producer() {
+        if (producer == null) {
+            producer = producerFactory.get();
+        }
+        return producer;
+    }
+
+    /**
+     * Close the producer, once the application's stream threads have stopped
+     */
+    @Override
+    public synchronized void close() {
+        if (producer != null) {
+            producer.close();
+            producer = null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.kafkastream.dlq;
+
+/**
+ * Stage at which a record failed, recorded in the dead-letter headers
+ */
+public enum ErrorCategory {
+
+    /** Source bytes could not be decoded by the value serde */
+    DESERIALIZATION,
+
+    /** A processor threw while transforming a decoded record */
+    PROCESSING,
+
+    /** An output value could not be encoded by the sink serde */
+    SERIALIZATION,
+
+    /** The broker rejected the encoded output record */
+    PRODUCTION
+}
@@ -0,0 +1,200 @@
+package com.example.kafkastream.dto;
+
+/**
+ * Flat, read-only view of the InboundMessageEvent fields used by the topology (Use Case 4)
+ * Populated by InboundMessageViewSerde straight from the wire without binding the full event graph
+ */
+public class InboundMessageView {
+
+    private String messageId;
+    private String chatId;
+    private String messageType;
+    private String text;
+    private String senderPhone;
+    private String senderName;
+    private String senderCountryCode;
+    private String senderDialCode;
+    private Long timestamp;
+
+    private boolean payloadPresent;
+    private boolean contentPresent;
+    private boolean senderPresent;
+
+    // The record the view was decoded from, and its content type; side outputs write it back unchanged
+    private byte[] source;
+    private String sourceContentType;
+
+    public InboundMessageView() {}
+
+    /**
+     * Build a view from a fully bound event (used by tests and the serializer side of the serde)
+     */
+    public static InboundMessageView of(InboundMessageEvent event) {
+        InboundMessageView view = new InboundMessageView();
+        view.timestamp = event.getTimestamp();
+        InboundMessageEvent.MessagePayload payload = event.getPayload();
+        if (payload != null) {
+            view.payloadPresent = true;
+            view.messageId = payload.getId();
+            view.chatId = payload.getSource();
+            view.messageType = payload.getType();
+            if (payload.getPayload() != null) {
+                view.contentPresent = true;
+                view.text = payload.getPayload().getText();
+            }
+            if (payload.getSender() != null) {
+                view.senderPresent = true;
+                view.senderPhone = payload.getSender().getPhone();
+                view.senderName = payload.getSender().getName();
+                view.senderCountryCode = payload.getSender().getCountryCode();
+                view.senderDialCode = payload.getSender().getDialCode();
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Rebuild the nested event shape carrying only the fields held by this view
+     */
+    public InboundMessageEvent toEvent() {
+        InboundMessageEvent.MessagePayload payload = null;
+        if (payloadPresent) {
+            payload = new InboundMessageEvent.MessagePayload(
+                    messageId, chatId, messageType,
+                    contentPresent ? new InboundMessageEvent.MessageContent(text) : null,
+                    senderPresent ? new InboundMessageEvent.Sender(senderPhone, senderName, senderCountryCode, senderDialCode) : null);
+        }
+        InboundMessageEvent event = new InboundMessageEvent();
+        event.setTimestamp(timestamp);
+        event.setPayload(payload);
+        return event;
+    }
+
+    // Getters and Setters
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(String chatId) {
+        this.chatId = chatId;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(String messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getSenderPhone() {
+        return senderPhone;
+    }
+
+    public void setSenderPhone(String senderPhone) {
+        this.senderPhone = senderPhone;
+    }
+
+    public String getSenderName() {
+        return senderName;
+    }
+
+    public void setSenderName(String senderName) {
+        this.senderName = senderName;
+    }
+
+    public String getSenderCountryCode() {
+        return senderCountryCode;
+    }
+
+    public void setSenderCountryCode(String senderCountryCode) {
+        this.senderCountryCode = senderCountryCode;
+    }
+
+    public String getSenderDialCode() {
+        return senderDialCode;
+    }
+
+    public void setSenderDialCode(String senderDialCode) {
+        this.senderDialCode = senderDialCode;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public boolean hasPayload() {
+        return payloadPresent;
+    }
+
+    public void setPayloadPresent(boolean payloadPresent) {
+        this.payloadPresent = payloadPresent;
+    }
+
+    public boolean hasContent() {
+        return contentPresent;
+    }
+
+    public void setContentPresent(boolean contentPresent) {
+        this.contentPresent = contentPresent;
+    }
+
+    public boolean hasSender() {
+        return senderPresent;
+    }
+
+    public void setSenderPresent(boolean senderPresent) {
+        this.senderPresent = senderPresent;
+    }
+
+    public byte[] getSource() {
+        return source;
+    }
+
+    public String getSourceContentType() {
+        return sourceContentType;
+    }
+
+    /**
+     * Keep the record the view was decoded from; the bytes are referenced, not copied
+     */
+    public void setSource(byte[] source, String sourceContentType) {
+        this.source = source;
+        this.sourceContentType = sourceContentType;
+    }
+
+    @Override
+    public String toString() {
+        return "InboundMessageView{" +
+                "messageId='" + messageId + '\'' +
+                ", chatId='" + chatId + '\'' +
+                ", messageType='" + messageType + '\'' +
+                ", text='" + text + '\'' +
+                ", senderPhone='" + senderPhone + '\'' +
+                ", senderName='" + senderName + '\'' +
+                ", senderCountryCode='" + senderCountryCode + '\'' +
+                ", senderDialCode='" + senderDialCode + '\'' +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
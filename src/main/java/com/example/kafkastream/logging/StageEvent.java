@@ -0,0 +1,29 @@
+package com.example.kafkastream.logging;
+
+import org.slf4j.spi.LoggingEventBuilder;
+
+/**
+ * One structured log event of a pipeline stage
+ * Fields are attached as SLF4J key-value pairs (rendered as JSON fields by structured log formats)
+ * and appended to the message as key=value, so they are also visible with the plain console pattern.
+ */
+public final class StageEvent {
+
+    private final LoggingEventBuilder builder;
+    private final StringBuilder message;
+
+    StageEvent(LoggingEventBuilder builder, String event) {
+        this.builder = builder;
+        this.message = new StringBuilder(64).append(event);
+    }
+
+    public StageEvent field(String name, Object value) {
+        builder.addKeyValue(name, value);
+        message.append(' ').append(name).append('=').append(value);
+        return this;
+    }
+
+    void emit() {
+        builder.log(message.toString());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.kafkastream.logging;
+
+/**
+ * Describes a record as structured fields of a stage log event
+ * Only invoked for sampled records; pass a non-capturing lambda so unsampled calls allocate nothing.
+ */
+@FunctionalInterface
+public interface StageFields<V> {
+
+    void describe(V value, StageEvent event);
+}
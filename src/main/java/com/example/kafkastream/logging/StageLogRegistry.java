@@ -0,0 +1,65 @@
+package com.example.kafkastream.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of pipeline stage loggers
+ * Stages are created on first use with their configured sample rate (or the default one),
+ * and their rates can be changed at runtime. All stages write to the
+ * "com.example.kafkastream.pipeline" logger, so the level can still be set in one place.
+ */
+public class StageLogRegistry {
+
+    public static final String LOGGER_NAME = "com.example.kafkastream.pipeline";
+
+    private final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+    private final ConcurrentMap<String, StageLogger> stages = new ConcurrentHashMap<>();
+
+    private final double defaultSampleRate;
+    private final int maxPerSecond;
+    private final Map<String, Double> sampleRates;
+
+    /**
+     * @param defaultSampleRate rate for stages without an entry in sampleRates
+     * @param maxPerSecond      events written per stage and second at most
+     * @param sampleRates       configured rate per stage name
+     */
+    public StageLogRegistry(double defaultSampleRate, int maxPerSecond, Map<String, Double> sampleRates) {
+        this.defaultSampleRate = defaultSampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.sampleRates = Map.copyOf(sampleRates);
+    }
+
+    public StageLogger stage(String name) {
+        return stages.computeIfAbsent(name, stage ->
+                new StageLogger(logger, stage, sampleRates.getOrDefault(stage, defaultSampleRate), maxPerSecond));
+    }
+
+    /**
+     * Change the sample rate of a registered stage
+     * @throws IllegalArgumentException if the stage is unknown or the rate is outside [0, 1]
+     */
+    public StageLogger setSampleRate(String name, double sampleRate) {
+        StageLogger stage = stages.get(name);
+        if (stage == null) {
+            throw new IllegalArgumentException("Unknown pipeline stage: " + name);
+        }
+        stage.setSampleRate(sampleRate);
+        logger.info("Sample rate of pipeline stage {} set to {}", name, sampleRate);
+        return stage;
+    }
+
+    public List<StageLogger> stages() {
+        List<StageLogger> snapshot = new ArrayList<>(stages.values());
+        snapshot.sort(Comparator.comparing(StageLogger::getStage));
+        return snapshot;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.kafkastream.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampled, rate-limited INFO logger for one pipeline stage
+ * A record is logged with probability sampleRate, and at most maxPerSecond events are written
+ * per second; records skipped by the rate limit are reported as "suppressed" on the next event.
+ * Unsampled calls cost one random draw and never evaluate the record's fields.
+ */
+public final class StageLogger {
+
+    private final Logger logger;
+    private final String stage;
+
+    private volatile double sampleRate;
+    private volatile int maxPerSecond;
+
+    private volatile long currentSecond;
+    private final AtomicInteger emittedThisSecond = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    StageLogger(Logger logger, String stage, double sampleRate, int maxPerSecond) {
+        this.logger = logger;
+        this.stage = stage;
+        setSampleRate(sampleRate);
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Log a record if it is sampled
+     * @param event  short event name, e.g. "received" or "persisted"
+     * @param key    record key
+     * @param value  record value handed to the fields callback
+     * @param fields adds the value's fields; only called for sampled records
+     */
+    public <V> void log(String event, Object key, V value, StageFields<? super V> fields) {
+        if (!sample()) {
+            return;
+        }
+        StageEvent stageEvent = new StageEvent(logger.atInfo(), event)
+                .field("stage", stage)
+                .field("key", key);
+        fields.describe(value, stageEvent);
+        long skipped = suppressed.sumThenReset();
+        if (skipped > 0) {
+            stageEvent.field("suppressed", skipped);
+        }
+        stageEvent.emit();
+    }
+
+    boolean sample() {
+        double rate = sampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return false;
+        }
+        if (!logger.isInfoEnabled()) {
+            return false;
+        }
+        return acquirePermit();
+    }
+
+    /**
+     * Fixed one-second window; races at the window boundary only let a few extra events through
+     */
+    private boolean acquirePermit() {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            emittedThisSecond.set(0);
+        }
+        if (emittedThisSecond.incrementAndGet() <= maxPerSecond) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.kafkastream.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of one pipeline node and phase
+ * Every record is counted; only a sampled fraction is timed, because a histogram update costs
+ * several times more than the cheap nodes it would measure. Sampling is uniform, so the
+ * latency percentiles stay unbiased.
+ *
+ * <pre>
+ * long start = meters.start();
+ * try { ... } catch (RuntimeException e) { meters.error(); throw e; } finally { meters.stop(start); }
+ * </pre>
+ */
+public final class NodeMeters {
+
+    /** start() result for records that are not timed */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final Counter records;
+    private final Counter errors;
+    private final Timer latency;
+    private final double sampleRate;
+
+    NodeMeters(Counter records, Counter errors, Timer latency, double sampleRate) {
+        this.records = records;
+        this.errors = errors;
+        this.latency = latency;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Count a record and decide whether it is timed
+     * @return the start time, or NOT_SAMPLED
+     */
+    public long start() {
+        return start(1);
+    }
+
+    /**
+     * Count a batch of records handled in one timed call
+     * @return the start time, or NOT_SAMPLED
+     */
+    public long start(int count) {
+        records.increment(count);
+        if (sampleRate < 1 && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        stop(start, 0);
+    }
+
+    /**
+     * @param excludedNanos time spent in downstream nodes, not attributed to this one
+     */
+    public void stop(long start, long excludedNanos) {
+        if (start != NOT_SAMPLED) {
+            latency.record(System.nanoTime() - start - excludedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void error() {
+        errors.increment();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.kafkastream.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+
+import java.util.Locale;
+
+/**
+ * Throughput, error and latency meters for the pipeline nodes
+ * Every node counts its records in "pipeline.records" and its failures in "pipeline.errors", and
+ * records a sample of its latencies in the "pipeline.latency" timer; all three are tagged with the
+ * pipeline (use case or "persistence"), the node name and the phase. Meters are resolved once when
+ * a wrapper is built, never per record.
+ */
+public class PipelineMetrics {
+
+    public static final String RECORDS = "pipeline.records";
+    public static final String ERRORS = "pipeline.errors";
+    public static final String LATENCY = "pipeline.latency";
+
+    /** Persistence listeners, as opposed to the Kafka Streams applications */
+    public static final String PERSISTENCE = "persistence";
+
+    public enum Phase {
+        DESERIALIZE, TRANSFORM, SERIALIZE, PERSIST;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final double latencySampleRate;
+
+    /**
+     * @param latencySampleRate fraction of records whose latency is recorded (0 to 1)
+     */
+    public PipelineMetrics(MeterRegistry registry, double latencySampleRate) {
+        if (latencySampleRate < 0 || latencySampleRate > 1) {
+            throw new IllegalArgumentException("Latency sample rate must be between 0 and 1: " + latencySampleRate);
+        }
+        this.registry = registry;
+        this.latencySampleRate = latencySampleRate;
+    }
+
+    public NodeMeters node(String pipeline, String node, Phase phase) {
+        return node(pipeline, node, phase, latencySampleRate);
+    }
+
+    public NodeMeters node(String pipeline, String node, Phase phase, double sampleRate) {
+        String phaseTag = phase.tag();
+        return new NodeMeters(
+                Counter.builder(RECORDS)
+                        .description("Records handled by a pipeline node")
+                        .tags("pipeline", pipeline, "node", node, "phase", phaseTag)
+                        .register(registry),
+                Counter.builder(ERRORS)
+                        .description("Records a pipeline node failed on or sent to a dead-letter topic")
+                        .tags("pipeline", pipeline, "node", node, "phase", phaseTag)
+                        .register(registry),
+                Timer.builder(LATENCY)
+                        .description("Time spent per record in a pipeline node (sampled)")
+                        .tags("pipeline", pipeline, "node", node, "phase", phaseTag)
+                        .register(registry),
+                sampleRate);
+    }
+
+    /**
+     * Serde measuring deserialization and serialization under the given node name
+     */
+    public <T> Serde<T> serde(String pipeline, String node, Serde<T> serde) {
+        return new TimedSerde<>(serde, this, pipeline, node);
+    }
+
+    public <T> Deserializer<T> deserializer(String pipeline, String node, Deserializer<T> deserializer) {
+        return new TimedSerde.TimedDeserializer<>(deserializer, node(pipeline, node, Phase.DESERIALIZE));
+    }
+
+    /**
+     * Processor measuring the node's own work; time spent in downstream nodes during forward is excluded
+     */
+    public <KIn, VIn, KOut, VOut> ProcessorSupplier<KIn, VIn, KOut, VOut> processor(
+            String pipeline, String node, ProcessorSupplier<KIn, VIn, KOut, VOut> supplier) {
+        return processor(pipeline, node, null, supplier);
+    }
+
+    /**
+     * @param deadLetterChild child whose forwards are counted as errors of the node
+     */
+    public <KIn, VIn, KOut, VOut> ProcessorSupplier<KIn, VIn, KOut, VOut> processor(
+            String pipeline, String node, String deadLetterChild, ProcessorSupplier<KIn, VIn, KOut, VOut> supplier) {
+        NodeMeters meters = node(pipeline, node, Phase.TRANSFORM);
+        return () -> new TimedProcessor<>(supplier.get(), meters, deadLetterChild);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.kafkastream.metrics;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsMetrics;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.Punctuator;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.TaskId;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Processor metering its delegate's process calls
+ * Forwards run the downstream nodes (including sink serialization) synchronously, so for sampled
+ * records the time spent inside forward is measured through the context handed to the delegate
+ * and subtracted.
+ */
+final class TimedProcessor<KIn, VIn, KOut, VOut> implements Processor<KIn, VIn, KOut, VOut> {
+
+    private final Processor<KIn, VIn, KOut, VOut> delegate;
+    private final NodeMeters meters;
+    private final String deadLetterChild;
+
+    private boolean sampled;
+    private long downstreamNanos;
+
+    TimedProcessor(Processor<KIn, VIn, KOut, VOut> delegate, NodeMeters meters, String deadLetterChild) {
+        this.delegate = delegate;
+        this.meters = meters;
+        this.deadLetterChild = deadLetterChild;
+    }
+
+    @Override
+    public void init(ProcessorContext<KOut, VOut> context) {
+        delegate.init(new TimingContext(context));
+    }
+
+    @Override
+    public void process(Record<KIn, VIn> record) {
+        long start = meters.start();
+        sampled = start != NodeMeters.NOT_SAMPLED;
+        downstreamNanos = 0;
+        try {
+            delegate.process(record);
+        } catch (RuntimeException e) {
+            meters.error();
+            throw e;
+        } finally {
+            meters.stop(start, downstreamNanos);
+            sampled = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private final class TimingContext implements ProcessorContext<KOut, VOut> {
+
+        private final ProcessorContext<KOut, VOut> context;
+
+        TimingContext(ProcessorContext<KOut, VOut> context) {
+            this.context = context;
+        }
+
+        @Override
+        public <K extends KOut, V extends VOut> void forward(Record<K, V> record) {
+            if (!sampled) {
+                context.forward(record);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                context.forward(record);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public <K extends KOut, V extends VOut> void forward(Record<K, V> record, String childName) {
+            if (childName.equals(deadLetterChild)) {
+                meters.error();
+            }
+            if (!sampled) {
+                context.forward(record, childName);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                context.forward(record, childName);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public String applicationId() {
+            return context.applicationId();
+        }
+
+        @Override
+        public TaskId taskId() {
+            return context.taskId();
+        }
+
+        @Override
+        public Optional<RecordMetadata> recordMetadata() {
+            return context.recordMetadata();
+        }
+
+        @Override
+        public Serde<?> keySerde() {
+            return context.keySerde();
+        }
+
+        @Override
+        public Serde<?> valueSerde() {
+            return context.valueSerde();
+        }
+
+        @Override
+        public File stateDir() {
+            return context.stateDir();
+        }
+
+        @Override
+        public StreamsMetrics metrics() {
+            return context.metrics();
+        }
+
+        @Override
+        public <S extends StateStore> S getStateStore(String name) {
+            return context.getStateStore(name);
+        }
+
+        @Override
+        public Cancellable schedule(Duration interval, PunctuationType type, Punctuator callback) {
+            return context.schedule(interval, type, callback);
+        }
+
+        @Override
+        public void commit() {
+            context.commit();
+        }
+
+        @Override
+        public Map<String, Object> appConfigs() {
+            return context.appConfigs();
+        }
+
+        @Override
+        public Map<String, Object> appConfigsWithPrefix(String prefix) {
+            return context.appConfigsWithPrefix(prefix);
+        }
+
+        @Override
+        public long currentSystemTimeMs() {
+            return context.currentSystemTimeMs();
+        }
+
+        @Override
+        public long currentStreamTimeMs() {
+            return context.currentStreamTimeMs();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.kafkastream.metrics;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Serde metering the records, failures and sampled latency of its delegate's serializer and deserializer
+ */
+final class TimedSerde<T> implements Serde<T> {
+
+    private final Serde<T> delegate;
+    private final PipelineMetrics metrics;
+    private final String pipeline;
+    private final String node;
+
+    // Created on first use, so a source only registers deserialize meters and a sink only serialize ones
+    private volatile TimedDeserializer<T> deserializer;
+    private volatile TimedSerializer<T> serializer;
+
+    TimedSerde(Serde<T> delegate, PipelineMetrics metrics, String pipeline, String node) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.pipeline = pipeline;
+        this.node = node;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        if (serializer == null) {
+            serializer = new TimedSerializer<>(delegate.serializer(), metrics.node(pipeline, node, PipelineMetrics.Phase.SERIALIZE));
+        }
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        if (deserializer == null) {
+            deserializer = new TimedDeserializer<>(delegate.deserializer(), metrics.node(pipeline, node, PipelineMetrics.Phase.DESERIALIZE));
+        }
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    static final class TimedSerializer<T> implements Serializer<T> {
+
+        private final Serializer<T> delegate;
+        private final NodeMeters meters;
+
+        TimedSerializer(Serializer<T> delegate, NodeMeters meters) {
+            this.delegate = delegate;
+            this.meters = meters;
+        }
+
+        @Override
+        public void configure(Map<String, ?> configs, boolean isKey) {
+            delegate.configure(configs, isKey);
+        }
+
+        @Override
+        public byte[] serialize(String topic, T data) {
+            return serialize(topic, null, data);
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, T data) {
+            long start = meters.start();
+            try {
+                return headers == null ? delegate.serialize(topic, data) : delegate.serialize(topic, headers, data);
+            } catch (RuntimeException e) {
+                meters.error();
+                throw e;
+            } finally {
+                meters.stop(start);
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    static final class TimedDeserializer<T> implements Deserializer<T> {
+
+        private final Deserializer<T> delegate;
+        private final NodeMeters meters;
+
+        TimedDeserializer(Deserializer<T> delegate, NodeMeters meters) {
+            this.delegate = delegate;
+            this.meters = meters;
+        }
+
+        @Override
+        public void configure(Map<String, ?> configs, boolean isKey) {
+            delegate.configure(configs, isKey);
+        }
+
+        @Override
+        public T deserialize(String topic, byte[] data) {
+            return deserialize(topic, null, data);
+        }
+
+        @Override
+        public T deserialize(String topic, Headers headers, byte[] data) {
+            long start = meters.start();
+            try {
+                return headers == null ? delegate.deserialize(topic, data) : delegate.deserialize(topic, headers, data);
+            } catch (RuntimeException e) {
+                meters.error();
+                throw e;
+            } finally {
+                meters.stop(start);
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.kafkastream.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Reports virtual threads that blocked while pinned to their carrier
+ * A virtual thread that blocks inside a synchronized block or a native frame (e.g. a JDBC driver
+ * or pool guarding I/O with a monitor) can't unmount, so it holds a carrier thread, and with all
+ * carriers pinned every other virtual thread waits. The JFR jdk.VirtualThreadPinned event fires for
+ * each such block longer than the threshold; they are read from an in-process recording stream,
+ * timed on threads.virtual.pinned and grouped by the first frame outside the JDK, whose first
+ * occurrence is logged with its stack.
+ */
+public class VirtualThreadPinning implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinning.class);
+
+    public static final String PINNED_METER = "threads.virtual.pinned";
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    // Distinct sites kept for the report; later ones are only timed
+    static final int MAX_SITES = 100;
+
+    private static final int STACK_DEPTH = 64;
+
+    private static final class Site {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final String stackTrace;
+
+        Site(String stackTrace) {
+            this.stackTrace = stackTrace;
+        }
+    }
+
+    private final Duration threshold;
+    private final Timer pinned;
+    private final ConcurrentMap<String, Site> sites = new ConcurrentHashMap<>();
+    private RecordingStream recording;
+
+    /**
+     * @param threshold shortest pinned block that is reported
+     */
+    public VirtualThreadPinning(MeterRegistry meterRegistry, Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder(PINNED_METER)
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::pinned);
+        recording.startAsync();
+        logger.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    private void pinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        record(frames.stream().map(VirtualThreadPinning::frame).toList(), event.getDuration());
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+
+    /**
+     * @param frames stack of the pinned thread, innermost first
+     */
+    void record(List<String> frames, Duration duration) {
+        long nanos = duration.toNanos();
+        pinned.record(nanos, TimeUnit.NANOSECONDS);
+
+        String key = frames.stream().filter(frame -> !isJdk(frame)).findFirst()
+                .orElse(frames.isEmpty() ? "unknown" : frames.get(0));
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                return;
+            }
+            String stack = String.join("\n\tat ", frames.subList(0, Math.min(frames.size(), STACK_DEPTH)));
+            Site created = new Site(stack);
+            site = sites.putIfAbsent(key, created);
+            if (site == null) {
+                site = created;
+                logger.warn("Virtual thread pinned for {} ms at {}\n\tat {}", nanos / 1_000_000.0, key, stack);
+            }
+        }
+        site.count.incrementAndGet();
+        site.totalNanos.addAndGet(nanos);
+        site.maxNanos.accumulate(nanos);
+    }
+
+    private static boolean isJdk(String frame) {
+        return frame.startsWith("java.") || frame.startsWith("jdk.") || frame.startsWith("sun.");
+    }
+
+    /**
+     * Pinning sites, most frequent first: count, total and max in milliseconds, and the stack of the
+     * first occurrence
+     */
+    public List<Map<String, Object>> report() {
+        List<Map<String, Object>> report = new ArrayList<>();
+        sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> entry) -> entry.getValue().count.get()).reversed())
+                .forEach(entry -> {
+                    Site site = entry.getValue();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("site", entry.getKey());
+                    row.put("count", site.count.get());
+                    row.put("totalMs", site.totalNanos.get() / 1_000_000.0);
+                    row.put("maxMs", site.maxNanos.get() / 1_000_000.0);
+                    row.put("stackTrace", site.stackTrace);
+                    report.add(row);
+                });
+        return report;
+    }
+}
@@ -10,11 +10,21 @@ import java.time.Instant;
  * This allows us to correlate processed events with their original source
  */
 @Entity
-@Table(name = "original_events")
+// Keyset pages of GET /api/events/original, as for processed_events
+@Table(name = "original_events", indexes = {
+    @Index(name = "idx_original_events_time", columnList = "published_at, id"),
+    @Index(name = "idx_original_events_type_time", columnList = "event_type, published_at, id"),
+    @Index(name = "idx_original_events_topic_time", columnList = "source_topic, published_at, id")
+})
 public class OriginalEvent {
 
+    static final int ALLOCATION_SIZE = 100;
+
+    // Pooled sequence rather than IDENTITY so the bulk ingestion endpoints can batch their inserts,
+    // as for ProcessedEvent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "original_events_seq")
+    @SequenceGenerator(name = "original_events_seq", sequenceName = "original_events_seq", allocationSize = ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "event_id", nullable = false, unique = true)
@@ -29,6 +39,9 @@ public class OriginalEvent {
     @Column(name = "original_data", nullable = false, columnDefinition = "TEXT")
     private String originalData; // JSON data as published
 
+    @Column(name = "correlation_id")
+    private String correlationId; // trace-id header of the REST publish, if traced
+
     @Column(name = "published_at", nullable = false)
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'", timezone = "UTC")
     private Instant publishedAt;
@@ -95,6 +108,14 @@ public class OriginalEvent {
         this.publishedAt = publishedAt;
     }
 
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
     @Override
     public String toString() {
         return "OriginalEvent{" +
@@ -0,0 +1,122 @@
+package com.example.kafkastream.model;
+
+import jakarta.persistence.*;
+
+/**
+ * JPA Entity for a Kafka record waiting to be published
+ * Written in the same transaction as its OriginalEvent; the outbox relay sends the rows in id
+ * order and deletes them once the broker has acknowledged them.
+ */
+@Entity
+@Table(name = "event_outbox")
+public class OutboxMessage {
+
+    static final int ALLOCATION_SIZE = 100;
+
+    // The producer's default max.request.size; larger records could not be sent anyway
+    static final int MAX_VALUE_BYTES = 1_048_576;
+
+    // Pooled sequence so the bulk ingestion endpoints can batch their inserts, as for OriginalEvent
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_outbox_seq")
+    @SequenceGenerator(name = "event_outbox_seq", sequenceName = "event_outbox_seq", allocationSize = ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "record_key")
+    private String key;
+
+    @Column(name = "record_value", nullable = false, length = MAX_VALUE_BYTES)
+    private byte[] value; // UTF-8 JSON, the same bytes as the original event's data
+
+    @Column(name = "use_case", nullable = false)
+    private String useCase; // trace use case of the topic's pipeline
+
+    @Column(name = "correlation_id", nullable = false)
+    private String correlationId;
+
+    @Column(name = "ingest_nanos", nullable = false)
+    private long ingestNanos; // when the REST request was accepted, epoch nanoseconds
+
+    // Constructors
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(String topic, String key, byte[] value, String useCase, String correlationId, long ingestNanos) {
+        this.topic = topic;
+        this.key = key;
+        this.value = value;
+        this.useCase = useCase;
+        this.correlationId = correlationId;
+        this.ingestNanos = ingestNanos;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public void setValue(byte[] value) {
+        this.value = value;
+    }
+
+    public String getUseCase() {
+        return useCase;
+    }
+
+    public void setUseCase(String useCase) {
+        this.useCase = useCase;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public long getIngestNanos() {
+        return ingestNanos;
+    }
+
+    public void setIngestNanos(long ingestNanos) {
+        this.ingestNanos = ingestNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+                "id=" + id +
+                ", topic='" + topic + '\'' +
+                ", key='" + key + '\'' +
+                ", correlationId='" + correlationId + '\'' +
+                '}';
+    }
+}
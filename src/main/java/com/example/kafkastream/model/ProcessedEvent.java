@@ -9,11 +9,22 @@ import java.time.Instant;
  * Stores the final results from all Kafka Streams processing
  */
 @Entity
-@Table(name = "processed_events")
+// Keyset pages of GET /api/events/processed: newest first, optionally within one type or topic.
+// An event type comes from a single topic, so type+topic filters range-scan the event_type index.
+@Table(name = "processed_events", indexes = {
+    @Index(name = "idx_processed_events_time", columnList = "processed_at, id"),
+    @Index(name = "idx_processed_events_type_time", columnList = "event_type, processed_at, id"),
+    @Index(name = "idx_processed_events_topic_time", columnList = "source_topic, processed_at, id")
+})
 public class ProcessedEvent {
+
+    static final int ALLOCATION_SIZE = 100;
     
+    // Pooled sequence rather than IDENTITY: ids are allocated ALLOCATION_SIZE at a time without a
+    // round trip per row, which lets Hibernate batch the inserts of the persistence listeners
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processed_events_seq")
+    @SequenceGenerator(name = "processed_events_seq", sequenceName = "processed_events_seq", allocationSize = ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "event_type", nullable = false)
@@ -31,6 +42,9 @@ public class ProcessedEvent {
     @Column(name = "source_topic", nullable = false)
     private String sourceTopic;
     
+    @Column(name = "correlation_id")
+    private String correlationId; // trace-id header of the REST publish, if traced
+
     @Column(name = "processed_at", nullable = false)
     private Instant processedAt;
 
@@ -111,6 +125,14 @@ public class ProcessedEvent {
         this.processedAt = processedAt;
     }
 
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
     @Override
     public String toString() {
         return "ProcessedEvent{" +
@@ -121,6 +143,7 @@ public class ProcessedEvent {
                 ", processedData='" + processedData + '\'' +
                 ", sourceTopic='" + sourceTopic + '\'' +
                 ", processedAt=" + processedAt +
+                ", correlationId='" + correlationId + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dto.GenericAction;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Single-pass router for Use Case 3
+ * Looks up each GenericAction's type in a hash table compiled at startup, applies the
+ * route's prefix and forwards to the route's child node; unknown types go to the default child.
+ * Per-record cost is one lookup regardless of how many action types are configured.
+ */
+public class ActionRoutingProcessor implements Processor<String, GenericAction, String, GenericAction> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionRoutingProcessor.class);
+
+    private final Map<String, CompiledRoute> routes;
+    private final String defaultChildName;
+
+    private ProcessorContext<String, GenericAction> context;
+
+    /**
+     * @param routes           compiled route table keyed by normalized action type
+     * @param defaultChildName child node receiving actions without a route
+     */
+    public ActionRoutingProcessor(Map<String, CompiledRoute> routes, String defaultChildName) {
+        this.routes = routes;
+        this.defaultChildName = defaultChildName;
+    }
+
+    /**
+     * Normalize an action type for case-insensitive lookup
+     */
+    public static String normalize(String actionType) {
+        return actionType == null ? null : actionType.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Build the lookup table; keys are normalized so matching stays case-insensitive
+     */
+    public static Map<String, CompiledRoute> compile(Map<String, CompiledRoute> routesByActionType) {
+        Map<String, CompiledRoute> compiled = new HashMap<>();
+        routesByActionType.forEach((actionType, route) -> compiled.put(normalize(actionType), route));
+        return compiled;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, GenericAction> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(Record<String, GenericAction> record) {
+        GenericAction action = record.value();
+        String actionType = action == null ? null : action.getActionType();
+        CompiledRoute route = actionType == null ? null : routes.get(normalize(actionType));
+
+        if (route == null) {
+            logger.debug("No route for actionType={}, sending to default sink", actionType);
+            context.forward(record, defaultChildName);
+            return;
+        }
+
+        GenericAction processedAction = new GenericAction(actionType, route.prefix() + action.getDetails());
+        logger.debug("Routed actionType={} to {}", actionType, route.childName());
+        context.forward(record.withValue(processedAction), route.childName());
+    }
+
+    /**
+     * A route resolved against the topology: the prefix to apply and the child node to forward to
+     */
+    public record CompiledRoute(String prefix, String childName) {}
+}
@@ -0,0 +1,111 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dto.CreateChatEvent;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.processor.StreamPartitioner;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * First-seen deduplication of CreateChatEvent (Use Case 4)
+ * Emits a chat event only when its chat id has not been seen within the TTL or when the
+ * sender attributes differ from the last emitted ones. State lives in a persistent window
+ * store whose retention equals the TTL, so expired chats are dropped segment by segment.
+ * The store is local to a task, so every event of a chat must reach the same partition: the
+ * stream is repartitioned by chat id (see partitioner) before this processor, keeping the
+ * message key that links the persisted chat event to its original event.
+ */
+public class ChatEventDedupProcessor implements Processor<String, CreateChatEvent, String, CreateChatEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatEventDedupProcessor.class);
+
+    private final String storeName;
+    private final long ttlMs;
+
+    private ProcessorContext<String, CreateChatEvent> context;
+    private WindowStore<String, String> store;
+
+    public ChatEventDedupProcessor(String storeName, Duration ttl) {
+        this.storeName = storeName;
+        this.ttlMs = ttl.toMillis();
+    }
+
+    /**
+     * Store holding the last emitted sender fingerprint per chat id
+     */
+    public static StoreBuilder<WindowStore<String, String>> storeBuilder(String storeName, Duration ttl) {
+        return Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(storeName, ttl, ttl, false),
+                Serdes.String(),
+                Serdes.String());
+    }
+
+    /**
+     * Partitions chat events by chat id instead of by record key; events without a chat id keep
+     * the default partitioning by key
+     */
+    public static StreamPartitioner<String, CreateChatEvent> partitioner() {
+        return (topic, key, chatEvent, numPartitions) -> {
+            String chatId = chatEvent == null ? null : chatEvent.getChatId();
+            if (chatId == null) {
+                return null;
+            }
+            return Utils.toPositive(Utils.murmur2(chatId.getBytes(StandardCharsets.UTF_8))) % numPartitions;
+        };
+    }
+
+    @Override
+    public void init(ProcessorContext<String, CreateChatEvent> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(Record<String, CreateChatEvent> record) {
+        CreateChatEvent chatEvent = record.value();
+        String chatId = chatEvent == null ? null : chatEvent.getChatId();
+        if (chatId == null) {
+            context.forward(record);
+            return;
+        }
+
+        String fingerprint = fingerprint(chatEvent);
+        long timestamp = record.timestamp();
+        if (fingerprint.equals(lastEmitted(chatId, timestamp))) {
+            logger.debug("Suppressed duplicate CreateChatEvent: chatId={}", chatId);
+            return;
+        }
+
+        store.put(chatId, fingerprint, timestamp);
+        context.forward(record);
+    }
+
+    private String lastEmitted(String chatId, long timestamp) {
+        try (WindowStoreIterator<String> iterator =
+                     store.backwardFetch(chatId, Math.max(0, timestamp - ttlMs), timestamp + ttlMs)) {
+            return iterator.hasNext() ? iterator.next().value : null;
+        }
+    }
+
+    /**
+     * Sender attributes that make a chat event worth re-emitting when they change
+     */
+    static String fingerprint(CreateChatEvent chatEvent) {
+        return Objects.toString(chatEvent.getUserName(), "") + '\u0000'
+                + Objects.toString(chatEvent.getUserPhone(), "") + '\u0000'
+                + Objects.toString(chatEvent.getCountryCode(), "") + '\u0000'
+                + Objects.toString(chatEvent.getDialCode(), "");
+    }
+}
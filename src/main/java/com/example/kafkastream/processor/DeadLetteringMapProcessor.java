@@ -0,0 +1,56 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dlq.DeadLetterHeaders;
+import org.apache.kafka.streams.kstream.ValueMapper;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * mapValues with a dead-letter path
+ * Each mapped value goes to the main child; when the mapper throws, the input value is
+ * forwarded unchanged to the dead-letter child with the failure described in its headers,
+ * so no placeholder record reaches the output topic.
+ */
+public class DeadLetteringMapProcessor<V, VR> implements Processor<String, V, String, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetteringMapProcessor.class);
+
+    private final String processorName;
+    private final ValueMapper<V, VR> mapper;
+    private final String mainChildName;
+    private final String deadLetterChildName;
+
+    private ProcessorContext<String, Object> context;
+
+    public DeadLetteringMapProcessor(String processorName, ValueMapper<V, VR> mapper,
+                                     String mainChildName, String deadLetterChildName) {
+        this.processorName = processorName;
+        this.mapper = mapper;
+        this.mainChildName = mainChildName;
+        this.deadLetterChildName = deadLetterChildName;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, Object> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        Object mapped;
+        try {
+            mapped = mapper.apply(record.value());
+        } catch (Exception e) {
+            logger.error("Error in {}: key={}, error={}; sending record to dead-letter topic",
+                    processorName, record.key(), e.getMessage(), e);
+            context.forward(record.withValue((Object) record.value())
+                    .withHeaders(DeadLetterHeaders.processingFailure(record.headers(), e, processorName,
+                            context.recordMetadata())), deadLetterChildName);
+            return;
+        }
+        context.forward(record.withValue(mapped), mainChildName);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dto.InboundMessageView;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Idempotency filter for redelivered inbound messages (Use Case 4)
+ * Drops an InboundMessageEvent whose message id (e.g. wamid.*) was already seen within the
+ * retention window. Ids are kept in a persistent window store whose retention bounds state size.
+ * Hit/miss counts are published as Kafka Streams metrics in the "stream-inbound-message-dedup-metrics" group.
+ */
+public class InboundMessageDedupProcessor implements Processor<String, InboundMessageView, String, InboundMessageView> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundMessageDedupProcessor.class);
+
+    public static final String METRICS_SCOPE = "inbound-message-dedup";
+
+    private final String storeName;
+    private final long windowMs;
+
+    private ProcessorContext<String, InboundMessageView> context;
+    private WindowStore<String, Long> store;
+    private Sensor hitSensor;
+    private Sensor missSensor;
+
+    public InboundMessageDedupProcessor(String storeName, Duration window) {
+        this.storeName = storeName;
+        this.windowMs = window.toMillis();
+    }
+
+    /**
+     * Store holding the first-seen timestamp per message id for the retention window
+     */
+    public static StoreBuilder<WindowStore<String, Long>> storeBuilder(String storeName, Duration window) {
+        return Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(storeName, window, window, false),
+                Serdes.String(),
+                Serdes.Long());
+    }
+
+    @Override
+    public void init(ProcessorContext<String, InboundMessageView> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        String taskId = context.taskId().toString();
+        this.hitSensor = context.metrics().addRateTotalSensor(METRICS_SCOPE, taskId, "hit", Sensor.RecordingLevel.INFO);
+        this.missSensor = context.metrics().addRateTotalSensor(METRICS_SCOPE, taskId, "miss", Sensor.RecordingLevel.INFO);
+    }
+
+    @Override
+    public void process(Record<String, InboundMessageView> record) {
+        String messageId = record.value() == null ? null : record.value().getMessageId();
+        if (messageId == null || messageId.isEmpty()) {
+            context.forward(record);
+            return;
+        }
+
+        long timestamp = record.timestamp();
+        if (seen(messageId, timestamp)) {
+            hitSensor.record();
+            logger.debug("Dropped redelivered InboundMessageEvent: messageId={}", messageId);
+            return;
+        }
+
+        missSensor.record();
+        store.put(messageId, timestamp, timestamp);
+        context.forward(record);
+    }
+
+    private boolean seen(String messageId, long timestamp) {
+        try (WindowStoreIterator<Long> iterator =
+                     store.fetch(messageId, Math.max(0, timestamp - windowMs), timestamp + windowMs)) {
+            return iterator.hasNext();
+        }
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(hitSensor);
+        context.metrics().removeSensor(missSensor);
+    }
+}
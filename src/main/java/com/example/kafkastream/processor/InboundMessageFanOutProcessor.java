@@ -0,0 +1,92 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dlq.DeadLetterHeaders;
+import com.example.kafkastream.dto.CreateChatEvent;
+import com.example.kafkastream.dto.CreateMessageEvent;
+import com.example.kafkastream.dto.InboundMessageView;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-pass processor for Use Case 4
+ * Reads each InboundMessageView once and forwards a CreateChatEvent and a CreateMessageEvent
+ * to the named child nodes, sharing the extracted sender/payload fields and one error path:
+ * a message that cannot be fanned out goes unchanged to the dead-letter child instead
+ */
+public class InboundMessageFanOutProcessor implements Processor<String, InboundMessageView, String, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundMessageFanOutProcessor.class);
+
+    public static final String NAME = "fan-out-inbound-message";
+
+    private final String chatChildName;
+    private final String messageChildName;
+    private final String deadLetterChildName;
+
+    private ProcessorContext<String, Object> context;
+
+    public InboundMessageFanOutProcessor(String chatChildName, String messageChildName, String deadLetterChildName) {
+        this.chatChildName = chatChildName;
+        this.messageChildName = messageChildName;
+        this.deadLetterChildName = deadLetterChildName;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, Object> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(Record<String, InboundMessageView> record) {
+        CreateChatEvent chatEvent;
+        CreateMessageEvent messageEvent;
+        try {
+            InboundMessageView inboundEvent = record.value();
+            if (!inboundEvent.hasPayload() || !inboundEvent.hasSender()) {
+                throw new IllegalArgumentException("InboundMessageEvent without payload sender");
+            }
+
+            String chatId = inboundEvent.getChatId();
+            String senderPhone = inboundEvent.getSenderPhone();
+            Long timestamp = inboundEvent.getTimestamp();
+
+            chatEvent = new CreateChatEvent(
+                    chatId,                                // chat_id
+                    inboundEvent.getSenderName(),          // user_name
+                    senderPhone,                           // user_phone
+                    inboundEvent.getSenderCountryCode(),   // country_code
+                    inboundEvent.getSenderDialCode(),      // dial_code
+                    timestamp                              // created_at
+            );
+            messageEvent = new CreateMessageEvent(
+                    inboundEvent.getMessageId(),           // message_id
+                    senderPhone,                           // sender_phone
+                    chatId,                                // chat_id
+                    inboundEvent.getMessageType(),         // message_type
+                    inboundEvent.getText(),                // content
+                    timestamp                              // timestamp
+            );
+
+            logger.debug("Fanned out InboundMessageEvent: key={}, messageId={}, chatId={}",
+                    record.key(), inboundEvent.getMessageId(), chatId);
+        } catch (Exception e) {
+            logger.error("Error transforming InboundMessageEvent: key={}, error={}; sending record to dead-letter topic",
+                    record.key(), e.getMessage(), e);
+            context.forward(record.withValue((Object) record.value())
+                    .withHeaders(DeadLetterHeaders.processingFailure(record.headers(), e, NAME,
+                            context.recordMetadata())), deadLetterChildName);
+            return;
+        }
+
+        // Each output gets its own header set: sinks stamp headers during serialization and
+        // the producer seals them once sent, so the two records must not share one instance
+        context.forward(record.withValue((Object) chatEvent)
+                .withHeaders(new RecordHeaders(record.headers().toArray())), chatChildName);
+        context.forward(record.withValue((Object) messageEvent)
+                .withHeaders(new RecordHeaders(record.headers().toArray())), messageChildName);
+    }
+}
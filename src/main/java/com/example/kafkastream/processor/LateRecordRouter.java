@@ -0,0 +1,61 @@
+package com.example.kafkastream.processor;
+
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Out-of-order handling for event-time streams
+ * Records whose event time is older than the task's stream time minus the grace period are
+ * forwarded to the late child (a side-output sink); everything else continues on the main child.
+ * Late records are counted in the "stream-late-records-metrics" group.
+ */
+public class LateRecordRouter<V> implements Processor<String, V, String, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LateRecordRouter.class);
+
+    public static final String METRICS_SCOPE = "late-records";
+
+    private final long graceMs;
+    private final String onTimeChildName;
+    private final String lateChildName;
+
+    private ProcessorContext<String, V> context;
+    private Sensor lateSensor;
+
+    public LateRecordRouter(Duration grace, String onTimeChildName, String lateChildName) {
+        this.graceMs = grace.toMillis();
+        this.onTimeChildName = onTimeChildName;
+        this.lateChildName = lateChildName;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, V> context) {
+        this.context = context;
+        this.lateSensor = context.metrics().addRateTotalSensor(METRICS_SCOPE, context.taskId().toString(),
+                "late", Sensor.RecordingLevel.INFO);
+    }
+
+    @Override
+    public void process(Record<String, V> record) {
+        long streamTime = context.currentStreamTimeMs();
+        if (record.timestamp() < streamTime - graceMs) {
+            lateSensor.record();
+            logger.debug("Late record: key={}, timestamp={}, streamTime={}, grace={}ms",
+                    record.key(), record.timestamp(), streamTime, graceMs);
+            context.forward(record, lateChildName);
+            return;
+        }
+        context.forward(record, onTimeChildName);
+    }
+
+    @Override
+    public void close() {
+        context.metrics().removeSensor(lateSensor);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.kafkastream.processor;
+
+import com.example.kafkastream.dto.InboundMessageView;
+import com.example.kafkastream.dto.SimpleEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+/**
+ * Event-time TimestampExtractor for payloads that carry their own timestamp
+ * Streams hands the extractor the already-decoded value, so reading the field costs a getter call;
+ * for inbound messages the value is the lazily parsed InboundMessageView, not the full event.
+ * Falls back to the record timestamp, then to partition time, when the payload has no usable time.
+ */
+public class PayloadTimestampExtractor implements TimestampExtractor {
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+        Long eventTime = null;
+        Object value = record.value();
+        if (value instanceof InboundMessageView inboundMessage) {
+            eventTime = inboundMessage.getTimestamp();
+        } else if (value instanceof SimpleEvent simpleEvent) {
+            eventTime = simpleEvent.getTimestamp();
+        }
+
+        if (eventTime != null && eventTime >= 0) {
+            return eventTime;
+        }
+        return record.timestamp() >= 0 ? record.timestamp() : Math.max(partitionTime, 0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.kafkastream.repository;
+
+import java.time.Instant;
+
+/**
+ * Optional filters of the event queries; null fields don't filter
+ * @param since inclusive lower bound of the event time
+ * @param until exclusive upper bound of the event time
+ */
+public record EventFilter(String eventType, String sourceTopic, Instant since, Instant until) {
+
+    public EventFilter {
+        if (since != null && until != null && !since.isBefore(until)) {
+            throw new IllegalArgumentException("since must be before until");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.kafkastream.repository;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination over (time, id), newest first
+ * Only the filters that are set become predicates, so each query can run as a range scan of the
+ * matching (event_type | source_topic, time, id) index and read no more than one page of rows,
+ * however deep the page is.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {}
+
+    /**
+     * Newest first, led by the column the filter fixes: the order is the same, but it matches the
+     * index column order, which is what lets the database read the index in order instead of
+     * sorting every matching row (H2 only sorts by index when the ORDER BY starts with its columns)
+     */
+    public static Sort newestFirst(String timeAttribute, EventFilter filter) {
+        List<String> attributes = new ArrayList<>();
+        if (filter.eventType() != null) {
+            attributes.add("eventType");
+        } else if (filter.sourceTopic() != null) {
+            attributes.add("sourceTopic");
+        }
+        attributes.add(timeAttribute);
+        attributes.add("id");
+        return Sort.by(Sort.Direction.DESC, attributes.toArray(String[]::new));
+    }
+
+    /**
+     * @param timeAttribute the entity's event time attribute
+     * @param after         cursor of the last event of the previous page, or null for the first page
+     */
+    public static <T> Specification<T> page(String timeAttribute, EventFilter filter, EventCursor after) {
+        return (root, query, cb) -> {
+            Path<Instant> time = root.get(timeAttribute);
+            Path<Long> id = root.get("id");
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.eventType() != null) {
+                predicates.add(cb.equal(root.get("eventType"), filter.eventType()));
+            }
+            if (filter.sourceTopic() != null) {
+                predicates.add(cb.equal(root.get("sourceTopic"), filter.sourceTopic()));
+            }
+            if (filter.since() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(time, filter.since()));
+            }
+            if (filter.until() != null) {
+                predicates.add(cb.lessThan(time, filter.until()));
+            }
+            if (after != null) {
+                // (time, id) < (after.time, after.id), with the redundant time <= bound that the
+                // index range can start from
+                predicates.add(cb.lessThanOrEqualTo(time, after.time()));
+                predicates.add(cb.or(cb.lessThan(time, after.time()), cb.lessThan(id, after.id())));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
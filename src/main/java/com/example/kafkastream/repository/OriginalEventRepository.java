@@ -2,19 +2,26 @@ package com.example.kafkastream.repository;
 
 import com.example.kafkastream.model.OriginalEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing OriginalEvent entities
  * Provides methods to track and query original events published to Kafka
  */
 @Repository
-public interface OriginalEventRepository extends JpaRepository<OriginalEvent, Long> {
+public interface OriginalEventRepository extends JpaRepository<OriginalEvent, Long>, JpaSpecificationExecutor<OriginalEvent> {
 
     /**
      * Find an original event by its event ID
@@ -58,4 +65,29 @@ public interface OriginalEventRepository extends JpaRepository<OriginalEvent, Lo
      * @return True if exists, false otherwise
      */
     boolean existsByEventId(String eventId);
+
+    /**
+     * Find which of the given event IDs exist, in one query
+     * @param eventIds The event IDs to check
+     * @return The subset of eventIds that have an original event
+     */
+    @Query("SELECT DISTINCT o.eventId FROM OriginalEvent o WHERE o.eventId IN :eventIds")
+    Set<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Rows per round trip when streaming the table
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Stream every original event in id order through a forward-only cursor
+     * Must be consumed and closed inside a transaction.
+     * @return Stream of all original events
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM OriginalEvent o ORDER BY o.id")
+    Stream<OriginalEvent> streamAll();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.kafkastream.repository;
+
+import com.example.kafkastream.model.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the records waiting in the outbox
+ */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * The oldest records still waiting; relayed rows are deleted, so this is always the head of the
+     * outbox (ids are not committed in order, so a "greater than the last id" cursor could skip rows)
+     */
+    List<OutboxMessage> findAllByOrderByIdAsc(Limit limit);
+}
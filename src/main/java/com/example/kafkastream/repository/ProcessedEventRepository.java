@@ -2,18 +2,23 @@ package com.example.kafkastream.repository;
 
 import com.example.kafkastream.model.ProcessedEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA Repository for ProcessedEvent entity
  * Provides CRUD operations and custom queries for processed events
  */
 @Repository
-public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long> {
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long>, JpaSpecificationExecutor<ProcessedEvent> {
 
     /**
      * Find all processed events by event type
@@ -35,4 +40,35 @@ public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent,
      */
     @Query("SELECT COUNT(pe) FROM ProcessedEvent pe WHERE pe.eventType = :eventType")
     long countByEventType(@Param("eventType") String eventType);
+
+    /**
+     * Rows per round trip when streaming the table
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Stream every processed event in id order through a forward-only cursor; must be consumed and
+     * closed inside a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT pe FROM ProcessedEvent pe ORDER BY pe.id")
+    Stream<ProcessedEvent> streamAll();
+
+    /**
+     * Row count of every event type and source topic pair
+     */
+    @Query("SELECT pe.eventType AS eventType, pe.sourceTopic AS sourceTopic, COUNT(pe) AS count " +
+           "FROM ProcessedEvent pe GROUP BY pe.eventType, pe.sourceTopic")
+    List<TypeTopicCount> countByEventTypeAndSourceTopic();
+
+    interface TypeTopicCount {
+        String getEventType();
+
+        String getSourceTopic();
+
+        long getCount();
+    }
 }
\ No newline at end of file
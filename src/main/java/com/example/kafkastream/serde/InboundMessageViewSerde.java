@@ -0,0 +1,213 @@
+package com.example.kafkastream.serde;
+
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.InboundMessageView;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serde that decodes InboundMessageEvent records into a flat InboundMessageView
+ * Uses a streaming parser to pull only the fields the topology reads; every other
+ * field and subtree is skipped without being materialized
+ */
+public class InboundMessageViewSerde implements Serde<InboundMessageView> {
+
+    private final WireFormatSerde<InboundMessageEvent> eventSerde;
+
+    public InboundMessageViewSerde(WireFormat writeFormat) {
+        this.eventSerde = new WireFormatSerde<>(InboundMessageEvent.class, writeFormat);
+    }
+
+    @Override
+    public Serializer<InboundMessageView> serializer() {
+        return new InboundMessageViewSerializer(eventSerde.serializer());
+    }
+
+    @Override
+    public Deserializer<InboundMessageView> deserializer() {
+        return new InboundMessageViewDeserializer();
+    }
+
+    /**
+     * Writes the view back as the record it was decoded from, so side outputs (late and dead-letter
+     * topics) keep every field of the original event. Views built in memory have no source and are
+     * written in the nested InboundMessageEvent shape so they can be re-read by either decoder
+     */
+    public static class InboundMessageViewSerializer implements Serializer<InboundMessageView> {
+        private final Serializer<InboundMessageEvent> delegate;
+
+        public InboundMessageViewSerializer(Serializer<InboundMessageEvent> delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Without headers the format cannot be advertised, so only a JSON source is written as is
+         */
+        @Override
+        public byte[] serialize(String topic, InboundMessageView data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.getSource() != null && WireFormat.JSON.getContentType().equals(data.getSourceContentType())) {
+                return data.getSource();
+            }
+            return delegate.serialize(topic, data.toEvent());
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, InboundMessageView data) {
+            if (data == null) {
+                return null;
+            }
+            if (data.getSource() != null && headers != null) {
+                headers.remove(WireFormat.CONTENT_TYPE_HEADER);
+                headers.add(WireFormat.CONTENT_TYPE_HEADER, data.getSourceContentType().getBytes(StandardCharsets.UTF_8));
+                return data.getSource();
+            }
+            return delegate.serialize(topic, headers, data.toEvent());
+        }
+    }
+
+    public static class InboundMessageViewDeserializer implements Deserializer<InboundMessageView> {
+        private static final Logger logger = LoggerFactory.getLogger(InboundMessageViewDeserializer.class);
+
+        @Override
+        public InboundMessageView deserialize(String topic, byte[] data) {
+            return read(WireFormat.JSON, data);
+        }
+
+        @Override
+        public InboundMessageView deserialize(String topic, Headers headers, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            WireFormat format;
+            try {
+                format = WireFormat.fromHeaders(headers);
+            } catch (IllegalArgumentException e) {
+                throw new SerializationException(e.getMessage(), e);
+            }
+            return read(format, data);
+        }
+
+        private InboundMessageView read(WireFormat format, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            try (JsonParser parser = format.getObjectMapper().getFactory().createParser(data)) {
+                InboundMessageView view = parseEvent(parser);
+                view.setSource(data, format.getContentType());
+                return view;
+            } catch (IOException e) {
+                logger.error("Error decoding InboundMessageEvent ({}): {}", format, e.getMessage(), e);
+                throw new SerializationException("Error decoding InboundMessageEvent", e);
+            }
+        }
+
+        static InboundMessageView parseEvent(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializationException("Expected InboundMessageEvent object");
+            }
+            InboundMessageView view = new InboundMessageView();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "timestamp" -> {
+                        if (token.isStructStart()) {
+                            parser.skipChildren();
+                        } else if (token != JsonToken.VALUE_NULL) {
+                            view.setTimestamp(parser.getValueAsLong());
+                        }
+                    }
+                    case "payload" -> {
+                        if (token == JsonToken.START_OBJECT) {
+                            view.setPayloadPresent(true);
+                            parsePayload(parser, view);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            return view;
+        }
+
+        private static void parsePayload(JsonParser parser, InboundMessageView view) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "id" -> view.setMessageId(readText(parser));
+                    case "source" -> view.setChatId(readText(parser));
+                    case "type" -> view.setMessageType(readText(parser));
+                    case "payload" -> {
+                        if (token == JsonToken.START_OBJECT) {
+                            view.setContentPresent(true);
+                            parseContent(parser, view);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "sender" -> {
+                        if (token == JsonToken.START_OBJECT) {
+                            view.setSenderPresent(true);
+                            parseSender(parser, view);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        private static void parseContent(JsonParser parser, InboundMessageView view) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("text".equals(field)) {
+                    view.setText(readText(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        /**
+         * Read a scalar as text; structured values where a scalar is expected are skipped
+         */
+        private static String readText(JsonParser parser) throws IOException {
+            if (parser.currentToken().isStructStart()) {
+                parser.skipChildren();
+                return null;
+            }
+            return parser.getValueAsString();
+        }
+
+        private static void parseSender(JsonParser parser, InboundMessageView view) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "phone" -> view.setSenderPhone(readText(parser));
+                    case "name" -> view.setSenderName(readText(parser));
+                    case "country_code" -> view.setSenderCountryCode(readText(parser));
+                    case "dial_code" -> view.setSenderDialCode(readText(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+    }
+}
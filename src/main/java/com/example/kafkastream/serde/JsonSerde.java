@@ -1,7 +1,8 @@
 package com.example.kafkastream.serde;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Deserializer;
@@ -11,39 +12,60 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
  * Custom JSON Serde implementation using Jackson ObjectMapper
- * Provides serialization and deserialization for any Java objects to/from JSON strings
+ * Provides serialization and deserialization for any Java objects to/from UTF-8 JSON bytes.
+ * All instances share one configured ObjectMapper; each serde pre-builds an ObjectReader and
+ * ObjectWriter bound to its type so no per-record type resolution or String copies are needed.
  */
 public class JsonSerde<T> implements Serde<T> {
-    
-    private final ObjectMapper objectMapper;
+
+    private static final ObjectMapper SHARED_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
     private final Class<T> type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
 
     public JsonSerde(Class<T> type) {
+        this(SHARED_MAPPER, type);
+    }
+
+    public JsonSerde(ObjectMapper objectMapper, Class<T> type) {
         this.type = type;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+    }
+
+    /**
+     * The ObjectMapper shared by every JsonSerde created without an explicit mapper
+     */
+    public static ObjectMapper sharedMapper() {
+        return SHARED_MAPPER;
+    }
+
+    public Class<T> getType() {
+        return type;
     }
 
     @Override
     public Serializer<T> serializer() {
-        return new JsonSerializer<>(objectMapper);
+        return new JsonSerializer<>(writer);
     }
 
     @Override
     public Deserializer<T> deserializer() {
-        return new JsonDeserializer<>(objectMapper, type);
+        return new JsonDeserializer<>(reader);
     }
 
     public static class JsonSerializer<T> implements Serializer<T> {
-        private final ObjectMapper objectMapper;
+        private final ObjectWriter writer;
         private static final Logger logger = LoggerFactory.getLogger(JsonSerializer.class);
 
-        public JsonSerializer(ObjectMapper objectMapper) {
-            this.objectMapper = objectMapper;
+        public JsonSerializer(ObjectWriter writer) {
+            this.writer = writer;
         }
 
         @Override
@@ -56,12 +78,14 @@ public class JsonSerde<T> implements Serde<T> {
             if (data == null) {
                 return null;
             }
-            
+
             try {
-                String jsonString = objectMapper.writeValueAsString(data);
-                logger.debug("Serialized object to JSON: {}", jsonString);
-                return jsonString.getBytes();
-            } catch (JsonProcessingException e) {
+                byte[] bytes = writer.writeValueAsBytes(data);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Serialized object to JSON: {}", new String(bytes, StandardCharsets.UTF_8));
+                }
+                return bytes;
+            } catch (IOException e) {
                 logger.error("Error serializing object to JSON: {}", e.getMessage(), e);
                 throw new SerializationException("Error serializing object to JSON", e);
             }
@@ -74,13 +98,11 @@ public class JsonSerde<T> implements Serde<T> {
     }
 
     public static class JsonDeserializer<T> implements Deserializer<T> {
-        private final ObjectMapper objectMapper;
-        private final Class<T> type;
+        private final ObjectReader reader;
         private static final Logger logger = LoggerFactory.getLogger(JsonDeserializer.class);
 
-        public JsonDeserializer(ObjectMapper objectMapper, Class<T> type) {
-            this.objectMapper = objectMapper;
-            this.type = type;
+        public JsonDeserializer(ObjectReader reader) {
+            this.reader = reader;
         }
 
         @Override
@@ -93,12 +115,12 @@ public class JsonSerde<T> implements Serde<T> {
             if (data == null) {
                 return null;
             }
-            
+
             try {
-                String jsonString = new String(data);
-                logger.debug("Deserializing JSON string: {}", jsonString);
-                T result = objectMapper.readValue(jsonString, type);
-                logger.debug("Deserialized JSON to object: {}", result);
+                T result = reader.readValue(data);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Deserialized JSON to object: {}", result);
+                }
                 return result;
             } catch (IOException e) {
                 logger.error("Error deserializing JSON to object: {}", e.getMessage(), e);
@@ -111,4 +133,4 @@ public class JsonSerde<T> implements Serde<T> {
             // Nothing to close
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.example.kafkastream.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire encodings supported on Kafka topics
+ * The chosen format is advertised in the "content-type" record header so that
+ * JSON and binary producers can coexist on the same topic during a rollout
+ */
+public enum WireFormat {
+
+    JSON("application/json", JsonSerde.sharedMapper()),
+    SMILE("application/x-jackson-smile", new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule())),
+    CBOR("application/cbor", new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule()));
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private final String contentType;
+    private final byte[] contentTypeBytes;
+    private final ObjectMapper objectMapper;
+
+    WireFormat(String contentType, ObjectMapper objectMapper) {
+        this.contentType = contentType;
+        this.contentTypeBytes = contentType.getBytes(StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    byte[] getContentTypeBytes() {
+        return contentTypeBytes;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Resolve a format from its configuration name (json, smile, cbor)
+     */
+    public static WireFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Pick the format advertised in the record headers
+     * Records without a content-type header (legacy producers) are treated as JSON
+     */
+    public static WireFormat fromHeaders(Headers headers) {
+        if (headers == null) {
+            return JSON;
+        }
+        Header header = headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (header == null || header.value() == null) {
+            return JSON;
+        }
+        byte[] value = header.value();
+        for (WireFormat format : values()) {
+            if (Arrays.equals(format.contentTypeBytes, value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content-type header: " + new String(value, StandardCharsets.UTF_8));
+    }
+}
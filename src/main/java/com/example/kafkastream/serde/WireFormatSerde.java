@@ -0,0 +1,149 @@
+package com.example.kafkastream.serde;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Format-negotiating Serde for internal topics
+ * Writes records in the configured WireFormat and stamps the content-type header;
+ * reads records using the decoder selected by that header (JSON when absent)
+ */
+public class WireFormatSerde<T> implements Serde<T> {
+
+    private final Class<T> type;
+    private final WireFormat writeFormat;
+    private final Map<WireFormat, ObjectReader> readers = new EnumMap<>(WireFormat.class);
+    private final ObjectWriter writer;
+    private final ObjectWriter jsonWriter;
+
+    public WireFormatSerde(Class<T> type) {
+        this(type, WireFormat.JSON);
+    }
+
+    public WireFormatSerde(Class<T> type, WireFormat writeFormat) {
+        this.type = type;
+        this.writeFormat = writeFormat;
+        for (WireFormat format : WireFormat.values()) {
+            readers.put(format, format.getObjectMapper().readerFor(type));
+        }
+        this.writer = writeFormat.getObjectMapper().writerFor(type);
+        this.jsonWriter = WireFormat.JSON.getObjectMapper().writerFor(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public WireFormat getWriteFormat() {
+        return writeFormat;
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return new WireFormatSerializer<>(writeFormat, writer, jsonWriter);
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return new WireFormatDeserializer<>(readers);
+    }
+
+    public static class WireFormatSerializer<T> implements Serializer<T> {
+        private static final Logger logger = LoggerFactory.getLogger(WireFormatSerializer.class);
+
+        private final WireFormat format;
+        private final ObjectWriter writer;
+        private final ObjectWriter jsonWriter;
+
+        public WireFormatSerializer(WireFormat format, ObjectWriter writer, ObjectWriter jsonWriter) {
+            this.format = format;
+            this.writer = writer;
+            this.jsonWriter = jsonWriter;
+        }
+
+        /**
+         * Without headers the format cannot be advertised, so plain JSON is written
+         */
+        @Override
+        public byte[] serialize(String topic, T data) {
+            return write(jsonWriter, data);
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, T data) {
+            if (data == null) {
+                return null;
+            }
+            if (headers == null) {
+                return write(jsonWriter, data);
+            }
+            headers.remove(WireFormat.CONTENT_TYPE_HEADER);
+            headers.add(WireFormat.CONTENT_TYPE_HEADER, format.getContentTypeBytes());
+            return write(writer, data);
+        }
+
+        private byte[] write(ObjectWriter objectWriter, T data) {
+            if (data == null) {
+                return null;
+            }
+            try {
+                return objectWriter.writeValueAsBytes(data);
+            } catch (IOException e) {
+                logger.error("Error serializing object as {}: {}", format, e.getMessage(), e);
+                throw new SerializationException("Error serializing object as " + format, e);
+            }
+        }
+    }
+
+    public static class WireFormatDeserializer<T> implements Deserializer<T> {
+        private static final Logger logger = LoggerFactory.getLogger(WireFormatDeserializer.class);
+
+        private final Map<WireFormat, ObjectReader> readers;
+
+        public WireFormatDeserializer(Map<WireFormat, ObjectReader> readers) {
+            this.readers = readers;
+        }
+
+        @Override
+        public T deserialize(String topic, byte[] data) {
+            return read(WireFormat.JSON, data);
+        }
+
+        @Override
+        public T deserialize(String topic, Headers headers, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            WireFormat format;
+            try {
+                format = WireFormat.fromHeaders(headers);
+            } catch (IllegalArgumentException e) {
+                throw new SerializationException(e.getMessage(), e);
+            }
+            return read(format, data);
+        }
+
+        private T read(WireFormat format, byte[] data) {
+            if (data == null) {
+                return null;
+            }
+            try {
+                return readers.get(format).readValue(data);
+            } catch (IOException e) {
+                logger.error("Error deserializing {} to object: {}", format, e.getMessage(), e);
+                throw new SerializationException("Error deserializing " + format + " to object", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.kafkastream.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of which event IDs have an original event
+ * Present IDs are written when an original event is saved and kept for the TTL; IDs the database
+ * does not know are cached as absent for the shorter negative TTL, so records without an original
+ * don't cost a query each. Hit, miss, size and eviction meters are published as "cache.*" with
+ * tag cache=original-event-correlation.
+ */
+public class CorrelationCache {
+
+    public static final String NAME = "original-event-correlation";
+
+    private final Cache<String, Boolean> cache;
+
+    public CorrelationCache(long maximumSize, Duration ttl, Duration negativeTtl, MeterRegistry registry) {
+        this(maximumSize, ttl, negativeTtl, registry, Ticker.systemTicker());
+    }
+
+    CorrelationCache(long maximumSize, Duration ttl, Duration negativeTtl, MeterRegistry registry, Ticker ticker) {
+        long ttlNanos = ttl.toNanos();
+        long negativeTtlNanos = negativeTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<String, Boolean>writing((eventId, present) -> Duration.ofNanos(present ? ttlNanos : negativeTtlNanos)))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    /**
+     * @return true or false if the ID is cached as present or absent, null on a miss
+     */
+    public Boolean get(String eventId) {
+        return cache.getIfPresent(eventId);
+    }
+
+    public void putPresent(String eventId) {
+        cache.put(eventId, Boolean.TRUE);
+    }
+
+    public void putAbsent(String eventId) {
+        cache.put(eventId, Boolean.FALSE);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
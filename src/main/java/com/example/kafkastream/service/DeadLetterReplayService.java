@@ -0,0 +1,153 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.dlq.DeadLetterHeaders;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Re-publishes dead-letter records to the topic named in their dlq-replay-topic header
+ * Replay progress is committed under a dedicated consumer group, so each dead-letter record
+ * is replayed once; records without a replay target (values that could not be encoded) are
+ * skipped and counted. Dead-letter headers are removed from the re-published record.
+ */
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${app.kafka.dlq.topic-suffix:-dlq}")
+    private String topicSuffix;
+
+    // One replay at a time; a lock rather than synchronized, so a virtual request thread blocked on
+    // the broker doesn't pin its carrier
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    /**
+     * Replay up to maxRecords pending records from a dead-letter topic
+     * @param deadLetterTopic Topic ending with the configured dead-letter suffix
+     * @param maxRecords Upper bound on records read in this call
+     * @return Counts of replayed and skipped records
+     */
+    public ReplayResult replay(String deadLetterTopic, int maxRecords) {
+        replayLock.lock();
+        try {
+            return replayLocked(deadLetterTopic, maxRecords);
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    private ReplayResult replayLocked(String deadLetterTopic, int maxRecords) {
+        if (deadLetterTopic == null || !deadLetterTopic.endsWith(topicSuffix)) {
+            throw new IllegalArgumentException("Not a dead-letter topic: " + deadLetterTopic);
+        }
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("maxRecords must be positive: " + maxRecords);
+        }
+
+        int replayed = 0;
+        int skipped = 0;
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerConfigs(maxRecords));
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerConfigs())) {
+            consumer.subscribe(List.of(deadLetterTopic));
+
+            while (replayed + skipped < maxRecords) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<Future<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (replayed + skipped >= maxRecords) {
+                        break;
+                    }
+                    String replayTopic = DeadLetterHeaders.value(record.headers(), DeadLetterHeaders.REPLAY_TOPIC);
+                    if (replayTopic == null || record.value() == null) {
+                        logger.warn("Skipping dead-letter record without replay target: topic={}, partition={}, offset={}",
+                                record.topic(), record.partition(), record.offset());
+                        skipped++;
+                    } else {
+                        sends.add(producer.send(new ProducerRecord<>(replayTopic, null, record.key(), record.value(),
+                                DeadLetterHeaders.stripped(record.headers()))));
+                        replayed++;
+                    }
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+
+                // Only move the replay group forward once every re-published record is acknowledged
+                for (Future<?> send : sends) {
+                    send.get();
+                }
+                consumer.commitSync(offsets);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay " + deadLetterTopic + ": " + e.getCause().getMessage(), e);
+        }
+
+        logger.info("Replayed dead-letter topic {}: replayed={}, skipped={}", deadLetterTopic, replayed, skipped);
+        return new ReplayResult(deadLetterTopic, replayed, skipped);
+    }
+
+    private Map<String, Object> consumerConfigs(int maxRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-dlq-replay");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxRecords);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private Map<String, Object> producerConfigs() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return props;
+    }
+
+    /**
+     * Outcome of one replay call
+     */
+    public record ReplayResult(String topic, int replayed, int skipped) {}
+}
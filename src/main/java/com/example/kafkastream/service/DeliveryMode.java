@@ -0,0 +1,45 @@
+package com.example.kafkastream.service;
+
+import java.util.Locale;
+
+/**
+ * How long a publish waits before it is reported, set through the producer's acks
+ * The endpoints answer when the producer completes the send, without holding a request thread
+ * while they wait; in OUTBOX mode they answer once the event is committed to the database, and
+ * the outbox relay sends it later.
+ */
+public enum DeliveryMode {
+
+    /** acks=0: the broker sends no acknowledgement; complete once the record has been written to the socket */
+    FIRE_AND_FORGET("0"),
+    /** acks=1: complete once the partition leader has written the record */
+    LEADER("1"),
+    /** acks=all: complete once every in-sync replica has the record */
+    ALL("all"),
+    /** Committed to the outbox with the original event; the relay publishes it with acks=all and idempotence */
+    OUTBOX("all");
+
+    private final String acks;
+
+    DeliveryMode(String acks) {
+        this.acks = acks;
+    }
+
+    /**
+     * Value of the producer's acks setting
+     */
+    public String acks() {
+        return acks;
+    }
+
+    /**
+     * Whether completion means the broker has the record
+     */
+    public boolean acknowledged() {
+        return this != FIRE_AND_FORGET && this != OUTBOX;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
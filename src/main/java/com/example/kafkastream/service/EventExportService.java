@@ -0,0 +1,87 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.repository.OriginalEventRepository;
+import com.example.kafkastream.repository.ProcessedEventRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as newline-delimited JSON, one entity per line
+ * Rows come from a forward-only database cursor and each entity is detached once written, so
+ * memory stays flat however many rows are exported. The caller owns the output stream (and any
+ * compression around it); it is not closed here.
+ */
+@Service
+@Transactional(readOnly = true)
+public class EventExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventExportService.class);
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final OriginalEventRepository originalEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    // Flushing is left to the generator's buffer instead of once per row
+    private final ObjectWriter writer;
+
+    public EventExportService(ProcessedEventRepository processedEventRepository,
+                              OriginalEventRepository originalEventRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper) {
+        this.processedEventRepository = processedEventRepository;
+        this.originalEventRepository = originalEventRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return the number of processed events written
+     */
+    public long exportProcessedEvents(OutputStream out) throws IOException {
+        try (Stream<?> events = processedEventRepository.streamAll()) {
+            long count = write(events, out);
+            logger.info("Exported {} processed events", count);
+            return count;
+        }
+    }
+
+    /**
+     * @return the number of original events written
+     */
+    public long exportOriginalEvents(OutputStream out) throws IOException {
+        try (Stream<?> events = originalEventRepository.streamAll()) {
+            long count = write(events, out);
+            logger.info("Exported {} original events", count);
+            return count;
+        }
+    }
+
+    private long write(Stream<?> events, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are ended explicitly; the default separator would put a space before every line but the first
+            generator.setRootValueSeparator(null);
+            for (Iterator<?> it = events.iterator(); it.hasNext(); count++) {
+                Object event = it.next();
+                writer.writeValue(generator, event);
+                generator.writeRaw('\n');
+                entityManager.detach(event);
+            }
+        }
+        return count;
+    }
+}
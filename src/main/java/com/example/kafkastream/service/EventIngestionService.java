@@ -0,0 +1,350 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.model.OutboxMessage;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Publishes the events received over REST: each one is saved as an OriginalEvent for correlation,
+ * then sent with the trace headers
+ * An event is serialized once; the same UTF-8 JSON is stored as the original data and sent as the
+ * record value through the byte-array producer.
+ * Bulk requests are parsed as a stream, save all their original events in one transaction with
+ * JDBC-batched inserts, send every record before waiting for any, and then wait once for all the
+ * broker acknowledgements, so n events cost one transaction and about one produce round trip.
+ * Both paths return futures completed by the producer's acknowledgements under the requested
+ * DeliveryMode; nothing here blocks on the broker except the producer's own metadata and buffer
+ * waits (max.block.ms). In OUTBOX mode nothing is sent: the original events and their records are
+ * written to the outbox in one transaction and the futures are already complete.
+ */
+public class EventIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventIngestionService.class);
+
+    public static final String ACK_METER = "ingest.ack";
+
+    /**
+     * An event ready to publish
+     * @param eventType original event type, e.g. SimpleEvent
+     * @param useCase   trace use case of the topic's pipeline
+     * @param value     the DTO, serialized as the record value
+     */
+    public record Event(String eventType, String topic, String useCase, String key, Object value) {
+    }
+
+    public enum Status {
+        PUBLISHED,
+        // The item could not be turned into an event; nothing was saved or sent
+        INVALID,
+        // The original event could not be saved; nothing was sent
+        NOT_SAVED,
+        SEND_FAILED,
+        // Sent, but not acknowledged within the ack timeout; it may still be delivered
+        UNCONFIRMED,
+        // Saved with its outbox record; the outbox relay publishes it
+        QUEUED
+    }
+
+    /**
+     * Outcome of one item of a bulk request
+     * @param index position of the item in the request
+     */
+    public record Result(int index, Status status, String key, String correlationId, Long originalEventId, String message) {
+    }
+
+    /**
+     * Outcome of a single-event publish; the original event is saved either way
+     * @param metadata where the record was written, null if the send failed or was left to the outbox
+     * @param ackNanos send to completion, or to the failure; in OUTBOX mode the outbox transaction
+     * @param failure  the send error, a TimeoutException past the ack timeout, or null
+     */
+    public record Delivery(OriginalEvent originalEvent, DeliveryMode mode, RecordMetadata metadata, long ackNanos,
+                           Throwable failure) {
+    }
+
+    private record AckTimerKey(DeliveryMode mode, String topic, boolean failed) {
+    }
+
+    private final Map<DeliveryMode, KafkaTemplate<String, byte[]>> kafkaTemplates;
+    private final OriginalEventService originalEventService;
+    private final EventOutbox eventOutbox;
+    private final ObjectMapper objectMapper;
+    private final TraceLatencyRecorder traceLatency;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<AckTimerKey, Timer> ackTimers = new ConcurrentHashMap<>();
+    private final int maxEvents;
+    private final Duration ackTimeout;
+
+    /**
+     * @param kafkaTemplates one per delivery mode but OUTBOX, each on a producer with that mode's acks
+     * @param ackTimeout     how long a request waits for its sends to complete
+     */
+    public EventIngestionService(Map<DeliveryMode, KafkaTemplate<String, byte[]>> kafkaTemplates,
+                                 OriginalEventService originalEventService, EventOutbox eventOutbox,
+                                 ObjectMapper objectMapper, TraceLatencyRecorder traceLatency,
+                                 MeterRegistry meterRegistry, int maxEvents, Duration ackTimeout) {
+        this.kafkaTemplates = Map.copyOf(kafkaTemplates);
+        this.originalEventService = originalEventService;
+        this.eventOutbox = eventOutbox;
+        this.objectMapper = objectMapper;
+        this.traceLatency = traceLatency;
+        this.meterRegistry = meterRegistry;
+        this.maxEvents = maxEvents;
+        this.ackTimeout = ackTimeout;
+    }
+
+    /**
+     * Save one event and send it, or save it with its outbox record
+     * @return completed once the send completes under the mode, fails, or times out; never exceptionally
+     * @throws IOException if the event can't be serialized; nothing is saved or sent then
+     */
+    public CompletableFuture<Delivery> ingest(Event event, DeliveryMode mode) throws IOException {
+        long ingestNanos = TraceHeaders.epochNanos();
+        byte[] value = objectMapper.writeValueAsBytes(event.value());
+        OriginalEvent originalEvent = originalEvent(event, value);
+        if (mode == DeliveryMode.OUTBOX) {
+            long enqueueNanos = System.nanoTime();
+            eventOutbox.enqueue(originalEvent, outboxMessage(event, value, originalEvent, ingestNanos));
+            return CompletableFuture.completedFuture(new Delivery(originalEvent, mode, null, System.nanoTime() - enqueueNanos, null));
+        }
+        originalEventService.saveOriginalEvent(originalEvent);
+
+        long sendNanos = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> sent;
+        try {
+            sent = publish(event.topic(), event.key(), value, event.useCase(), mode, originalEvent.getCorrelationId(), ingestNanos);
+        } catch (RuntimeException e) {
+            logger.error("Error sending {} to {}", event.eventType(), event.topic(), e);
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.orTimeout(ackTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, ex) -> new Delivery(originalEvent, mode, ex == null ? result.getRecordMetadata() : null,
+                        System.nanoTime() - sendNanos, ex == null ? null : cause(ex)));
+    }
+
+    private static OriginalEvent originalEvent(Event event, byte[] value) {
+        OriginalEvent originalEvent = new OriginalEvent(event.key(), event.eventType(), event.topic(),
+                new String(value, StandardCharsets.UTF_8));
+        originalEvent.setCorrelationId(UUID.randomUUID().toString());
+        return originalEvent;
+    }
+
+    private static OutboxMessage outboxMessage(Event event, byte[] value, OriginalEvent originalEvent, long ingestNanos) {
+        return new OutboxMessage(event.topic(), event.key(), value, event.useCase(), originalEvent.getCorrelationId(), ingestNanos);
+    }
+
+    /**
+     * Publish a record carrying the trace headers
+     * Time from send to completion goes to the ingest.ack timer (tags mode, topic, outcome); a
+     * broker acknowledgement is also recorded as the use case's first trace stage.
+     * @param value the serialized event, sent as is
+     */
+    public CompletableFuture<SendResult<String, byte[]>> publish(String topic, String key, byte[] value, String useCase,
+                                                                 DeliveryMode mode, String correlationId, long ingestNanos) {
+        if (!kafkaTemplates.containsKey(mode)) {
+            throw new IllegalArgumentException("No producer for delivery mode " + mode);
+        }
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, value);
+        TraceHeaders.start(record.headers(), correlationId, ingestNanos);
+        long sendNanos = System.nanoTime();
+        return kafkaTemplates.get(mode).send(record).whenComplete((result, ex) -> {
+            ackTimer(mode, topic, ex != null).record(System.nanoTime() - sendNanos, TimeUnit.NANOSECONDS);
+            if (ex == null && mode.acknowledged()) {
+                traceLatency.record(useCase, TraceLatencyRecorder.Stage.BROKER_ACK, TraceHeaders.epochNanos() - ingestNanos);
+            }
+        });
+    }
+
+    private Timer ackTimer(DeliveryMode mode, String topic, boolean failed) {
+        return ackTimers.computeIfAbsent(new AckTimerKey(mode, topic, failed), key -> Timer.builder(ACK_METER)
+                .description("Time from handing a published event to the producer to its send completing")
+                .tags("mode", mode.tag(), "topic", topic, "outcome", failed ? "failure" : "success")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry));
+    }
+
+    private static final class Pending {
+        final int index;
+        final Event event;
+        final byte[] value;
+        final OriginalEvent originalEvent;
+        CompletableFuture<?> ack;
+
+        Pending(int index, Event event, byte[] value) {
+            this.index = index;
+            this.event = event;
+            this.value = value;
+            this.originalEvent = originalEvent(event, value);
+        }
+    }
+
+    /**
+     * Publish every item of a JSON array or of newline-delimited JSON objects
+     * The body is read and the original events saved before returning; the future completes once
+     * every send has completed or the ack timeout has passed, or at once in OUTBOX mode.
+     * @param type      DTO each item is bound to; items that don't bind are reported as INVALID
+     * @param converter turns one item into an event; items it throws on are reported as INVALID
+     * @return one result per item, in request order
+     * @throws IOException if the body is not a sequence of JSON values; nothing is saved or sent then
+     * @throws IllegalArgumentException if the body has more than maxEvents items
+     */
+    public <T> CompletableFuture<List<Result>> ingestAll(InputStream body, Class<T> type, Function<T, Event> converter,
+                                                         DeliveryMode mode) throws IOException {
+        long ingestNanos = TraceHeaders.epochNanos();
+        List<Result> results = new ArrayList<>();
+        List<Pending> pending = new ArrayList<>();
+        // A root-level array is unwrapped, so both formats are read as a sequence of values
+        try (MappingIterator<T> items = objectMapper.readerFor(type).readValues(body)) {
+            for (int index = 0; items.hasNextValue(); index++) {
+                if (index == maxEvents) {
+                    throw new IllegalArgumentException("A bulk request carries at most " + maxEvents + " events");
+                }
+                try {
+                    // After a binding error the iterator skips the rest of the item; syntax errors end the request
+                    Event event = converter.apply(items.nextValue());
+                    pending.add(new Pending(index, event, objectMapper.writeValueAsBytes(event.value())));
+                } catch (DatabindException e) {
+                    results.add(new Result(index, Status.INVALID, null, null, null, e.getOriginalMessage()));
+                } catch (RuntimeException e) {
+                    results.add(new Result(index, Status.INVALID, null, null, null, e.getMessage()));
+                }
+            }
+        }
+
+        List<Pending> saved = save(pending, results, mode, ingestNanos);
+        if (mode == DeliveryMode.OUTBOX) {
+            for (Pending item : saved) {
+                results.add(new Result(item.index, Status.QUEUED, item.event.key(), item.originalEvent.getCorrelationId(),
+                        item.originalEvent.getId(), null));
+            }
+            results.sort(Comparator.comparingInt(Result::index));
+            logger.info("Bulk request of {} events: {} queued", results.size(), saved.size());
+            return CompletableFuture.completedFuture(results);
+        }
+        send(saved, mode, ingestNanos);
+        return CompletableFuture.allOf(saved.stream().map(item -> item.ack).toArray(CompletableFuture[]::new))
+                // Failures are reported per event
+                .exceptionally(ex -> null)
+                .completeOnTimeout(null, ackTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(done -> {
+                    for (Pending item : saved) {
+                        results.add(result(item));
+                    }
+                    results.sort(Comparator.comparingInt(Result::index));
+                    logger.info("Bulk request of {} events: {} published", results.size(),
+                            results.stream().filter(result -> result.status() == Status.PUBLISHED).count());
+                    return results;
+                });
+    }
+
+    /**
+     * One transaction for all; if it fails, each event is saved in its own so that only the
+     * offending ones (e.g. a duplicate event id) are left out
+     * In OUTBOX mode every transaction also writes the events' outbox records.
+     */
+    private List<Pending> save(List<Pending> pending, List<Result> results, DeliveryMode mode, long ingestNanos) {
+        if (pending.isEmpty()) {
+            return pending;
+        }
+        try {
+            List<OriginalEvent> originalEvents = pending.stream().map(item -> item.originalEvent).toList();
+            if (mode == DeliveryMode.OUTBOX) {
+                eventOutbox.enqueue(originalEvents, pending.stream()
+                        .map(item -> outboxMessage(item.event, item.value, item.originalEvent, ingestNanos))
+                        .toList());
+            } else {
+                originalEventService.saveOriginalEvents(originalEvents);
+            }
+            return pending;
+        } catch (Exception e) {
+            logger.warn("Batch insert of {} original events failed, saving them one by one: {}", pending.size(), e.getMessage());
+        }
+        List<Pending> saved = new ArrayList<>();
+        for (Pending item : pending) {
+            item.originalEvent.setId(null);
+            try {
+                if (mode == DeliveryMode.OUTBOX) {
+                    eventOutbox.enqueue(item.originalEvent, outboxMessage(item.event, item.value, item.originalEvent, ingestNanos));
+                } else {
+                    originalEventService.saveOriginalEvent(item.originalEvent);
+                }
+                saved.add(item);
+            } catch (Exception e) {
+                results.add(new Result(item.index, Status.NOT_SAVED, item.event.key(), item.originalEvent.getCorrelationId(),
+                        null, e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Hands every record to the producer before waiting for any acknowledgement; once a send fails
+     * before returning (no metadata, buffer full for max.block.ms), the rest would block the same
+     * way and are failed with it
+     */
+    private void send(List<Pending> saved, DeliveryMode mode, long ingestNanos) {
+        RuntimeException sendFailure = null;
+        for (Pending item : saved) {
+            if (sendFailure == null) {
+                try {
+                    item.ack = publish(item.event.topic(), item.event.key(), item.value, item.event.useCase(), mode,
+                            item.originalEvent.getCorrelationId(), ingestNanos);
+                    continue;
+                } catch (RuntimeException e) {
+                    logger.error("Error sending bulk events to {}", item.event.topic(), e);
+                    sendFailure = e;
+                }
+            }
+            item.ack = CompletableFuture.failedFuture(sendFailure);
+        }
+    }
+
+    private Result result(Pending item) {
+        String key = item.event.key();
+        String correlationId = item.originalEvent.getCorrelationId();
+        Long originalEventId = item.originalEvent.getId();
+        if (!item.ack.isDone()) {
+            return new Result(item.index, Status.UNCONFIRMED, key, correlationId, originalEventId,
+                    "No broker acknowledgement within " + ackTimeout);
+        }
+        try {
+            item.ack.join();
+            return new Result(item.index, Status.PUBLISHED, key, correlationId, originalEventId, null);
+        } catch (Exception e) {
+            return new Result(item.index, Status.SEND_FAILED, key, correlationId, originalEventId, cause(e).getMessage());
+        }
+    }
+
+    private static Throwable cause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
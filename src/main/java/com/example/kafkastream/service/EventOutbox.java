@@ -0,0 +1,41 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.model.OutboxMessage;
+import com.example.kafkastream.repository.OutboxMessageRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes original events together with the records that publish them
+ * Both are inserted in one local transaction, so an event is either saved and queued for the
+ * outbox relay, or neither; nothing talks to Kafka here.
+ */
+@Service
+public class EventOutbox {
+
+    private final OriginalEventService originalEventService;
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    public EventOutbox(OriginalEventService originalEventService, OutboxMessageRepository outboxMessageRepository) {
+        this.originalEventService = originalEventService;
+        this.outboxMessageRepository = outboxMessageRepository;
+    }
+
+    @Transactional
+    public void enqueue(OriginalEvent originalEvent, OutboxMessage message) {
+        originalEventService.saveOriginalEvent(originalEvent);
+        outboxMessageRepository.save(message);
+    }
+
+    /**
+     * Inserts are sent in JDBC batches
+     */
+    @Transactional
+    public void enqueue(List<OriginalEvent> originalEvents, List<OutboxMessage> messages) {
+        originalEventService.saveOriginalEvents(originalEvents);
+        outboxMessageRepository.saveAll(messages);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.repository.EventCursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of events, newest first
+ * @param next cursor of the following page, or null if this is the last one
+ */
+public record EventPage<T>(List<T> events, EventCursor next) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+    }
+
+    /**
+     * @param rows up to limit + 1 rows; the extra one only tells that another page exists
+     */
+    static <T> EventPage<T> of(List<T> rows, int limit, Function<T, EventCursor> cursor) {
+        if (rows.size() <= limit) {
+            return new EventPage<>(rows, null);
+        }
+        List<T> events = rows.subList(0, limit);
+        return new EventPage<>(events, cursor.apply(events.get(limit - 1)));
+    }
+}
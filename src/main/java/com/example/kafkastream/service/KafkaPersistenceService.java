@@ -1,33 +1,57 @@
 package com.example.kafkastream.service;
 
+import com.example.kafkastream.config.KafkaStreamsConfig;
 import com.example.kafkastream.dto.GenericAction;
 import com.example.kafkastream.dto.NewFormatEvent;
 import com.example.kafkastream.dto.SimpleEvent;
 import com.example.kafkastream.dto.CreateChatEvent;
 import com.example.kafkastream.dto.CreateMessageEvent;
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.logging.StageLogger;
+import com.example.kafkastream.metrics.NodeMeters;
+import com.example.kafkastream.metrics.PipelineMetrics;
 import com.example.kafkastream.model.ProcessedEvent;
-import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.trace.PipelineTrace;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Kafka Listener Service that consumes from output topics and persists results to H2 database
  * This service closes the loop by consuming the processed events from Kafka Streams
- * and storing them in the database for later retrieval via REST API
+ * and storing them in the database for later retrieval via REST API.
+ * Listeners receive each poll as a batch (app.kafka.consumer.max-poll-records) and hand it to the
+ * write-behind ProcessedEventWriter; offsets are acknowledged once the batch's rows are committed.
  */
 @Service
 public class KafkaPersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaPersistenceService.class);
 
-    private final ProcessedEventService processedEventService;
+    /** Listener container ids, paused and resumed by the write-behind stage */
+    public static final String TRANSFORMED = "persist-transformed";
+    public static final String JSON_CONVERTED = "persist-json-converted";
+    public static final String ACTION_A = "persist-action-a";
+    public static final String ACTION_B = "persist-action-b";
+    public static final String CREATE_CHAT = "persist-create-chat";
+    public static final String CREATE_MESSAGE = "persist-create-message";
+    public static final List<String> LISTENER_IDS = List.of(TRANSFORMED, JSON_CONVERTED, ACTION_A, ACTION_B, CREATE_CHAT, CREATE_MESSAGE);
+
     private final OriginalEventService originalEventService;
+    private final ProcessedEventWriter writer;
 
     @Value("${app.kafka.topics.output-topic-transformed}")
     private String outputTopicTransformed;
@@ -47,244 +71,180 @@ public class KafkaPersistenceService {
     @Value("${app.kafka.topics.create-message-topic}")
     private String createMessageTopic;
 
-    public KafkaPersistenceService(ProcessedEventService processedEventService, OriginalEventService originalEventService) {
-        this.processedEventService = processedEventService;
+    private final PersistenceStage transformed;
+    private final PersistenceStage jsonConverted;
+    private final PersistenceStage actionA;
+    private final PersistenceStage actionB;
+    private final PersistenceStage createChat;
+    private final PersistenceStage createMessage;
+
+    public KafkaPersistenceService(OriginalEventService originalEventService, ProcessedEventWriter writer,
+                                   StageLogRegistry stageLogs, PipelineMetrics metrics,
+                                   TraceLatencyRecorder traceLatency) {
         this.originalEventService = originalEventService;
+        this.writer = writer;
+        this.transformed = PersistenceStage.of(TRANSFORMED, KafkaStreamsConfig.CONTENT_TRANSFORMATION, stageLogs, metrics, traceLatency);
+        this.jsonConverted = PersistenceStage.of(JSON_CONVERTED, KafkaStreamsConfig.SCHEMA_CONVERSION, stageLogs, metrics, traceLatency);
+        this.actionA = PersistenceStage.of(ACTION_A, KafkaStreamsConfig.ACTION_ROUTING, stageLogs, metrics, traceLatency);
+        this.actionB = PersistenceStage.of(ACTION_B, KafkaStreamsConfig.ACTION_ROUTING, stageLogs, metrics, traceLatency);
+        this.createChat = PersistenceStage.of(CREATE_CHAT, KafkaStreamsConfig.INBOUND_MESSAGE, stageLogs, metrics, traceLatency);
+        this.createMessage = PersistenceStage.of(CREATE_MESSAGE, KafkaStreamsConfig.INBOUND_MESSAGE, stageLogs, metrics, traceLatency);
     }
 
     /**
      * Consume from output-topic-transformed (Use Case 1: Content Transformation)
      */
-    @KafkaListener(topics = "${app.kafka.topics.output-topic-transformed}", 
+    @KafkaListener(id = TRANSFORMED, topics = "${app.kafka.topics.output-topic-transformed}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "simpleEventKafkaListenerContainerFactory")
-    public void consumeTransformedEvents(@Payload SimpleEvent event,
-                                       @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            logger.info("Received transformed SimpleEvent (JSON) - Topic: {}, Key: {}, ID: {}, Payload: {}", 
-                       topic, key, event.getId(), event.getPayload());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("SimpleEvent{id=%s, payload=%s, timestamp=%d}", 
-                                                event.getId(), event.getPayload(), event.getTimestamp());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "SIMPLE_EVENT_TRANSFORMED",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted transformed SimpleEvent with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
-        } catch (Exception e) {
-            logger.error("Error processing transformed SimpleEvent from topic: {}, event: {}", topic, event, e);
-        }
+    public void consumeTransformedEvents(List<ConsumerRecord<String, SimpleEvent>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, transformed, "SIMPLE_EVENT_TRANSFORMED",
+                // Convert DTO object to string representation for storage
+                event -> String.format("SimpleEvent{id=%s, payload=%s, timestamp=%d}", 
+                                       event.getId(), event.getPayload(), event.getTimestamp()));
     }
 
     /**
      * Consume from output-topic-json-converted (Use Case 2: JSON Schema Conversion)
      */
-    @KafkaListener(topics = "${app.kafka.topics.output-topic-json-converted}", 
+    @KafkaListener(id = JSON_CONVERTED, topics = "${app.kafka.topics.output-topic-json-converted}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "newFormatEventKafkaListenerContainerFactory")
-    public void consumeJsonConvertedEvents(@Payload NewFormatEvent event,
-                                         @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                         @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            logger.info("Received JSON converted NewFormatEvent (JSON) - Topic: {}, Key: {}, NewFieldName: {}, Data: {}", 
-                       topic, key, event.getNewFieldName(), event.getData());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("NewFormatEvent{newFieldName=%s, convertedAt=%d, data=%s}", 
-                                                event.getNewFieldName(), event.getConvertedAt(), event.getData());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "LEGACY_EVENT_CONVERTED",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted JSON converted NewFormatEvent with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
-        } catch (Exception e) {
-            logger.error("Error processing JSON converted NewFormatEvent from topic: {}, event: {}", topic, event, e);
-        }
+    public void consumeJsonConvertedEvents(List<ConsumerRecord<String, NewFormatEvent>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, jsonConverted, "LEGACY_EVENT_CONVERTED",
+                event -> String.format("NewFormatEvent{newFieldName=%s, convertedAt=%d, data=%s}", 
+                                       event.getNewFieldName(), event.getConvertedAt(), event.getData()));
     }
 
     /**
      * Consume from output-topic-action-a (Use Case 3: Action Type A)
      */
-    @KafkaListener(topics = "${app.kafka.topics.output-topic-action-a}", 
+    @KafkaListener(id = ACTION_A, topics = "${app.kafka.topics.output-topic-action-a}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "genericActionKafkaListenerContainerFactory")
-    public void consumeActionAEvents(@Payload GenericAction event,
-                                   @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            logger.info("Received Action A GenericAction (JSON) - Topic: {}, Key: {}, ActionType: {}, Details: {}", 
-                       topic, key, event.getActionType(), event.getDetails());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("GenericAction{actionType=%s, details=%s}", 
-                                                event.getActionType(), event.getDetails());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "GENERIC_ACTION_TYPE_A",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted Action A GenericAction with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
-        } catch (Exception e) {
-            logger.error("Error processing Action A GenericAction from topic: {}, event: {}", topic, event, e);
-        }
+    public void consumeActionAEvents(List<ConsumerRecord<String, GenericAction>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, actionA, "GENERIC_ACTION_TYPE_A",
+                event -> String.format("GenericAction{actionType=%s, details=%s}", 
+                                       event.getActionType(), event.getDetails()));
     }
 
     /**
      * Consume from output-topic-action-b (Use Case 3: Action Type B)
      */
-    @KafkaListener(topics = "${app.kafka.topics.output-topic-action-b}", 
+    @KafkaListener(id = ACTION_B, topics = "${app.kafka.topics.output-topic-action-b}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "genericActionKafkaListenerContainerFactory")
-    public void consumeActionBEvents(@Payload GenericAction event,
-                                   @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            logger.info("Received Action B GenericAction (JSON) - Topic: {}, Key: {}, ActionType: {}, Details: {}", 
-                       topic, key, event.getActionType(), event.getDetails());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("GenericAction{actionType=%s, details=%s}", 
-                                                event.getActionType(), event.getDetails());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "GENERIC_ACTION_TYPE_B",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted Action B GenericAction with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
-        } catch (Exception e) {
-            logger.error("Error processing Action B GenericAction from topic: {}, event: {}", topic, event, e);
-        }
+    public void consumeActionBEvents(List<ConsumerRecord<String, GenericAction>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, actionB, "GENERIC_ACTION_TYPE_B",
+                event -> String.format("GenericAction{actionType=%s, details=%s}", 
+                                       event.getActionType(), event.getDetails()));
     }
 
     /**
      * Consume from create-chat-topic (Use Case 4: Create Chat Events)
      */
-    @KafkaListener(topics = "${app.kafka.topics.create-chat-topic}", 
+    @KafkaListener(id = CREATE_CHAT, topics = "${app.kafka.topics.create-chat-topic}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "createChatEventKafkaListenerContainerFactory")
-    public void consumeCreateChatEvents(@Payload CreateChatEvent event,
-                                      @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                      @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            logger.info("Received CreateChatEvent (JSON) - Topic: {}, Key: {}, ChatId: {}, UserName: {}, UserPhone: {}", 
-                       topic, key, event.getChatId(), event.getUserName(), event.getUserPhone());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("CreateChatEvent{chatId=%s, userName=%s, userPhone=%s, countryCode=%s, dialCode=%s, createdAt=%d}", 
-                                                event.getChatId(), event.getUserName(), event.getUserPhone(), 
-                                                event.getCountryCode(), event.getDialCode(), event.getCreatedAt());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "CREATE_CHAT_EVENT",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted CreateChatEvent with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
-        } catch (Exception e) {
-            logger.error("Error processing CreateChatEvent from topic: {}, event: {}", topic, event, e);
-        }
+    public void consumeCreateChatEvents(List<ConsumerRecord<String, CreateChatEvent>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, createChat, "CREATE_CHAT_EVENT",
+                event -> String.format("CreateChatEvent{chatId=%s, userName=%s, userPhone=%s, countryCode=%s, dialCode=%s, createdAt=%d}", 
+                                       event.getChatId(), event.getUserName(), event.getUserPhone(), 
+                                       event.getCountryCode(), event.getDialCode(), event.getCreatedAt()));
     }
 
     /**
      * Consume from create-message-topic (Use Case 4: Create Message Events)
      */
-    @KafkaListener(topics = "${app.kafka.topics.create-message-topic}", 
+    @KafkaListener(id = CREATE_MESSAGE, topics = "${app.kafka.topics.create-message-topic}", 
                    groupId = "${spring.kafka.consumer.group-id}",
                    containerFactory = "createMessageEventKafkaListenerContainerFactory")
-    public void consumeCreateMessageEvents(@Payload CreateMessageEvent event,
-                                         @Header(KafkaHeaders.RECEIVED_KEY) String key,
-                                         @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+    public void consumeCreateMessageEvents(List<ConsumerRecord<String, CreateMessageEvent>> records, Acknowledgment acknowledgment) {
+        persistBatch(records, acknowledgment, createMessage, "CREATE_MESSAGE_EVENT",
+                event -> String.format("CreateMessageEvent{messageId=%s, senderPhone=%s, chatId=%s, messageType=%s, content=%s, timestamp=%d}", 
+                                       event.getMessageId(), event.getSenderPhone(), event.getChatId(), 
+                                       event.getMessageType(), event.getContent(), event.getTimestamp()));
+    }
+
+    /**
+     * Hand one poll's worth of records to the write-behind stage
+     * Links to original events are resolved with one query on the consumer thread; the rows are
+     * inserted by the writer, which acknowledges the batch once they are committed. A failed lookup
+     * leaves the rows unlinked rather than acknowledging records that were never written.
+     */
+    <T> void persistBatch(List<ConsumerRecord<String, T>> records, Acknowledgment acknowledgment, PersistenceStage stage,
+                          String eventType, Function<T, String> describe) {
+        long receivedNanos = TraceHeaders.epochNanos();
+        Set<String> originalEventIds;
         try {
-            logger.info("Received CreateMessageEvent (JSON) - Topic: {}, Key: {}, MessageId: {}, ChatId: {}, Content: {}", 
-                       topic, key, event.getMessageId(), event.getChatId(), event.getContent());
-            
-            // Find the original event by key to link them
-            String originalEventId = originalEventService.getOriginalEventByEventId(key)
-                .map(OriginalEvent::getEventId)
-                .orElse(null);
-            
-            // Convert DTO object to string representation for storage
-            String eventMessage = String.format("CreateMessageEvent{messageId=%s, senderPhone=%s, chatId=%s, messageType=%s, content=%s, timestamp=%d}", 
-                                                event.getMessageId(), event.getSenderPhone(), event.getChatId(), 
-                                                event.getMessageType(), event.getContent(), event.getTimestamp());
-            
-            ProcessedEvent processedEvent = new ProcessedEvent(
-                "CREATE_MESSAGE_EVENT",
-                key,
-                originalEventId,
-                eventMessage,
-                topic
-            );
-            
-            processedEventService.saveProcessedEvent(processedEvent);
-            logger.info("Successfully persisted CreateMessageEvent with ID: {}, linked to original event: {}", 
-                       processedEvent.getId(), originalEventId);
-            
+            // Find the original events by key to link them
+            originalEventIds = originalEventService.getExistingEventIds(
+                    records.stream().map(ConsumerRecord::key).filter(Objects::nonNull).collect(Collectors.toSet()));
         } catch (Exception e) {
-            logger.error("Error processing CreateMessageEvent from topic: {}, event: {}", topic, event, e);
+            // The links are optional; the rows are still written, and acknowledged once committed
+            logger.error("Error looking up original events for {} {} records, saving them unlinked", records.size(), eventType, e);
+            originalEventIds = Set.of();
+        }
+
+        List<ProcessedEvent> processedEvents = new ArrayList<>(records.size());
+        List<PipelineTrace> traces = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, T> record : records) {
+            try {
+                ProcessedEvent processedEvent = new ProcessedEvent(
+                    eventType,
+                    record.key(),
+                    // Immutable sets reject contains(null)
+                    record.key() != null && originalEventIds.contains(record.key()) ? record.key() : null,
+                    describe.apply(record.value()),
+                    record.topic()
+                );
+                PipelineTrace trace = PipelineTrace.from(record.headers());
+                if (trace != null) {
+                    processedEvent.setCorrelationId(trace.correlationId());
+                }
+                processedEvents.add(processedEvent);
+                traces.add(trace);
+            } catch (Exception e) {
+                stage.meters().error();
+                logger.error("Error processing {} from topic: {}, event: {}", eventType, record.topic(), record.value(), e);
+            }
+        }
+
+        writer.submit(new ProcessedEventWriter.Batch(processedEvents, stage.meters(),
+                (index, committedNanos) -> persisted(stage, processedEvents.get(index), traces.get(index), receivedNanos, committedNanos),
+                acknowledgment::acknowledge));
+    }
+
+    private static void persisted(PersistenceStage stage, ProcessedEvent processedEvent, PipelineTrace trace,
+                                  long receivedNanos, long committedNanos) {
+        stage.traced(trace, receivedNanos, committedNanos);
+        stage.logger().log("persisted", processedEvent.getOriginalKey(), processedEvent,
+                (persisted, log) -> log.field("id", persisted.getId()).field("originalEventId", persisted.getOriginalEventId()));
+    }
+
+    /**
+     * Sampled log, meters and trace latency of one listener, resolved once at startup
+     */
+    record PersistenceStage(StageLogger logger, NodeMeters meters, String useCase, TraceLatencyRecorder traceLatency) {
+
+        /**
+         * Every save is timed: the cost of recording is negligible next to a database round trip.
+         * Every record is counted; the latency is that of the group commit its batch was part of.
+         */
+        static PersistenceStage of(String name, String useCase, StageLogRegistry stageLogs, PipelineMetrics metrics,
+                                   TraceLatencyRecorder traceLatency) {
+            return new PersistenceStage(stageLogs.stage(name),
+                    metrics.node(PipelineMetrics.PERSISTENCE, name, PipelineMetrics.Phase.PERSIST, 1.0),
+                    useCase, traceLatency);
+        }
+
+        /**
+         * Record the stages of a traced record once its row is committed
+         */
+        void traced(PipelineTrace trace, long receivedNanos, long committedNanos) {
+            if (trace != null) {
+                traceLatency.recordPersisted(useCase, trace, receivedNanos, committedNanos);
+            }
         }
     }
-}
\ No newline at end of file
+}
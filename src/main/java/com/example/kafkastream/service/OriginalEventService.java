@@ -1,13 +1,22 @@
 package com.example.kafkastream.service;
 
 import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.repository.EventCursor;
+import com.example.kafkastream.repository.EventFilter;
+import com.example.kafkastream.repository.EventSpecifications;
 import com.example.kafkastream.repository.OriginalEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service to manage original events published to Kafka topics
@@ -18,10 +27,14 @@ public class OriginalEventService {
 
     private static final Logger logger = LoggerFactory.getLogger(OriginalEventService.class);
 
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final OriginalEventRepository originalEventRepository;
+    private final CorrelationCache correlationCache;
 
-    public OriginalEventService(OriginalEventRepository originalEventRepository) {
+    public OriginalEventService(OriginalEventRepository originalEventRepository, CorrelationCache correlationCache) {
         this.originalEventRepository = originalEventRepository;
+        this.correlationCache = correlationCache;
     }
 
     /**
@@ -32,6 +45,8 @@ public class OriginalEventService {
     public OriginalEvent saveOriginalEvent(OriginalEvent originalEvent) {
         try {
             OriginalEvent saved = originalEventRepository.save(originalEvent);
+            // Its processed events are consumed shortly after, so the listeners find the link without a query
+            afterCommit(() -> correlationCache.putPresent(saved.getEventId()));
             logger.info("Saved original event: id={}, eventId={}, eventType={}", 
                        saved.getId(), saved.getEventId(), saved.getEventType());
             return saved;
@@ -41,6 +56,18 @@ public class OriginalEventService {
         }
     }
 
+    /**
+     * Save original events in one transaction; inserts are sent in JDBC batches
+     * @param originalEvents The original events to save
+     * @return The saved original events
+     */
+    public List<OriginalEvent> saveOriginalEvents(List<OriginalEvent> originalEvents) {
+        List<OriginalEvent> saved = originalEventRepository.saveAll(originalEvents);
+        afterCommit(() -> saved.forEach(originalEvent -> correlationCache.putPresent(originalEvent.getEventId())));
+        logger.info("Saved {} original events", saved.size());
+        return saved;
+    }
+
     /**
      * Get all original events
      * @return List of all original events
@@ -49,6 +76,20 @@ public class OriginalEventService {
         return originalEventRepository.findAllOrderByPublishedAtDesc();
     }
 
+    /**
+     * Get one page of original events, newest first
+     * @param filter Optional event type, source topic and time range
+     * @param after Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, at most EventPage.MAX_LIMIT
+     * @return The page and the cursor of the next one
+     */
+    public EventPage<OriginalEvent> getOriginalEventsPage(EventFilter filter, EventCursor after, int limit) {
+        EventPage.checkLimit(limit);
+        List<OriginalEvent> rows = originalEventRepository.findBy(EventSpecifications.page("publishedAt", filter, after),
+                query -> query.sortBy(EventSpecifications.newestFirst("publishedAt", filter)).limit(limit + 1).all());
+        return EventPage.of(rows, limit, event -> new EventCursor(event.getPublishedAt(), event.getId()));
+    }
+
     /**
      * Find original event by event ID
      * @param eventId The event ID to search for
@@ -58,6 +99,41 @@ public class OriginalEventService {
         return originalEventRepository.findByEventId(eventId);
     }
 
+    /**
+     * Find which of the given event IDs have an original event
+     * IDs are answered from the correlation cache first; the misses are looked up with one query per
+     * LOOKUP_CHUNK_SIZE IDs (very long IN lists are planned and bound far more slowly than a few
+     * shorter ones) and cached as present or absent.
+     * @param eventIds The event IDs to search for
+     * @return The event IDs that were found
+     */
+    public Set<String> getExistingEventIds(Collection<String> eventIds) {
+        Set<String> existing = new HashSet<>();
+        List<String> misses = new ArrayList<>();
+        for (String eventId : eventIds) {
+            Boolean present = correlationCache.get(eventId);
+            if (present == null) {
+                misses.add(eventId);
+            } else if (present) {
+                existing.add(eventId);
+            }
+        }
+
+        for (int from = 0; from < misses.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = misses.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, misses.size()));
+            Set<String> found = originalEventRepository.findExistingEventIds(chunk);
+            for (String eventId : chunk) {
+                if (found.contains(eventId)) {
+                    correlationCache.putPresent(eventId);
+                    existing.add(eventId);
+                } else {
+                    correlationCache.putAbsent(eventId);
+                }
+            }
+        }
+        return existing;
+    }
+
     /**
      * Get original events by event type
      * @param eventType The event type to filter by
@@ -99,6 +175,24 @@ public class OriginalEventService {
      */
     public void deleteAllOriginalEvents() {
         originalEventRepository.deleteAll();
+        correlationCache.invalidateAll();
         logger.info("Deleted all original events");
     }
-}
\ No newline at end of file
+
+    /**
+     * Only committed events are cached as present (they may be saved in an outbox transaction that
+     * rolls back); outside a transaction the action runs right away
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OutboxMessage;
+import com.example.kafkastream.repository.OutboxMessageRepository;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes the records written to the outbox
+ * A single relay thread reads the oldest batchSize records, hands all of them to the producer
+ * before waiting for any acknowledgement, and deletes the acknowledged ones in chunks of
+ * DELETE_CHUNK_SIZE ids. The producer is idempotent with acks=all, so retries within a send
+ * neither duplicate nor reorder records of a partition.
+ * Delivery is at least once: a record is only deleted after its acknowledgement, so one that was
+ * written but whose deletion was lost (crash, failed delete) is sent again. After a failed send
+ * the relay backs off and starts over from the oldest record still waiting.
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String RELAYED_METER = "outbox.relayed";
+
+    static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TraceLatencyRecorder traceLatency;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final Duration retryBackoff;
+    private final Counter relayed;
+    private final Counter failed;
+
+    private boolean virtualThreads;
+    private volatile boolean running;
+    private Thread relay;
+
+    /**
+     * @param kafkaTemplate on an idempotent producer with acks=all
+     * @param pollInterval  wait before reading again once the outbox had less than a full batch
+     * @param sendTimeout   how long a batch waits for its acknowledgements
+     * @param retryBackoff  wait before reading again after a failure
+     */
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TraceLatencyRecorder traceLatency, MeterRegistry meterRegistry, int batchSize,
+                       Duration pollInterval, Duration sendTimeout, Duration retryBackoff) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.traceLatency = traceLatency;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.sendTimeout = sendTimeout;
+        this.retryBackoff = retryBackoff;
+        this.relayed = relayCounter(meterRegistry, "success");
+        this.failed = relayCounter(meterRegistry, "failure");
+    }
+
+    private static Counter relayCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(RELAYED_METER)
+                .description("Outbox records sent by the relay")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the relay on a virtual thread
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        relay = (virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon()).name("outbox-relay").start(this::run);
+    }
+
+    /**
+     * Runs after the web server has stopped taking requests, and relays what is still waiting
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (relay == null) {
+            return;
+        }
+        LockSupport.unpark(relay);
+        try {
+            relay.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server (whose lifecycle runs at DEFAULT_PHASE - 2048)
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (relayBatch() < batchSize) {
+                    LockSupport.parkNanos(pollInterval.toNanos());
+                }
+            } catch (Exception e) {
+                logger.warn("Outbox relay failed, retrying in {}: {}", retryBackoff, e.getMessage());
+                LockSupport.parkNanos(retryBackoff.toNanos());
+            }
+        }
+        try {
+            while (relayBatch() == batchSize) {
+                // Drain the outbox before the producer is closed
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox relay stopped with records still waiting: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Send the oldest waiting records and delete those the broker acknowledged
+     * @return how many records were read
+     * @throws IllegalStateException if any of them failed or was not acknowledged within the send timeout
+     */
+    int relayBatch() {
+        List<OutboxMessage> batch = outboxMessageRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(message.getTopic(), message.getKey(), message.getValue());
+            TraceHeaders.start(record.headers(), message.getCorrelationId(), message.getIngestNanos());
+            try {
+                acks.add(kafkaTemplate.send(record));
+            } catch (RuntimeException e) {
+                // The producer could not take it (no metadata, buffer full); the rest would block the same way
+                logger.error("Error sending outbox record {} to {}", message.getId(), message.getTopic(), e);
+                break;
+            }
+        }
+        CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                .completeOnTimeout(null, sendTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                // Failures are counted per record
+                .exceptionally(ex -> null)
+                .join();
+
+        List<Long> sent = new ArrayList<>(acks.size());
+        String failure = acks.size() < batch.size() ? "send rejected by the producer" : "no acknowledgement within " + sendTimeout;
+        long ackedNanos = TraceHeaders.epochNanos();
+        for (int i = 0; i < acks.size(); i++) {
+            CompletableFuture<?> ack = acks.get(i);
+            if (ack.isCompletedExceptionally()) {
+                failure = NestedExceptionUtils.getMostSpecificCause(ack.exceptionNow()).getMessage();
+            } else if (ack.isDone()) {
+                OutboxMessage message = batch.get(i);
+                sent.add(message.getId());
+                traceLatency.record(message.getUseCase(), TraceLatencyRecorder.Stage.BROKER_ACK,
+                        ackedNanos - message.getIngestNanos());
+            }
+        }
+        for (int from = 0; from < sent.size(); from += DELETE_CHUNK_SIZE) {
+            outboxMessageRepository.deleteAllByIdInBatch(sent.subList(from, Math.min(from + DELETE_CHUNK_SIZE, sent.size())));
+        }
+        relayed.increment(sent.size());
+        if (sent.size() < batch.size()) {
+            failed.increment(batch.size() - sent.size());
+            throw new IllegalStateException((batch.size() - sent.size()) + " of " + batch.size()
+                    + " outbox records were not relayed: " + failure);
+        }
+        logger.debug("Relayed {} outbox records", sent.size());
+        return batch.size();
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.kafkastream.service;
 
 import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.repository.EventCursor;
+import com.example.kafkastream.repository.EventFilter;
+import com.example.kafkastream.repository.EventSpecifications;
 import com.example.kafkastream.repository.ProcessedEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -15,22 +22,45 @@ import java.util.List;
  */
 @Service
 @Transactional
-public class ProcessedEventService {
+public class ProcessedEventService implements SmartInitializingSingleton {
 
     private static final Logger logger = LoggerFactory.getLogger(ProcessedEventService.class);
 
     private final ProcessedEventRepository processedEventRepository;
+    private final ProcessedEventStats stats;
 
-    public ProcessedEventService(ProcessedEventRepository processedEventRepository) {
+    public ProcessedEventService(ProcessedEventRepository processedEventRepository, ProcessedEventStats stats) {
         this.processedEventRepository = processedEventRepository;
+        this.stats = stats;
+    }
+
+    /**
+     * Load the counters before the listener containers start writing
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcileStats();
     }
 
     /**
      * Save a processed event to the database
      */
     public ProcessedEvent saveProcessedEvent(ProcessedEvent processedEvent) {
-        logger.info("Saving processed event: {}", processedEvent);
-        return processedEventRepository.save(processedEvent);
+        logger.debug("Saving processed event: {}", processedEvent);
+        ProcessedEvent saved = processedEventRepository.save(processedEvent);
+        afterCommit(() -> stats.record(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Save processed events in one transaction; inserts are sent in JDBC batches
+     * (spring.jpa.properties.hibernate.jdbc.batch_size)
+     */
+    public List<ProcessedEvent> saveProcessedEvents(List<ProcessedEvent> processedEvents) {
+        logger.info("Saving {} processed events", processedEvents.size());
+        List<ProcessedEvent> saved = processedEventRepository.saveAll(processedEvents);
+        afterCommit(() -> stats.record(saved));
+        return saved;
     }
 
     /**
@@ -51,6 +81,19 @@ public class ProcessedEventService {
         return processedEventRepository.findAllByOrderByProcessedAtDesc();
     }
 
+    /**
+     * Get one page of processed events, newest first
+     * @param after cursor returned with the previous page, or null for the first page
+     * @param limit page size, at most EventPage.MAX_LIMIT
+     */
+    @Transactional(readOnly = true)
+    public EventPage<ProcessedEvent> getProcessedEventsPage(EventFilter filter, EventCursor after, int limit) {
+        EventPage.checkLimit(limit);
+        List<ProcessedEvent> rows = processedEventRepository.findBy(EventSpecifications.page("processedAt", filter, after),
+                query -> query.sortBy(EventSpecifications.newestFirst("processedAt", filter)).limit(limit + 1).all());
+        return EventPage.of(rows, limit, event -> new EventCursor(event.getProcessedAt(), event.getId()));
+    }
+
     /**
      * Get processed events by event type
      */
@@ -77,11 +120,47 @@ public class ProcessedEventService {
         return processedEventRepository.countByEventType(eventType);
     }
 
+    /**
+     * Row counts per type and source topic, from the in-memory counters
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProcessedEventStats.Snapshot getStats() {
+        return stats.snapshot();
+    }
+
+    /**
+     * Recount the table with one GROUP BY query and replace the counters with the result
+     */
+    @Transactional(readOnly = true)
+    public ProcessedEventStats.Snapshot reconcileStats() {
+        stats.replace(processedEventRepository.countByEventTypeAndSourceTopic());
+        ProcessedEventStats.Snapshot snapshot = stats.snapshot();
+        logger.info("Reconciled processed event stats: {} rows", snapshot.total());
+        return snapshot;
+    }
+
     /**
      * Delete all processed events (useful for testing)
      */
     public void deleteAllProcessedEvents() {
         logger.warn("Deleting all processed events");
         processedEventRepository.deleteAll();
+        afterCommit(stats::reset);
+    }
+
+    /**
+     * Counters only follow committed rows; outside a transaction the action runs right away
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.repository.ProcessedEventRepository.TypeTopicCount;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Row counts of processed_events, kept in memory so reading them doesn't touch the table
+ * ProcessedEventService adds the rows it saves once their transaction commits, and replaces the
+ * counters with one GROUP BY over the table at startup and on demand; between reconciliations
+ * rows written by anything else are not counted.
+ */
+@Component
+public class ProcessedEventStats {
+
+    /**
+     * @param byEventType   rows per event type, sorted by type
+     * @param bySourceTopic rows per source topic, sorted by topic
+     */
+    public record Snapshot(long total, Map<String, Long> byEventType, Map<String, Long> bySourceTopic) {
+    }
+
+    /**
+     * One generation of counters; replaced as a whole so a reconciliation never mixes with
+     * increments made to the generation it replaces
+     */
+    private record Counters(Map<String, LongAdder> byEventType, Map<String, LongAdder> bySourceTopic, LongAdder total) {
+
+        Counters() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new LongAdder());
+        }
+
+        void add(String eventType, String sourceTopic, long delta) {
+            increment(byEventType, eventType, delta);
+            increment(bySourceTopic, sourceTopic, delta);
+            total.add(delta);
+        }
+    }
+
+    private final AtomicReference<Counters> counters = new AtomicReference<>(new Counters());
+
+    /**
+     * Counts into the current generation; an increment racing with replace() goes either to the
+     * replaced generation or to the new one, never half to each
+     */
+    public void record(Collection<ProcessedEvent> processedEvents) {
+        Counters current = counters.get();
+        for (ProcessedEvent processedEvent : processedEvents) {
+            current.add(processedEvent.getEventType(), processedEvent.getSourceTopic(), 1);
+        }
+    }
+
+    /**
+     * Replace the counters with the result of the GROUP BY query
+     */
+    public void replace(Collection<TypeTopicCount> counts) {
+        Counters reconciled = new Counters();
+        for (TypeTopicCount count : counts) {
+            reconciled.add(count.getEventType(), count.getSourceTopic(), count.getCount());
+        }
+        counters.set(reconciled);
+    }
+
+    public void reset() {
+        counters.set(new Counters());
+    }
+
+    public Snapshot snapshot() {
+        Counters current = counters.get();
+        return new Snapshot(current.total().sum(), sums(current.byEventType()), sums(current.bySourceTopic()));
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String key, long delta) {
+        // Both columns are NOT NULL in the table, but ConcurrentHashMap would throw on a null key
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+        return sums;
+    }
+}
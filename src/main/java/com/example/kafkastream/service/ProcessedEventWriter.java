@@ -0,0 +1,329 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.metrics.NodeMeters;
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.trace.TraceHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Write-behind stage between the persistence listeners and the database
+ * Listeners hand their batches to a lock-free queue and return; writer threads drain it and insert
+ * several batches per transaction (group commit), then run each batch's completion, which is where
+ * the listener acknowledges its offsets. Nothing is acknowledged before all its rows are committed:
+ * rows that fail are retried with a growing backoff until they commit, and a batch still failing
+ * when the writers stop is left unacknowledged, so its records are redelivered.
+ * The queue is bounded in rows, but never blocks or rejects: a listener's batch has already been
+ * polled, so when the backlog reaches the capacity the listener containers are paused instead, and
+ * resumed once it drains below half. Rows waiting for a retry count towards the backlog.
+ */
+public class ProcessedEventWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedEventWriter.class);
+
+    /**
+     * Pauses and resumes the sources of the queue
+     */
+    public interface Backpressure {
+        void pause();
+
+        void resume();
+    }
+
+    /**
+     * Rows of one listener batch
+     * @param persisted called with the index of every row once it was committed, and the commit time
+     * @param done      called once after every row was committed
+     */
+    public record Batch(List<ProcessedEvent> rows, NodeMeters meters, RowCallback persisted, Runnable done) {
+    }
+
+    @FunctionalInterface
+    public interface RowCallback {
+        void persisted(int index, long committedNanos);
+    }
+
+    /**
+     * The rows of a batch still to be committed, and when they may be tried again
+     */
+    private static final class Pending implements Delayed {
+        final Batch batch;
+        final List<Integer> rows;
+        final int attempts;
+        final long dueNanos;
+
+        Pending(Batch batch, List<Integer> rows, int attempts, long dueNanos) {
+            this.batch = batch;
+            this.rows = rows;
+            this.attempts = attempts;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Pending) other).dueNanos);
+        }
+    }
+
+    private final ProcessedEventService processedEventService;
+    private final int capacity;
+    private final int maxGroupRows;
+    private final int writerThreads;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Backpressure backpressure;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final DelayQueue<Pending> retries = new DelayQueue<>();
+    // Rows submitted and not yet committed, including those a writer is working on or will retry
+    private final AtomicInteger pendingRows = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private volatile List<Thread> writers = List.of();
+    private boolean virtualThreads;
+    private volatile boolean running;
+
+    /**
+     * @param capacity        pending rows at which the listener containers are paused
+     * @param maxGroupRows    rows after which a writer stops adding batches to a transaction
+     * @param retryBackoff    wait before the first retry of rows that failed; doubled on every further failure
+     * @param maxRetryBackoff longest wait between retries
+     */
+    public ProcessedEventWriter(ProcessedEventService processedEventService, int capacity, int maxGroupRows,
+                                int writerThreads, Duration retryBackoff, Duration maxRetryBackoff,
+                                Backpressure backpressure) {
+        if (capacity < 1 || maxGroupRows < 1 || writerThreads < 1) {
+            throw new IllegalArgumentException("Capacity, group size and writer threads must be positive");
+        }
+        this.processedEventService = processedEventService;
+        this.capacity = capacity;
+        this.maxGroupRows = maxGroupRows;
+        this.writerThreads = writerThreads;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * Queue a batch; it is committed and completed by a writer thread
+     */
+    public void submit(Batch batch) {
+        if (batch.rows().isEmpty()) {
+            batch.done().run();
+            return;
+        }
+        if (pendingRows.addAndGet(batch.rows().size()) >= capacity && paused.compareAndSet(false, true)) {
+            logger.warn("Write-behind backlog reached {} rows, pausing the persistence listeners", capacity);
+            backpressure.pause();
+        }
+        queue.offer(new Pending(batch, IntStream.range(0, batch.rows().size()).boxed().toList(), 0, System.nanoTime()));
+        // Idle writers are parked until there is work
+        writers.forEach(LockSupport::unpark);
+    }
+
+    public int pendingRows() {
+        return pendingRows.get();
+    }
+
+    /**
+     * Run the writers on virtual threads; they block on JDBC for most of each commit
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < writerThreads; i++) {
+            started.add(builder.name("processed-event-writer-" + i).unstarted(this::drain));
+        }
+        writers = List.copyOf(started);
+        started.forEach(Thread::start);
+    }
+
+    /**
+     * Runs after the listener containers have stopped, and commits what is still queued
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread writer : writers) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        writers = List.of();
+        if (!retries.isEmpty()) {
+            logger.warn("Write-behind stopped with {} batches waiting for a retry; they were not acknowledged and will be redelivered",
+                    retries.size());
+            retries.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the listener containers (AbstractMessageListenerContainer.DEFAULT_PHASE)
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 200;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            List<Pending> group = nextGroup();
+            if (!group.isEmpty()) {
+                commit(group);
+            } else if (running) {
+                // Woken by submit and stop, or when the next retry is due
+                Pending retry = retries.peek();
+                if (retry == null) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, retry.getDelay(TimeUnit.NANOSECONDS));
+                }
+            }
+        }
+    }
+
+    private List<Pending> nextGroup() {
+        List<Pending> group = new ArrayList<>();
+        int rows = 0;
+        Pending pending;
+        while (rows < maxGroupRows && ((pending = retries.poll()) != null || (pending = queue.poll()) != null)) {
+            group.add(pending);
+            rows += pending.rows.size();
+        }
+        return group;
+    }
+
+    /**
+     * One transaction for the whole group; if it fails, each row is tried in its own transaction
+     * so a single bad row only holds back its own batch, whose failed rows are retried later
+     */
+    void commit(List<Pending> group) {
+        List<ProcessedEvent> rows = new ArrayList<>();
+        long[] starts = new long[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            Pending pending = group.get(i);
+            pending.rows.forEach(row -> rows.add(pending.batch.rows().get(row)));
+            // Records are counted on their first attempt only
+            starts[i] = pending.attempts == 0 ? pending.batch.meters().start(pending.rows.size()) : NodeMeters.NOT_SAMPLED;
+        }
+
+        boolean committed;
+        try {
+            processedEventService.saveProcessedEvents(rows);
+            committed = true;
+        } catch (Exception e) {
+            logger.warn("Group commit of {} processed events failed, saving them one by one: {}", rows.size(), e.getMessage());
+            committed = false;
+        }
+
+        long committedNanos = TraceHeaders.epochNanos();
+        for (int i = 0; i < group.size(); i++) {
+            Pending pending = group.get(i);
+            List<Integer> failed;
+            if (committed) {
+                pending.batch.meters().stop(starts[i]);
+                pending.rows.forEach(row -> persisted(pending.batch, row, committedNanos));
+                failed = List.of();
+            } else {
+                failed = saveEach(pending);
+            }
+            release(pending.rows.size() - failed.size());
+            if (failed.isEmpty()) {
+                complete(pending.batch);
+            } else {
+                retry(pending, failed);
+            }
+        }
+    }
+
+    /**
+     * @return the rows that could not be saved
+     */
+    private List<Integer> saveEach(Pending pending) {
+        List<Integer> failed = new ArrayList<>();
+        for (int row : pending.rows) {
+            ProcessedEvent processedEvent = pending.batch.rows().get(row);
+            // The failed group may have assigned it an id
+            processedEvent.setId(null);
+            try {
+                processedEventService.saveProcessedEvent(processedEvent);
+                persisted(pending.batch, row, TraceHeaders.epochNanos());
+            } catch (Exception e) {
+                processedEvent.setId(null);
+                failed.add(row);
+                if (pending.attempts == 0) {
+                    pending.batch.meters().error();
+                    logger.error("Error persisting {} from topic: {}", processedEvent.getEventType(), processedEvent.getSourceTopic(), e);
+                }
+            }
+        }
+        return failed;
+    }
+
+    private void retry(Pending pending, List<Integer> failed) {
+        if (!running) {
+            logger.warn("Write-behind stopping; {} rows of a batch were not committed and it was not acknowledged", failed.size());
+            release(failed.size());
+            return;
+        }
+        long backoffNanos = Math.min(maxRetryBackoff.toNanos(), retryBackoff.toNanos() << Math.min(pending.attempts, 30));
+        logger.warn("{} of {} processed events of a batch failed (attempt {}), retrying in {} ms", failed.size(),
+                pending.batch.rows().size(), pending.attempts + 1, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+        retries.offer(new Pending(pending.batch, failed, pending.attempts + 1, System.nanoTime() + backoffNanos));
+    }
+
+    private static void persisted(Batch batch, int row, long committedNanos) {
+        try {
+            batch.persisted().persisted(row, committedNanos);
+        } catch (Exception e) {
+            logger.error("Error completing a committed processed event", e);
+        }
+    }
+
+    private static void complete(Batch batch) {
+        try {
+            batch.done().run();
+        } catch (Exception e) {
+            logger.error("Error acknowledging a batch of {} processed events", batch.rows().size(), e);
+        }
+    }
+
+    private void release(int rows) {
+        if (pendingRows.addAndGet(-rows) <= capacity / 2 && paused.compareAndSet(true, false)) {
+            logger.info("Write-behind backlog drained to {} rows, resuming the persistence listeners", pendingRows.get());
+            backpressure.resume();
+        }
+    }
+}
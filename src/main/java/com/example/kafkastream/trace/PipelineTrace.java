@@ -0,0 +1,34 @@
+package com.example.kafkastream.trace;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Trace headers of a record as received by a listener
+ * Stream stamps are null for records that did not pass through a streams application.
+ *
+ * @param correlationId id returned by the REST publisher
+ * @param ingestNanos   when the REST request was accepted
+ * @param streamInNanos when the streams application read the source record
+ * @param streamOutNanos when the streams application wrote this output record
+ */
+public record PipelineTrace(String correlationId, long ingestNanos, Long streamInNanos, Long streamOutNanos) {
+
+    /**
+     * @param headers headers of a consumed record
+     * @return the trace, or null if the record is not traced
+     */
+    public static PipelineTrace from(Headers headers) {
+        String correlationId = TraceHeaders.value(headers, TraceHeaders.CORRELATION_ID);
+        String ingest = TraceHeaders.value(headers, TraceHeaders.INGEST_NANOS);
+        if (correlationId == null || ingest == null) {
+            return null;
+        }
+        return new PipelineTrace(correlationId, Long.parseLong(ingest),
+                nanos(headers, TraceHeaders.STREAM_IN_NANOS), nanos(headers, TraceHeaders.STREAM_OUT_NANOS));
+    }
+
+    private static Long nanos(Headers headers, String name) {
+        String text = TraceHeaders.value(headers, name);
+        return text == null ? null : Long.valueOf(text);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.kafkastream.trace;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serde;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Kafka headers carrying a record's pipeline trace
+ * The REST publisher stamps the correlation id and the time the request was accepted; the streams
+ * applications stamp when a traced record is read and when its output is written. Times are epoch
+ * nanoseconds as decimal strings, so they are comparable across processes with synchronised clocks.
+ */
+public final class TraceHeaders {
+
+    public static final String PREFIX = "trace-";
+    public static final String CORRELATION_ID = PREFIX + "id";
+    public static final String INGEST_NANOS = PREFIX + "ingest-nanos";
+    public static final String STREAM_IN_NANOS = PREFIX + "stream-in-nanos";
+    public static final String STREAM_OUT_NANOS = PREFIX + "stream-out-nanos";
+
+    private TraceHeaders() {}
+
+    public static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /**
+     * Start a trace on an outgoing record
+     */
+    public static void start(Headers headers, String correlationId, long ingestNanos) {
+        headers.remove(CORRELATION_ID).add(CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+        headers.remove(INGEST_NANOS).add(INGEST_NANOS, encode(ingestNanos));
+    }
+
+    /**
+     * Stamp the current time on a traced record; untraced records are left untouched
+     */
+    static void stamp(Headers headers, String name) {
+        if (headers != null && headers.lastHeader(CORRELATION_ID) != null) {
+            headers.remove(name).add(name, encode(epochNanos()));
+        }
+    }
+
+    /**
+     * Serde stamping STREAM_IN_NANOS when a source decodes a record and STREAM_OUT_NANOS when a sink encodes one
+     */
+    public static <T> Serde<T> traced(Serde<T> serde) {
+        return new TracingSerde<>(serde);
+    }
+
+    public static String value(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(long nanos) {
+        return Long.toString(nanos).getBytes(StandardCharsets.US_ASCII);
+    }
+}
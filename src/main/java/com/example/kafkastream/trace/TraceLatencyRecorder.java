@@ -0,0 +1,126 @@
+package com.example.kafkastream.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-use-case latency of each pipeline stage, from REST accept to database commit
+ * Recorded into "pipeline.trace" timers (tags use_case and stage) with client-side p50/p99/p999,
+ * which are exported to Prometheus and summarised for the REST API. Percentiles cover the
+ * timers' recent window (Micrometer's default distribution expiry), not the whole uptime.
+ */
+public class TraceLatencyRecorder {
+
+    public static final String METER = "pipeline.trace";
+
+    public enum Stage {
+        /** REST request accepted to broker acknowledgement of the published record */
+        BROKER_ACK,
+        /** REST request accepted to the streams application reading the record */
+        STREAM_PICKUP,
+        /** Streams application read to output written */
+        STREAM_PROCESS,
+        /** Output written to the listener receiving it */
+        SINK,
+        /** Listener received to the database transaction committed */
+        DB_COMMIT,
+        /** REST request accepted to database commit */
+        END_TO_END;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Map<Stage, Timer>> timers = new ConcurrentHashMap<>();
+
+    public TraceLatencyRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Negative durations (clock skew between processes) are dropped
+     */
+    public void record(String useCase, Stage stage, long nanos) {
+        if (nanos >= 0) {
+            timers(useCase).get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Record every stage a persisted record's trace covers
+     * @param receivedNanos  when the listener received the record
+     * @param committedNanos when the record's database transaction committed
+     */
+    public void recordPersisted(String useCase, PipelineTrace trace, long receivedNanos, long committedNanos) {
+        if (trace.streamInNanos() != null) {
+            record(useCase, Stage.STREAM_PICKUP, trace.streamInNanos() - trace.ingestNanos());
+            if (trace.streamOutNanos() != null) {
+                record(useCase, Stage.STREAM_PROCESS, trace.streamOutNanos() - trace.streamInNanos());
+            }
+        }
+        if (trace.streamOutNanos() != null) {
+            record(useCase, Stage.SINK, receivedNanos - trace.streamOutNanos());
+        }
+        record(useCase, Stage.DB_COMMIT, committedNanos - receivedNanos);
+        record(useCase, Stage.END_TO_END, committedNanos - trace.ingestNanos());
+    }
+
+    /**
+     * @return use case -> stage -> count, mean, max and percentiles in milliseconds
+     */
+    public Map<String, Map<String, Map<String, Object>>> summary() {
+        Map<String, Map<String, Map<String, Object>>> summary = new TreeMap<>();
+        timers.forEach((useCase, stages) -> {
+            Map<String, Map<String, Object>> stageSummaries = new LinkedHashMap<>();
+            stages.forEach((stage, timer) -> {
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                if (snapshot.count() == 0) {
+                    return;
+                }
+                Map<String, Object> stageSummary = new LinkedHashMap<>();
+                stageSummary.put("count", snapshot.count());
+                stageSummary.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+                stageSummary.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    stageSummary.put(percentileName(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+                }
+                stageSummaries.put(stage.tag(), stageSummary);
+            });
+            summary.put(useCase, stageSummaries);
+        });
+        return summary;
+    }
+
+    private Map<Stage, Timer> timers(String useCase) {
+        return timers.computeIfAbsent(useCase, name -> {
+            Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                stages.put(stage, Timer.builder(METER)
+                        .description("Latency of a pipeline stage for traced records")
+                        .tags("use_case", name, "stage", stage.tag())
+                        .publishPercentiles(0.5, 0.99, 0.999)
+                        .register(registry));
+            }
+            return stages;
+        });
+    }
+
+    // 0.5 -> p50, 0.99 -> p99, 0.999 -> p999
+    private static String percentileName(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString().replace(".", "") + "Ms";
+    }
+}
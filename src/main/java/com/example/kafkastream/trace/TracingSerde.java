@@ -0,0 +1,70 @@
+package com.example.kafkastream.trace;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Serde stamping the stream-in and stream-out trace headers
+ * Kafka Streams hands the consumed record's headers to the source deserializer and the outgoing
+ * record's headers to the sink serializer, so stamping there needs no extra topology nodes.
+ */
+final class TracingSerde<T> implements Serde<T> {
+
+    private final Serde<T> delegate;
+    private final Serializer<T> serializer;
+    private final Deserializer<T> deserializer;
+
+    TracingSerde(Serde<T> delegate) {
+        this.delegate = delegate;
+        Serializer<T> delegateSerializer = delegate.serializer();
+        Deserializer<T> delegateDeserializer = delegate.deserializer();
+        this.serializer = new Serializer<>() {
+            @Override
+            public byte[] serialize(String topic, T data) {
+                return delegateSerializer.serialize(topic, data);
+            }
+
+            @Override
+            public byte[] serialize(String topic, Headers headers, T data) {
+                TraceHeaders.stamp(headers, TraceHeaders.STREAM_OUT_NANOS);
+                return delegateSerializer.serialize(topic, headers, data);
+            }
+        };
+        this.deserializer = new Deserializer<>() {
+            @Override
+            public T deserialize(String topic, byte[] data) {
+                return delegateDeserializer.deserialize(topic, data);
+            }
+
+            @Override
+            public T deserialize(String topic, Headers headers, byte[] data) {
+                TraceHeaders.stamp(headers, TraceHeaders.STREAM_IN_NANOS);
+                return delegateDeserializer.deserialize(topic, headers, data);
+            }
+        };
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return deserializer;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.config.CorrelationCacheConfig;
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.EventOutbox;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Events per second through the publish path, one event per call versus one bulk call
+ * Not part of the test suite. Runs against the in-memory H2 database and a MockProducer that
+ * acknowledges every send at once, with the application's byte-array value serializer; HTTP handling and
+ * broker round trips are left out, both of which the bulk path pays once per request instead of
+ * once per event.
+ *
+ * single: serialize, save the original event in its own transaction, send (EventIngestionService.ingest)
+ * bulk:   parse the whole body, one batched insert transaction, send all, wait once for the acks
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.BulkIngestionBenchmark \
+ *     -Dbenchmark.bulk-sizes=100,500,1000 -Dbenchmark.rounds=5 -Dbenchmark.warmup=50000
+ */
+public final class BulkIngestionBenchmark {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = KafkaAutoConfiguration.class)
+    @EntityScan("com.example.kafkastream.model")
+    @EnableJpaRepositories("com.example.kafkastream.repository")
+    @Import({OriginalEventService.class, EventOutbox.class, CorrelationCacheConfig.class})
+    static class PersistenceOnly {
+    }
+
+    private BulkIngestionBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int[] bulkSizes = Arrays.stream(System.getProperty("benchmark.bulk-sizes", "100,500,1000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+        int warmup = Integer.getInteger("benchmark.warmup", 50_000);
+
+        // Passed as arguments so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersistenceOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN", "--logging.level.com.example.kafkastream=WARN")) {
+            OriginalEventService originalEvents = context.getBean(OriginalEventService.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            MockProducer<String, byte[]> producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer()) {
+                @Override
+                public void close(Duration timeout) {
+                    // KafkaTemplate closes its producer after every send
+                }
+            };
+            EventIngestionService ingestion = new EventIngestionService(Map.of(DeliveryMode.ALL, new KafkaTemplate<>(() -> producer)),
+                    originalEvents, context.getBean(EventOutbox.class), objectMapper, new TraceLatencyRecorder(new SimpleMeterRegistry()),
+                    new SimpleMeterRegistry(), Integer.MAX_VALUE, Duration.ofSeconds(30));
+
+            for (int warmed = 0; warmed < warmup; warmed += 1_000) {
+                single(ingestion, 1_000);
+                bulk(ingestion, 1_000);
+                producer.clear();
+            }
+
+            System.out.printf("best of %d rounds after %d warm-up events per variant%n", rounds, warmup);
+            System.out.printf("%-10s %14s %14s %8s%n", "events", "single/s", "bulk/s", "speedup");
+            for (int bulkSize : bulkSizes) {
+                double bestSingle = 0;
+                double bestBulk = 0;
+                // Variants take turns in every round so drift (JIT, GC, table growth) hits both
+                for (int round = 0; round < rounds; round++) {
+                    bestSingle = Math.max(bestSingle, single(ingestion, bulkSize));
+                    bestBulk = Math.max(bestBulk, bulk(ingestion, bulkSize));
+                    producer.clear();
+                }
+                System.out.printf("%-10d %14.0f %14.0f %7.1fx%n", bulkSize, bestSingle, bestBulk, bestBulk / bestSingle);
+            }
+        }
+    }
+
+    private static double single(EventIngestionService ingestion, int count) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String id = UUID.randomUUID().toString();
+            ingestion.ingest(new EventIngestionService.Event("SimpleEvent", "input-topic", "content-transformation",
+                    id, new SimpleEvent(id, "hello world", 1_640_995_200_000L)), DeliveryMode.ALL).join();
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double bulk(EventIngestionService ingestion, int count) throws Exception {
+        StringJoiner body = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < count; i++) {
+            body.add("{\"id\":\"" + UUID.randomUUID() + "\",\"payload\":\"hello world\",\"timestamp\":1640995200000}");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        List<EventIngestionService.Result> results = ingestion.ingestAll(new ByteArrayInputStream(bytes), SimpleEvent.class,
+                item -> new EventIngestionService.Event("SimpleEvent", "input-topic", "content-transformation",
+                        item.getId(), item), DeliveryMode.ALL).join();
+        if (results.stream().anyMatch(result -> result.status() != EventIngestionService.Status.PUBLISHED)) {
+            throw new IllegalStateException("Bulk ingestion failed: " + results.get(0));
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.service.DeliveryMode;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publish throughput and send-to-completion latency under each delivery mode
+ * Not part of the test suite. Each in-flight send stands for one publish request waiting for its
+ * async response, so the concurrency is the number of open requests; a request thread is never
+ * held. Runs against -Dbenchmark.bootstrap when given, otherwise against an embedded KRaft
+ * cluster of -Dbenchmark.brokers brokers in this JVM (so it shares the CPU with the producer).
+ * Topics are replicated to up to 3 brokers with min.insync.replicas=2 when there are 3, so that
+ * acks=all waits for a follower.
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.DeliveryModeBenchmark \
+ *     -Dbenchmark.records=50000 -Dbenchmark.concurrency=1,64 -Dbenchmark.brokers=3
+ */
+public final class DeliveryModeBenchmark {
+
+    private DeliveryModeBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        String bootstrap = System.getProperty("benchmark.bootstrap");
+        int brokers = Integer.getInteger("benchmark.brokers", 3);
+        int records = Integer.getInteger("benchmark.records", 50_000);
+        int[] concurrencies = Arrays.stream(System.getProperty("benchmark.concurrency", "1,64").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        EmbeddedKafkaKraftBroker embedded = null;
+        if (bootstrap == null) {
+            embedded = new EmbeddedKafkaKraftBroker(brokers, 1);
+            embedded.afterPropertiesSet();
+            bootstrap = embedded.getBrokersAsString();
+        }
+        try {
+            run(bootstrap, records, concurrencies);
+        } finally {
+            if (embedded != null) {
+                embedded.destroy();
+            }
+        }
+    }
+
+    private static void run(String bootstrap, int records, int[] concurrencies) throws Exception {
+        String topic = "delivery-benchmark-" + UUID.randomUUID();
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap))) {
+            int replicas = Math.min(3, admin.describeCluster().nodes().get().size());
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) replicas)
+                    .configs(Map.of("min.insync.replicas", Integer.toString(Math.max(1, replicas - 1))))))
+                    .all().get();
+            System.out.printf("records=%d, topic replicas=%d%n", records, replicas);
+        }
+
+        byte[] value = ("{\"id\":\"" + UUID.randomUUID() + "\",\"payload\":\"hello world\",\"timestamp\":1640995200000}")
+                .getBytes(StandardCharsets.UTF_8);
+        System.out.printf("%-16s %12s %12s %10s %10s %10s%n", "mode", "concurrency", "events/s", "p50 ms", "p99 ms", "max ms");
+        for (int concurrency : concurrencies) {
+            for (DeliveryMode mode : DeliveryMode.values()) {
+                if (mode == DeliveryMode.OUTBOX) {
+                    // Sent later by the outbox relay, with the same producer settings as ALL (OutboxBenchmark)
+                    continue;
+                }
+                try (KafkaProducer<String, byte[]> producer = producer(bootstrap, mode)) {
+                    // Warm-up: metadata, connections, JIT
+                    send(producer, topic, value, Math.min(records, 5_000), concurrency);
+                    long start = System.nanoTime();
+                    long[] latencies = send(producer, topic, value, records, concurrency);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    Arrays.sort(latencies);
+                    System.out.printf("%-16s %12d %12.0f %10.2f %10.2f %10.2f%n", mode.tag(), concurrency, records / seconds,
+                            percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+                }
+            }
+        }
+    }
+
+    /**
+     * The same overrides the application's delivery templates apply
+     */
+    private static KafkaProducer<String, byte[]> producer(String bootstrap, DeliveryMode mode) {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        props.put(ProducerConfig.ACKS_CONFIG, mode.acks());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, mode == DeliveryMode.ALL);
+        return new KafkaProducer<>(props, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    /**
+     * Sends with at most concurrency sends outstanding
+     * @return send-to-completion nanoseconds of every send
+     */
+    private static long[] send(KafkaProducer<String, byte[]> producer, String topic, byte[] value,
+                               int records, int concurrency) throws InterruptedException {
+        long[] latencies = new long[records];
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < records; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            producer.send(new ProducerRecord<>(topic, Integer.toString(i), value), (metadata, ex) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (ex != null) {
+                    failures.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        if (!inFlight.tryAcquire(concurrency, 2, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Sends did not complete");
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " sends failed");
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.config.CorrelationCacheConfig;
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.repository.OutboxMessageRepository;
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.EventOutbox;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.service.OutboxRelay;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request latency of a single-event publish that waits for acks=all versus one that commits to the
+ * outbox, and how fast the relay then drains the outbox into Kafka
+ * Not part of the test suite. Request threads are simulated by a pool of -Dbenchmark.concurrency
+ * threads, each calling EventIngestionService.ingest and waiting for its future; the database is the
+ * in-memory H2 of the application. Runs against -Dbenchmark.bootstrap when given, otherwise against
+ * an embedded single-broker KRaft cluster in this JVM (so it shares the CPU with everything else).
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.OutboxBenchmark \
+ *     -Dbenchmark.records=20000 -Dbenchmark.concurrency=1,16
+ */
+public final class OutboxBenchmark {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = KafkaAutoConfiguration.class)
+    @EntityScan("com.example.kafkastream.model")
+    @EnableJpaRepositories("com.example.kafkastream.repository")
+    @Import({OriginalEventService.class, EventOutbox.class, CorrelationCacheConfig.class})
+    static class PersistenceOnly {
+    }
+
+    private static final String TOPIC = "outbox-benchmark";
+
+    private OutboxBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        String bootstrap = System.getProperty("benchmark.bootstrap");
+        int records = Integer.getInteger("benchmark.records", 20_000);
+        int[] concurrencies = Arrays.stream(System.getProperty("benchmark.concurrency", "1,16").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        EmbeddedKafkaKraftBroker embedded = null;
+        if (bootstrap == null) {
+            embedded = new EmbeddedKafkaKraftBroker(1, 3);
+            embedded.afterPropertiesSet();
+            bootstrap = embedded.getBrokersAsString();
+        }
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap))) {
+            admin.createTopics(List.of(new NewTopic(TOPIC, 3, (short) 1))).all().get();
+        }
+        // Passed as arguments so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersistenceOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN", "--logging.level.com.example.kafkastream=WARN")) {
+            run(context, bootstrap, records, concurrencies);
+        } finally {
+            if (embedded != null) {
+                embedded.destroy();
+            }
+        }
+    }
+
+    private static void run(ConfigurableApplicationContext context, String bootstrap, int records, int[] concurrencies) throws Exception {
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(
+                Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap, ProducerConfig.ACKS_CONFIG, "all",
+                        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true),
+                new StringSerializer(), new ByteArraySerializer());
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(producerFactory);
+        OutboxMessageRepository outbox = context.getBean(OutboxMessageRepository.class);
+        EventIngestionService ingestion = new EventIngestionService(Map.of(DeliveryMode.ALL, template),
+                context.getBean(OriginalEventService.class), context.getBean(EventOutbox.class), context.getBean(ObjectMapper.class),
+                new TraceLatencyRecorder(new SimpleMeterRegistry()), new SimpleMeterRegistry(), Integer.MAX_VALUE,
+                Duration.ofSeconds(30));
+        OutboxRelay relay = new OutboxRelay(outbox, template, new TraceLatencyRecorder(new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), 1000, Duration.ofMillis(20), Duration.ofSeconds(30), Duration.ofSeconds(1));
+
+        System.out.printf("records=%d%n", records);
+        System.out.printf("%-8s %12s %12s %10s %10s %14s%n", "mode", "concurrency", "requests/s", "p50 ms", "p99 ms", "relayed/s");
+        for (int concurrency : concurrencies) {
+            for (DeliveryMode mode : List.of(DeliveryMode.ALL, DeliveryMode.OUTBOX)) {
+                // Warm-up: metadata, connections, JIT
+                requests(ingestion, mode, Math.min(records, 5_000), concurrency);
+                drain(relay, outbox);
+                long start = System.nanoTime();
+                long[] latencies = requests(ingestion, mode, records, concurrency);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                Arrays.sort(latencies);
+                String relayed = mode == DeliveryMode.OUTBOX ? String.format("%.0f", records / drain(relay, outbox)) : "-";
+                System.out.printf("%-8s %12d %12.0f %10.2f %10.2f %14s%n", mode.tag(), concurrency, records / seconds,
+                        percentile(latencies, 0.5), percentile(latencies, 0.99), relayed);
+            }
+        }
+        producerFactory.destroy();
+    }
+
+    /**
+     * @return request-to-response nanoseconds of every request
+     */
+    private static long[] requests(EventIngestionService ingestion, DeliveryMode mode, int records, int concurrency) throws Exception {
+        long[] latencies = new long[records];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < concurrency; t++) {
+                workers.add(threads.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < records; i = next.getAndIncrement()) {
+                        String id = UUID.randomUUID().toString();
+                        long start = System.nanoTime();
+                        EventIngestionService.Delivery delivery = ingestion.ingest(new EventIngestionService.Event("SimpleEvent",
+                                TOPIC, "content-transformation", id, new SimpleEvent(id, "hello world", 1_640_995_200_000L)), mode).join();
+                        latencies[i] = System.nanoTime() - start;
+                        if (delivery.failure() != null) {
+                            throw new IllegalStateException("Publish failed", delivery.failure());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        return latencies;
+    }
+
+    /**
+     * Runs the relay until the outbox is empty
+     * @return seconds it took
+     */
+    private static double drain(OutboxRelay relay, OutboxMessageRepository outbox) throws InterruptedException {
+        long start = System.nanoTime();
+        relay.start();
+        while (outbox.count() > 0) {
+            Thread.sleep(5);
+        }
+        relay.stop();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.config.CorrelationCacheConfig;
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.service.ProcessedEventService;
+import com.example.kafkastream.service.ProcessedEventStats;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rows per second persisted by the listener logic, one record at a time versus one batch per poll
+ * Not part of the test suite. Runs against the in-memory H2 database with the application's JPA
+ * settings, minus show-sql. Half of the keys have an original event to link to.
+ *
+ * per-record: one original-event lookup and one save transaction per record (previous listeners)
+ * batch:      one lookup query and one transaction with JDBC-batched inserts per poll
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.PersistenceBatchBenchmark \
+ *     -Dbenchmark.batch-sizes=100,1000,10000 -Dbenchmark.rounds=5 -Dbenchmark.warmup=100000
+ */
+public final class PersistenceBatchBenchmark {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = KafkaAutoConfiguration.class)
+    @EntityScan("com.example.kafkastream.model")
+    @EnableJpaRepositories("com.example.kafkastream.repository")
+    @Import({ProcessedEventService.class, ProcessedEventStats.class, OriginalEventService.class, CorrelationCacheConfig.class})
+    static class PersistenceOnly {
+    }
+
+    private PersistenceBatchBenchmark() {}
+
+    public static void main(String[] args) {
+        int[] batchSizes = Arrays.stream(System.getProperty("benchmark.batch-sizes", "100,1000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+        int warmup = Integer.getInteger("benchmark.warmup", 100_000);
+
+        // Passed as arguments so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersistenceOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN", "--logging.level.com.example.kafkastream=WARN")) {
+            ProcessedEventService processedEvents = context.getBean(ProcessedEventService.class);
+            OriginalEventService originalEvents = context.getBean(OriginalEventService.class);
+
+            int keyOffset = 0;
+            for (int warmed = 0; warmed < warmup; warmed += 1_000) {
+                perRecord(processedEvents, originalEvents, keys(originalEvents, keyOffset, 1_000));
+                batch(processedEvents, originalEvents, keys(originalEvents, keyOffset + 1_000, 1_000));
+                keyOffset += 2_000;
+            }
+
+            System.out.printf("best of %d rounds after %d warm-up records per variant%n", rounds, warmup);
+            System.out.printf("%-10s %14s %14s %8s%n", "batch", "per-record/s", "batch/s", "speedup");
+            for (int batchSize : batchSizes) {
+                double bestPerRecord = 0;
+                double bestBatch = 0;
+                // Variants take turns in every round so drift (JIT, GC, table growth) hits both
+                for (int round = 0; round < rounds; round++) {
+                    List<String> keys = keys(originalEvents, keyOffset, batchSize);
+                    keyOffset += batchSize;
+                    bestPerRecord = Math.max(bestPerRecord, perRecord(processedEvents, originalEvents, keys));
+
+                    keys = keys(originalEvents, keyOffset, batchSize);
+                    keyOffset += batchSize;
+                    bestBatch = Math.max(bestBatch, batch(processedEvents, originalEvents, keys));
+                }
+                System.out.printf("%-10d %14.0f %14.0f %7.1fx%n", batchSize, bestPerRecord, bestBatch, bestBatch / bestPerRecord);
+            }
+        }
+    }
+
+    private static List<String> keys(OriginalEventService originalEvents, int offset, int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = "event-" + (offset + i);
+            if (i % 2 == 0) {
+                originalEvents.saveOriginalEvent(new OriginalEvent(key, "SimpleEvent", "input-topic", "{}"));
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static ProcessedEvent processedEvent(String key, String originalEventId) {
+        return new ProcessedEvent("SIMPLE_EVENT_TRANSFORMED", key, originalEventId,
+                "SimpleEvent{id=" + key + ", payload=SOME PAYLOAD, timestamp=1}", "output-topic-transformed");
+    }
+
+    private static double perRecord(ProcessedEventService processedEvents, OriginalEventService originalEvents, List<String> keys) {
+        long start = System.nanoTime();
+        for (String key : keys) {
+            String originalEventId = originalEvents.getOriginalEventByEventId(key).map(OriginalEvent::getEventId).orElse(null);
+            processedEvents.saveProcessedEvent(processedEvent(key, originalEventId));
+        }
+        return keys.size() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double batch(ProcessedEventService processedEvents, OriginalEventService originalEvents, List<String> keys) {
+        long start = System.nanoTime();
+        Set<String> linked = originalEvents.getExistingEventIds(new HashSet<>(keys));
+        List<ProcessedEvent> batch = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            batch.add(processedEvent(key, linked.contains(key) ? key : null));
+        }
+        processedEvents.saveProcessedEvents(batch);
+        return keys.size() / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.serde.WireFormatSerde;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cost of the pipeline node meters at several latency sample rates, measured on the Use Case 1
+ * deserializer
+ * Not part of the test suite. The Prometheus registry is configured as in application.yml
+ * (percentile histogram plus p50/p99/p999), so sampled records pay the full recording cost.
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.PipelineMetricsBenchmark \
+ *     -Dbenchmark.records=1000000 -Dbenchmark.rounds=5
+ */
+public final class PipelineMetricsBenchmark {
+
+    private static final double[] SAMPLE_RATES = {0.0, 0.05, 1.0};
+
+    private PipelineMetricsBenchmark() {}
+
+    public static void main(String[] args) {
+        int records = Integer.getInteger("benchmark.records", 1_000_000);
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .percentiles(0.5, 0.99, 0.999)
+                        .minimumExpectedValue((double) Duration.ofNanos(1_000).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+
+        WireFormatSerde<SimpleEvent> serde = new WireFormatSerde<>(SimpleEvent.class);
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = serde.serializer().serialize("input-topic", headers,
+                new SimpleEvent("event-1", "some payload to transform", System.currentTimeMillis()));
+
+        List<String> names = new ArrayList<>(List.of("deserialize"));
+        List<Deserializer<SimpleEvent>> variants = new ArrayList<>(List.of(serde.deserializer()));
+        for (double rate : SAMPLE_RATES) {
+            names.add("metered, sampled " + (rate * 100) + "%");
+            variants.add(new PipelineMetrics(registry, rate)
+                    .deserializer("content-transformation", "input-topic-" + rate, serde.deserializer()));
+        }
+
+        // Variants take turns in every round so drift (JIT, GC, noisy neighbours) hits all of them
+        double[] best = new double[variants.size()];
+        Arrays.fill(best, Double.MAX_VALUE);
+        for (int round = 0; round < rounds; round++) {
+            for (int variant = 0; variant < variants.size(); variant++) {
+                best[variant] = Math.min(best[variant], run(variants.get(variant), headers, bytes, records));
+            }
+        }
+
+        System.out.printf("records=%d, best of %d rounds%n", records, rounds);
+        System.out.printf("%-28s %12s %10s%n", "variant", "ns/record", "overhead");
+        for (int variant = 0; variant < variants.size(); variant++) {
+            System.out.printf("%-28s %12.1f %9.1f%%%n", names.get(variant), best[variant], (best[variant] - best[0]) / best[0] * 100);
+        }
+    }
+
+    private static double run(Deserializer<SimpleEvent> deserializer, RecordHeaders headers, byte[] bytes, int records) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            checksum += deserializer.deserialize("input-topic", headers, bytes).getPayload().length();
+        }
+        double nanos = (double) (System.nanoTime() - start) / records;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.processor.PayloadTimestampExtractor;
+import com.example.kafkastream.serde.WireFormatSerde;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and end-to-end latency of the Use Case 1 chain under each processing guarantee
+ * Not part of the test suite: it needs a running broker (single-broker setups must allow
+ * transaction.state.log.replication.factor=1). Every run uses fresh topics and application id.
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.ProcessingGuaranteeBenchmark \
+ *     -Dbenchmark.bootstrap=localhost:9092 -Dbenchmark.records=20000 -Dbenchmark.rate=5000 \
+ *     -Dbenchmark.commit-intervals=100,1000,5000
+ *
+ * Latency is consumer receive time minus the event time stamped by the producer, read with
+ * read_committed as the persistence listeners do, so it includes the wait for the transaction
+ * commit under exactly_once_v2.
+ */
+public final class ProcessingGuaranteeBenchmark {
+
+    private static final List<String> GUARANTEES = List.of(StreamsConfig.AT_LEAST_ONCE, StreamsConfig.EXACTLY_ONCE_V2);
+
+    private ProcessingGuaranteeBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        String bootstrap = System.getProperty("benchmark.bootstrap", "localhost:9092");
+        int records = Integer.getInteger("benchmark.records", 20_000);
+        int rate = Integer.getInteger("benchmark.rate", 5_000);
+        long[] commitIntervals = Arrays.stream(System.getProperty("benchmark.commit-intervals", "100,1000,5000").split(","))
+                .mapToLong(interval -> Long.parseLong(interval.trim()))
+                .toArray();
+
+        System.out.printf("records=%d, offered rate=%d/s%n", records, rate);
+        System.out.printf("%-16s %10s %14s %10s %10s %10s%n",
+                "guarantee", "commit-ms", "records/s", "p50-ms", "p99-ms", "max-ms");
+        for (String guarantee : GUARANTEES) {
+            for (long commitInterval : commitIntervals) {
+                Result result = run(bootstrap, guarantee, commitInterval, records, rate);
+                System.out.printf("%-16s %10d %14.0f %10d %10d %10d%n", guarantee, commitInterval,
+                        result.throughput(), result.percentile(0.50), result.percentile(0.99), result.percentile(1.0));
+            }
+        }
+    }
+
+    private static Result run(String bootstrap, String guarantee, long commitIntervalMs, int records, int rate)
+            throws Exception {
+        String runId = guarantee.replace('_', '-') + "-" + commitIntervalMs + "-" + System.currentTimeMillis();
+        String inputTopic = "benchmark-input-" + runId;
+        String outputTopic = "benchmark-output-" + runId;
+
+        Properties adminProps = new Properties();
+        adminProps.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        try (Admin admin = Admin.create(adminProps)) {
+            admin.createTopics(List.of(new NewTopic(inputTopic, 3, (short) 1), new NewTopic(outputTopic, 3, (short) 1)))
+                    .all().get();
+            try {
+                return measure(bootstrap, guarantee, commitIntervalMs, records, rate, runId, inputTopic, outputTopic);
+            } finally {
+                admin.deleteTopics(List.of(inputTopic, outputTopic)).all().get();
+            }
+        }
+    }
+
+    private static Result measure(String bootstrap, String guarantee, long commitIntervalMs, int records, int rate,
+                                  String runId, String inputTopic, String outputTopic) throws Exception {
+        WireFormatSerde<SimpleEvent> serde = new WireFormatSerde<>(SimpleEvent.class);
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream(inputTopic, Consumed.with(Serdes.String(), serde).withTimestampExtractor(new PayloadTimestampExtractor()))
+                .mapValues(event -> new SimpleEvent(event.getId(), "TRANSFORMED: " + event.getPayload(), System.currentTimeMillis()))
+                .to(outputTopic, Produced.with(Serdes.String(), serde));
+
+        Properties streamsProps = new Properties();
+        streamsProps.put(StreamsConfig.APPLICATION_ID_CONFIG, "benchmark-" + runId);
+        streamsProps.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        streamsProps.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, guarantee);
+        streamsProps.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, commitIntervalMs);
+        streamsProps.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, 0);
+        streamsProps.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("benchmark-state").toString());
+        streamsProps.put(StreamsConfig.consumerPrefix(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG), "earliest");
+
+        Properties consumerProps = new Properties();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "benchmark-reader-" + runId);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        Properties producerProps = new Properties();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+
+        try (KafkaStreams streams = new KafkaStreams(builder.build(), streamsProps);
+             KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps, new StringDeserializer(), new StringDeserializer());
+             KafkaProducer<String, SimpleEvent> producer = new KafkaProducer<>(producerProps, new StringSerializer(), serde.serializer())) {
+            streams.start();
+            awaitRunning(streams);
+            consumer.subscribe(List.of(outputTopic));
+
+            Thread sender = new Thread(() -> send(producer, inputTopic, records, rate), "benchmark-sender");
+            long start = System.nanoTime();
+            sender.start();
+
+            long[] latencies = new long[records];
+            int received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60) + TimeUnit.MILLISECONDS.toNanos(records * 1000L / rate);
+            while (received < records && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(100))) {
+                    if (received < records) {
+                        latencies[received++] = System.currentTimeMillis() - record.timestamp();
+                    }
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            sender.join();
+            streams.close(Duration.ofSeconds(30));
+            streams.cleanUp();
+
+            if (received < records) {
+                System.out.printf("  %s/%dms: only %d of %d records arrived before the deadline%n",
+                        guarantee, commitIntervalMs, received, records);
+            }
+            long[] measured = Arrays.copyOf(latencies, received);
+            Arrays.sort(measured);
+            return new Result(received * 1e9 / elapsedNanos, measured);
+        }
+    }
+
+    /**
+     * Paced sender: each event carries its send time as event time, which the topology keeps as record timestamp
+     */
+    private static void send(KafkaProducer<String, SimpleEvent> producer, String topic, int records, int rate) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long next = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            while (System.nanoTime() < next) {
+                Thread.onSpinWait();
+            }
+            String id = "event-" + i;
+            producer.send(new ProducerRecord<>(topic, id, new SimpleEvent(id, "benchmark payload " + i, System.currentTimeMillis())));
+            next += intervalNanos;
+        }
+        producer.flush();
+    }
+
+    private static void awaitRunning(KafkaStreams streams) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (streams.state() != KafkaStreams.State.RUNNING) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Kafka Streams did not reach RUNNING: " + streams.state());
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private record Result(double throughput, long[] sortedLatencies) {
+
+        long percentile(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return -1;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.SimpleEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * CPU time and allocation per request of the serialization work on the publish path, before and
+ * after serializing once
+ * Not part of the test suite. Covers what changed between the two paths, from the request body
+ * bytes to the original_data string and the record value bytes; the database insert, the HTTP
+ * exchange and the producer send are the same for both and are left out.
+ *
+ * before: body to Map, Map to DTO field by field, writeValueAsString for original_data, and
+ *         spring-kafka's JsonSerializer for the record value (plus its type header)
+ * after:  body bound to the DTO, writeValueAsBytes once, the bytes decoded for original_data and
+ *         sent as is by the ByteArraySerializer
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.SerializeOnceBenchmark \
+ *     -Dbenchmark.requests=200000 -Dbenchmark.rounds=5
+ */
+public final class SerializeOnceBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    private SerializeOnceBenchmark() {}
+
+    /**
+     * Runs one request through a path and returns the bytes that would be sent, so nothing is
+     * optimized away
+     */
+    private interface Path {
+        byte[] run(byte[] body) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 200_000);
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(objectMapper);
+        ByteArraySerializer byteArraySerializer = new ByteArraySerializer();
+
+        byte[] simpleBody = ("{\"id\":\"" + UUID.randomUUID() + "\",\"payload\":\"hello world\",\"timestamp\":1640995200000}")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] inboundBody = ("{\"app\":\"TestApp\",\"timestamp\":1640995200000,\"version\":2,\"type\":\"message\","
+                + "\"payload\":{\"id\":\"" + UUID.randomUUID() + "\",\"source\":\"5491100000000\",\"type\":\"text\","
+                + "\"payload\":{\"text\":\"Hola, quisiera saber el estado de mi pedido\"},"
+                + "\"sender\":{\"phone\":\"5491100000000\",\"name\":\"Cliente\",\"country_code\":\"AR\",\"dial_code\":\"+54\"}}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        System.out.printf("requests=%d, best of %d rounds%n", requests, rounds);
+        System.out.printf("%-22s %12s %12s %12s %12s%n", "event", "before ns", "after ns", "before B", "after B");
+        compare("SimpleEvent", simpleBody, requests, rounds,
+                before(objectMapper, jsonSerializer, SerializeOnceBenchmark::toSimpleEvent),
+                after(objectMapper, byteArraySerializer, SimpleEvent.class));
+        compare("InboundMessageEvent", inboundBody, requests, rounds,
+                before(objectMapper, jsonSerializer, SerializeOnceBenchmark::toInboundMessageEvent),
+                after(objectMapper, byteArraySerializer, InboundMessageEvent.class));
+    }
+
+    private static Path before(ObjectMapper objectMapper, JsonSerializer<Object> serializer,
+                               Function<Map<String, Object>, Object> converter) {
+        return body -> {
+            Object event = converter.apply(objectMapper.readValue(body, MAP));
+            String originalData = objectMapper.writeValueAsString(event);
+            byte[] value = serializer.serialize("input-topic", new RecordHeaders(), event);
+            return originalData.length() > 0 ? value : null;
+        };
+    }
+
+    private static Path after(ObjectMapper objectMapper, ByteArraySerializer serializer, Class<?> type) {
+        return body -> {
+            Object event = objectMapper.readValue(body, type);
+            byte[] json = objectMapper.writeValueAsBytes(event);
+            String originalData = new String(json, StandardCharsets.UTF_8);
+            byte[] value = serializer.serialize("input-topic", new RecordHeaders(), json);
+            return originalData.length() > 0 ? value : null;
+        };
+    }
+
+    private static void compare(String name, byte[] body, int requests, int rounds, Path before, Path after) throws Exception {
+        double[] bestBefore = {Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] bestAfter = {Double.MAX_VALUE, Double.MAX_VALUE};
+        // The first round of each is warm-up; the paths take turns so drift hits both
+        for (int round = 0; round <= rounds; round++) {
+            double[] b = measure(before, body, requests);
+            double[] a = measure(after, body, requests);
+            if (round > 0) {
+                bestBefore[0] = Math.min(bestBefore[0], b[0]);
+                bestBefore[1] = Math.min(bestBefore[1], b[1]);
+                bestAfter[0] = Math.min(bestAfter[0], a[0]);
+                bestAfter[1] = Math.min(bestAfter[1], a[1]);
+            }
+        }
+        System.out.printf("%-22s %12.0f %12.0f %12.0f %12.0f%n", name, bestBefore[0], bestAfter[0], bestBefore[1], bestAfter[1]);
+    }
+
+    /**
+     * @return CPU nanoseconds and allocated bytes per request on this thread
+     */
+    private static double[] measure(Path path, byte[] body, int requests) throws Exception {
+        long sink = 0;
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            sink += path.run(body).length;
+        }
+        double[] perRequest = {
+                (double) (THREADS.getCurrentThreadCpuTime() - cpu) / requests,
+                (double) (THREADS.getCurrentThreadAllocatedBytes() - allocated) / requests
+        };
+        if (sink == 0) {
+            throw new IllegalStateException("Nothing was serialized");
+        }
+        return perRequest;
+    }
+
+    // The controller's conversions before the endpoints bound the body to the DTOs
+
+    private static Object toSimpleEvent(Map<String, Object> eventData) {
+        return new SimpleEvent(
+                eventData.get("id") != null ? eventData.get("id").toString() : UUID.randomUUID().toString(),
+                eventData.get("payload") != null ? eventData.get("payload").toString() : "",
+                eventData.get("timestamp") != null ?
+                        Long.valueOf(eventData.get("timestamp").toString()) : System.currentTimeMillis()
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toInboundMessageEvent(Map<String, Object> eventData) {
+        String app = eventData.get("app") != null ? eventData.get("app").toString() : "TestApp";
+        Long timestamp = eventData.get("timestamp") != null ?
+                Long.valueOf(eventData.get("timestamp").toString()) : System.currentTimeMillis();
+        Integer version = eventData.get("version") != null ?
+                Integer.valueOf(eventData.get("version").toString()) : 2;
+        String type = eventData.get("type") != null ? eventData.get("type").toString() : "message";
+
+        Map<String, Object> payloadData = (Map<String, Object>) eventData.get("payload");
+        String messageId = payloadData.get("id") != null ? payloadData.get("id").toString() : "";
+        String source = payloadData.get("source") != null ? payloadData.get("source").toString() : "";
+        String messageType = payloadData.get("type") != null ? payloadData.get("type").toString() : "text";
+
+        Map<String, Object> messageContentData = (Map<String, Object>) payloadData.get("payload");
+        String text = "";
+        if (messageContentData != null && messageContentData.get("text") != null) {
+            text = messageContentData.get("text").toString();
+        }
+
+        Map<String, Object> senderData = (Map<String, Object>) payloadData.get("sender");
+        InboundMessageEvent.Sender sender = null;
+        if (senderData != null) {
+            String phone = senderData.get("phone") != null ? senderData.get("phone").toString() : "";
+            String name = senderData.get("name") != null ? senderData.get("name").toString() : "";
+            String countryCode = senderData.get("country_code") != null ? senderData.get("country_code").toString() : "";
+            String dialCode = senderData.get("dial_code") != null ? senderData.get("dial_code").toString() : "";
+            sender = new InboundMessageEvent.Sender(phone, name, countryCode, dialCode);
+        }
+
+        return new InboundMessageEvent(app, timestamp, version, type, new InboundMessageEvent.MessagePayload(
+                messageId, source, messageType, new InboundMessageEvent.MessageContent(text), sender));
+    }
+}
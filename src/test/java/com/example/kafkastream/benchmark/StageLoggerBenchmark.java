@@ -0,0 +1,96 @@
+package com.example.kafkastream.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.logging.StageLogger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Per-record cost of the pipeline stage logging at 0%, 1% and 100% sampling, next to the
+ * unconditional logger.info call the topology used before
+ * Not part of the test suite. Events are formatted with the console pattern and written to a
+ * discarding stream, so the numbers cover formatting but not terminal or file I/O.
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.StageLoggerBenchmark \
+ *     -Dbenchmark.records=2000000 -Dbenchmark.rounds=5
+ */
+public final class StageLoggerBenchmark {
+
+    private static final double[] SAMPLE_RATES = {0.0, 0.01, 1.0};
+
+    private StageLoggerBenchmark() {}
+
+    public static void main(String[] args) {
+        int records = Integer.getInteger("benchmark.records", 2_000_000);
+        int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+        Logger baseline = discardingLogger("com.example.kafkastream.benchmark.baseline");
+        discardingLogger(StageLogRegistry.LOGGER_NAME);
+        StageLogRegistry registry = new StageLogRegistry(0.0, Integer.MAX_VALUE, Map.of());
+        StageLogger stage = registry.stage("benchmark");
+
+        SimpleEvent[] events = new SimpleEvent[1024];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new SimpleEvent("id-" + i, "payload " + i, System.currentTimeMillis());
+        }
+
+        System.out.printf("records=%d, best of %d rounds%n", records, rounds);
+        System.out.printf("%-22s %12s%n", "variant", "ns/record");
+
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                SimpleEvent event = events[i & (events.length - 1)];
+                baseline.info("Processing input-topic SimpleEvent: key={}, id={}, payload={}",
+                        event.getId(), event.getId(), event.getPayload());
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / records);
+        }
+        System.out.printf("%-22s %12.1f%n", "logger.info (before)", best);
+
+        for (double rate : SAMPLE_RATES) {
+            stage.setSampleRate(rate);
+            best = Double.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < records; i++) {
+                    SimpleEvent event = events[i & (events.length - 1)];
+                    stage.log("received", event.getId(), event, (value, log) -> log.field("id", value.getId()));
+                }
+                best = Math.min(best, (double) (System.nanoTime() - start) / records);
+            }
+            System.out.printf("%-22s %12.1f%n", "sampled " + (rate * 100) + "%", best);
+        }
+    }
+
+    private static Logger discardingLogger(String name) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %5level [%thread] %logger{36} : %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        Logger logger = context.getLogger(name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
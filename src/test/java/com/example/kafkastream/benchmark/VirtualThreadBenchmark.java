@@ -0,0 +1,185 @@
+package com.example.kafkastream.benchmark;
+
+import com.example.kafkastream.config.CorrelationCacheConfig;
+import com.example.kafkastream.config.VirtualThreadsConfig;
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.metrics.VirtualThreadPinning;
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.EventOutbox;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent request capacity and latency of Tomcat on platform threads versus virtual threads
+ * Not part of the test suite. Each variant boots a web context on a random port whose endpoint
+ * binds a SimpleEvent, waits -Dbenchmark.downstream-ms (standing for a blocking call to a remote
+ * database or service, which the in-memory H2 doesn't have) and publishes the event in OUTBOX mode,
+ * i.e. one JPA transaction, as POST /api/events/simple does. -Dbenchmark.concurrency clients, on
+ * virtual threads, send requests back to back for -Dbenchmark.seconds; the platform variant has
+ * Tomcat's -Dbenchmark.platform-threads request threads (200 by default, as Tomcat). Client and
+ * server share this JVM and its CPUs. In the virtual run the pinning report is on, and the sites
+ * it found are printed.
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.kafkastream.benchmark.VirtualThreadBenchmark \
+ *     -Dbenchmark.concurrency=100,400,1600 -Dbenchmark.downstream-ms=1000 -Dbenchmark.seconds=15
+ */
+public final class VirtualThreadBenchmark {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = KafkaAutoConfiguration.class)
+    @EntityScan("com.example.kafkastream.model")
+    @EnableJpaRepositories("com.example.kafkastream.repository")
+    @Import({OriginalEventService.class, EventOutbox.class, CorrelationCacheConfig.class, VirtualThreadsConfig.class,
+            PublishEndpoint.class})
+    static class Web {
+
+        @Bean
+        EventIngestionService eventIngestionService(OriginalEventService originalEventService, EventOutbox eventOutbox,
+                                                    ObjectMapper objectMapper) {
+            // OUTBOX needs no producer
+            return new EventIngestionService(Map.of(), originalEventService, eventOutbox, objectMapper,
+                    new TraceLatencyRecorder(new SimpleMeterRegistry()), new SimpleMeterRegistry(), 1, Duration.ofSeconds(30));
+        }
+    }
+
+    @RestController
+    static class PublishEndpoint {
+
+        private final EventIngestionService eventIngestionService;
+        private final long downstreamMillis = Long.getLong("benchmark.downstream-ms", 50);
+
+        PublishEndpoint(EventIngestionService eventIngestionService) {
+            this.eventIngestionService = eventIngestionService;
+        }
+
+        @PostMapping("/publish")
+        Map<String, Object> publish(@RequestBody SimpleEvent simpleEvent) throws IOException, InterruptedException {
+            Thread.sleep(downstreamMillis);
+            EventIngestionService.Delivery delivery = eventIngestionService.ingest(new EventIngestionService.Event("SimpleEvent",
+                    "input-topic", "content-transformation", simpleEvent.getId(), simpleEvent), DeliveryMode.OUTBOX).join();
+            return Map.of("originalEventId", delivery.originalEvent().getId());
+        }
+    }
+
+    private VirtualThreadBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int[] concurrencies = Arrays.stream(System.getProperty("benchmark.concurrency", "100,400,1600").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int seconds = Integer.getInteger("benchmark.seconds", 10);
+        int platformThreads = Integer.getInteger("benchmark.platform-threads", 200);
+
+        System.out.printf("downstream=%dms, %ds per run, platform request threads=%d, CPUs=%d%n",
+                Long.getLong("benchmark.downstream-ms", 50), seconds, platformThreads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %12s %12s %10s %10s %10s %8s%n", "threads", "concurrency", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            // Passed as arguments so they take precedence over application.yml
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Web.class).run(
+                    "--server.port=0", "--spring.threads.virtual.enabled=" + virtual,
+                    "--server.tomcat.threads.max=" + platformThreads, "--app.threads.virtual.pinning-threshold=1ms",
+                    "--spring.jpa.show-sql=false", "--logging.level.root=WARN", "--logging.level.com.example.kafkastream=WARN")) {
+                URI uri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/publish");
+                // Warm-up: connections, JIT
+                run(uri, 50, 3);
+                for (int concurrency : concurrencies) {
+                    long[] latencies = run(uri, concurrency, seconds);
+                    int errors = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+                    long[] ok = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+                    System.out.printf("%-9s %12d %12.0f %10.2f %10.2f %10.2f %8d%n", virtual ? "virtual" : "platform",
+                            concurrency, ok.length / (double) seconds, percentile(ok, 0.5), percentile(ok, 0.99),
+                            ok.length == 0 ? 0 : ok[ok.length - 1] / 1e6, errors);
+                }
+                context.getBeanProvider(VirtualThreadPinning.class).ifAvailable(pinning -> {
+                    System.out.printf("pinned sites (>= 1ms): %d%n", pinning.report().size());
+                    pinning.report().forEach(site -> System.out.printf("  %s count=%s max=%sms%n",
+                            site.get("site"), site.get("count"), site.get("maxMs")));
+                });
+            }
+        }
+    }
+
+    /**
+     * Clients send requests back to back until the time is up
+     * @return request-to-response nanoseconds of every request answered within the time, -1 for failed ones
+     */
+    private static long[] run(URI uri, int concurrency, int seconds) throws Exception {
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicInteger ids = new AtomicInteger();
+        List<Future<List<Long>>> clients = new ArrayList<>();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.add(threads.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < end) {
+                        String id = UUID.randomUUID().toString();
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofSeconds(60))
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"id\":\"" + id + "\",\"payload\":\"hello " + ids.incrementAndGet() + "\",\"timestamp\":1640995200000}"))
+                                .build();
+                        long start = System.nanoTime();
+                        long latency;
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            latency = response.statusCode() == 200 ? System.nanoTime() - start : -1L;
+                        } catch (IOException e) {
+                            latency = -1L;
+                        }
+                        // Requests still in flight when the time is up don't count towards the rate
+                        if (System.nanoTime() <= end) {
+                            latencies.add(latency);
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            List<Long> all = new ArrayList<>();
+            for (Future<List<Long>> client : clients) {
+                all.addAll(client.get());
+            }
+            return all.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.dlq.DeadLetterHeaders;
+import com.example.kafkastream.dto.CreateChatEvent;
+import com.example.kafkastream.dto.CreateMessageEvent;
+import com.example.kafkastream.dto.GenericAction;
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.processor.ChatEventDedupProcessor;
+import com.example.kafkastream.processor.InboundMessageDedupProcessor;
+import com.example.kafkastream.processor.InboundMessageFanOutProcessor;
+import com.example.kafkastream.processor.LateRecordRouter;
+import com.example.kafkastream.serde.WireFormatSerde;
+import com.example.kafkastream.trace.TraceHeaders;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyDescription;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Topology tests for KafkaStreamsConfig using TopologyTestDriver
+ */
+class KafkaStreamsTopologyTest {
+
+    private Topology topology;
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, String> inboundTopic;
+    private TestOutputTopic<String, CreateChatEvent> chatTopic;
+    private TestOutputTopic<String, CreateMessageEvent> messageTopic;
+    private TestInputTopic<String, String> actionsTopic;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaStreamsConfig config = new KafkaStreamsConfig(new StageLogRegistry(1.0, Integer.MAX_VALUE, Map.of()),
+                new PipelineMetrics(meterRegistry, 1.0));
+        ReflectionTestUtils.setField(config, "inputTopic", "input-topic");
+        ReflectionTestUtils.setField(config, "legacyEventsTopic", "legacy-events-topic");
+        ReflectionTestUtils.setField(config, "actionsTopic", "actions-topic");
+        ReflectionTestUtils.setField(config, "outputTopicTransformed", "output-topic-transformed");
+        ReflectionTestUtils.setField(config, "outputTopicJsonConverted", "output-topic-json-converted");
+        ReflectionTestUtils.setField(config, "inboundMessageTopic", "inbound-message-topic");
+        ReflectionTestUtils.setField(config, "createChatTopic", "create-chat-topic");
+        ReflectionTestUtils.setField(config, "createMessageTopic", "create-message-topic");
+        ReflectionTestUtils.setField(config, "wireFormat", "json");
+        ReflectionTestUtils.setField(config, "chatDedupTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(config, "inboundDedupWindow", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(config, "eventTimeGrace", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(config, "inboundMessageLateTopic", "inbound-message-late-topic");
+        ReflectionTestUtils.setField(config, "deadLetterTopicSuffix", "-dlq");
+
+        ActionRoutingProperties actionRouting = new ActionRoutingProperties();
+        actionRouting.setDefaultTopic("output-topic-action-unmatched");
+        actionRouting.getRoutes().put("A", new ActionRoutingProperties.Route("output-topic-action-a", "ACTION_A_PROCESSED: "));
+        actionRouting.getRoutes().put("B", new ActionRoutingProperties.Route("output-topic-action-b", "ACTION_B_PROCESSED: "));
+
+        // All use cases co-located in one topology; in the application each runs as its own KafkaStreams instance
+        StreamsBuilder builder = new StreamsBuilder();
+        config.transformContent(builder);
+        config.convertSchema(builder);
+        config.routeActions(builder, actionRouting);
+        config.processInboundMessages(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "topology-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        topology = builder.build();
+        driver = new TopologyTestDriver(topology, props);
+
+        inboundTopic = driver.createInputTopic("inbound-message-topic", new StringSerializer(), new StringSerializer());
+        chatTopic = driver.createOutputTopic("create-chat-topic", new StringDeserializer(),
+                new WireFormatSerde<>(CreateChatEvent.class).deserializer());
+        messageTopic = driver.createOutputTopic("create-message-topic", new StringDeserializer(),
+                new WireFormatSerde<>(CreateMessageEvent.class).deserializer());
+        actionsTopic = driver.createInputTopic("actions-topic", new StringSerializer(), new StringSerializer());
+    }
+
+    private TestOutputTopic<String, GenericAction> actionOutput(String topic) {
+        return driver.createOutputTopic(topic, new StringDeserializer(),
+                new WireFormatSerde<>(GenericAction.class).deserializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void testInboundMessageFansOutToChatAndMessageTopics() throws Exception {
+        inboundTopic.pipeInput("wamid.1", Files.readString(Path.of("examples/inbound-message-event.json")));
+
+        CreateChatEvent chat = chatTopic.readValue();
+        assertEquals("123456789011", chat.getChatId());
+        assertEquals("Online UserName", chat.getUserName());
+        assertEquals(1747854609182L, chat.getCreatedAt());
+
+        CreateMessageEvent message = messageTopic.readValue();
+        assertEquals("wamid.HBgMNTkzxhgfjg3Nxc5NzU3FZCqEazxcE1ODg0QUIzQTg4NjUa4NUR1BQzYB", message.getMessageId());
+        assertEquals("123456789011", message.getChatId());
+        assertEquals("3", message.getContent());
+
+        assertTrue(chatTopic.isEmpty());
+        assertTrue(messageTopic.isEmpty());
+    }
+
+    @Test
+    void testInboundMessageWithoutSenderGoesToDeadLetterTopic() {
+        TestOutputTopic<String, String> deadLetterTopic = driver.createOutputTopic("inbound-message-topic-dlq",
+                new StringDeserializer(), new StringDeserializer());
+
+        String inboundMessage = "{\"app\":\"TestApp\",\"version\":2,\"timestamp\":1,\"type\":\"message\"," +
+                "\"payload\":{\"id\":\"m1\",\"source\":\"c1\",\"context\":{\"x\":1}}}";
+        inboundTopic.pipeInput("m1", inboundMessage);
+
+        assertTrue(chatTopic.isEmpty());
+        assertTrue(messageTopic.isEmpty());
+
+        TestRecord<String, String> deadLetter = deadLetterTopic.readRecord();
+        assertEquals("m1", deadLetter.key());
+        // The original record, not the fields the topology decoded, so a replay republishes it whole
+        assertEquals(inboundMessage, deadLetter.value());
+        Headers headers = deadLetter.headers();
+        assertEquals("PROCESSING", DeadLetterHeaders.value(headers, DeadLetterHeaders.ERROR_CATEGORY));
+        assertEquals(IllegalArgumentException.class.getName(), DeadLetterHeaders.value(headers, DeadLetterHeaders.EXCEPTION_CLASS));
+        assertEquals(InboundMessageFanOutProcessor.NAME, DeadLetterHeaders.value(headers, DeadLetterHeaders.PROCESSOR));
+        assertEquals("inbound-message-topic", DeadLetterHeaders.value(headers, DeadLetterHeaders.SOURCE_TOPIC));
+        assertEquals("0", DeadLetterHeaders.value(headers, DeadLetterHeaders.SOURCE_OFFSET));
+        assertEquals("inbound-message-topic", DeadLetterHeaders.value(headers, DeadLetterHeaders.REPLAY_TOPIC));
+        assertTrue(deadLetterTopic.isEmpty());
+        assertEquals(1.0, meterRegistry.get(PipelineMetrics.ERRORS).tag("node", InboundMessageFanOutProcessor.NAME).counter().count());
+    }
+
+    @Test
+    void testEveryPhaseOfANodeIsTimed() throws Exception {
+        inboundTopic.pipeInput("wamid.1", Files.readString(Path.of("examples/inbound-message-event.json")));
+
+        assertEquals(1, timer("inbound-message-topic", "deserialize").count());
+        assertEquals(1, timer(InboundMessageFanOutProcessor.NAME, "transform").count());
+        assertEquals(1, timer(KafkaStreamsConfig.CREATE_CHAT_DEDUP, "transform").count());
+        assertEquals(1, timer(KafkaStreamsConfig.CREATE_MESSAGE_SINK, "serialize").count());
+        assertEquals(0.0, meterRegistry.get(PipelineMetrics.ERRORS).tag("node", InboundMessageFanOutProcessor.NAME).counter().count());
+    }
+
+    private Timer timer(String node, String phase) {
+        return meterRegistry.get(PipelineMetrics.LATENCY)
+                .tags("pipeline", KafkaStreamsConfig.INBOUND_MESSAGE, "node", node, "phase", phase)
+                .timer();
+    }
+
+    @Test
+    void testActionsAreRoutedByTypeInOnePass() {
+        actionsTopic.pipeInput("k1", "{\"actionType\":\"A\",\"details\":\"one\"}");
+        actionsTopic.pipeInput("k2", "{\"actionType\":\"b\",\"details\":\"two\"}");
+        actionsTopic.pipeInput("k3", "{\"actionType\":\"C\",\"details\":\"three\"}");
+
+        TestOutputTopic<String, GenericAction> actionA = actionOutput("output-topic-action-a");
+        TestOutputTopic<String, GenericAction> actionB = actionOutput("output-topic-action-b");
+        TestOutputTopic<String, GenericAction> unmatched = actionOutput("output-topic-action-unmatched");
+
+        assertEquals("ACTION_A_PROCESSED: one", actionA.readValue().getDetails());
+        assertEquals("ACTION_B_PROCESSED: two", actionB.readValue().getDetails());
+        assertEquals("three", unmatched.readValue().getDetails());
+        assertTrue(actionA.isEmpty());
+        assertTrue(actionB.isEmpty());
+        assertTrue(unmatched.isEmpty());
+    }
+
+    @Test
+    void testTracedRecordsAreStampedOnTheWayInAndOut() {
+        RecordHeaders headers = new RecordHeaders();
+        long ingestNanos = TraceHeaders.epochNanos();
+        TraceHeaders.start(headers, "trace-1", ingestNanos);
+        actionsTopic.pipeInput(new TestRecord<>("k1", "{\"actionType\":\"A\",\"details\":\"one\"}", headers));
+        actionsTopic.pipeInput("k2", "{\"actionType\":\"A\",\"details\":\"two\"}");
+
+        TestOutputTopic<String, GenericAction> actionA = actionOutput("output-topic-action-a");
+        Headers traced = actionA.readRecord().headers();
+        assertEquals("trace-1", TraceHeaders.value(traced, TraceHeaders.CORRELATION_ID));
+        long streamIn = Long.parseLong(TraceHeaders.value(traced, TraceHeaders.STREAM_IN_NANOS));
+        long streamOut = Long.parseLong(TraceHeaders.value(traced, TraceHeaders.STREAM_OUT_NANOS));
+        assertTrue(ingestNanos <= streamIn);
+        assertTrue(streamIn <= streamOut);
+
+        Headers untraced = actionA.readRecord().headers();
+        assertNull(untraced.lastHeader(TraceHeaders.STREAM_IN_NANOS));
+        assertNull(untraced.lastHeader(TraceHeaders.STREAM_OUT_NANOS));
+    }
+
+    private static String inboundMessage(String messageId, String senderName, long timestamp) {
+        return String.format("{\"timestamp\":%d,\"payload\":{\"id\":\"%s\",\"source\":\"chat-1\",\"type\":\"text\"," +
+                "\"payload\":{\"text\":\"hi\"},\"sender\":{\"phone\":\"p\",\"name\":\"%s\"}}}",
+                timestamp, messageId, senderName);
+    }
+
+    @Test
+    void testChatEventsAreDeduplicatedByChatId() {
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+        inboundTopic.pipeInput("m1", inboundMessage("m1", "Alice", start));
+        inboundTopic.pipeInput("m2", inboundMessage("m2", "Alice", start + 10_000));
+        inboundTopic.pipeInput("m3", inboundMessage("m3", "Alice B.", start + 20_000));
+        inboundTopic.pipeInput("m4", inboundMessage("m4", "Alice B.", start + 2 * 3_600_000));
+
+        assertEquals("Alice", chatTopic.readValue().getUserName());
+        assertEquals("Alice B.", chatTopic.readValue().getUserName());
+        assertEquals("Alice B.", chatTopic.readValue().getUserName()); // re-emitted after the TTL
+        assertTrue(chatTopic.isEmpty());
+        assertEquals(4, messageTopic.getQueueSize());
+    }
+
+    @Test
+    void testChatEventsAreRepartitionedByChatIdBeforeDeduplication() {
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+        inboundTopic.pipeInput("m1", inboundMessage("m1", "Alice", start));
+        inboundTopic.pipeInput("m2", inboundMessage("m2", "Alice", start + 10_000));
+
+        // One chat event, still keyed by the message that created it
+        assertEquals("m1", chatTopic.readKeyValue().key);
+        assertTrue(chatTopic.isEmpty());
+
+        // The dedup node reads the repartition topic, where records go by chat id whatever their key
+        TopologyDescription.Subtopology dedup = topology.describe().subtopologies().stream()
+                .filter(subtopology -> subtopology.nodes().stream()
+                        .anyMatch(node -> node.name().equals(KafkaStreamsConfig.CREATE_CHAT_DEDUP)))
+                .findFirst().orElseThrow();
+        assertTrue(dedup.nodes().stream()
+                .filter(TopologyDescription.Source.class::isInstance)
+                .flatMap(node -> ((TopologyDescription.Source) node).topicSet().stream())
+                .allMatch(topic -> topic.equals(KafkaStreamsConfig.CREATE_CHAT_BY_CHAT_ID + "-repartition")));
+        CreateChatEvent chatEvent = new CreateChatEvent("chat-1", "Alice", "p", null, null, start);
+        var partitioner = ChatEventDedupProcessor.partitioner();
+        Optional<Set<Integer>> partitions = partitioner.partitions("t", "m1", chatEvent, 3);
+        assertEquals(1, partitions.orElseThrow().size());
+        for (int i = 2; i < 50; i++) {
+            assertEquals(partitions, partitioner.partitions("t", "m" + i, chatEvent, 3));
+        }
+    }
+
+    @Test
+    void testRedeliveredInboundMessagesAreDropped() {
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+        inboundTopic.pipeInput("wamid.1", inboundMessage("wamid.1", "Alice", start));
+        inboundTopic.pipeInput("wamid.1", inboundMessage("wamid.1", "Alice", start + 60_000));
+
+        assertEquals(1, messageTopic.getQueueSize());
+        assertEquals(1.0, streamsMetric(InboundMessageDedupProcessor.METRICS_SCOPE, "hit-total"));
+        assertEquals(1.0, streamsMetric(InboundMessageDedupProcessor.METRICS_SCOPE, "miss-total"));
+
+        // Outside the window the id is treated as new again
+        inboundTopic.pipeInput("wamid.1", inboundMessage("wamid.1", "Alice", start + 3_600_000));
+        assertEquals(2, messageTopic.getQueueSize());
+    }
+
+    @Test
+    void testEventTimeComesFromPayloadAndLateRecordsAreDiverted() {
+        TestOutputTopic<String, String> lateTopic = driver.createOutputTopic("inbound-message-late-topic",
+                new StringDeserializer(), new StringDeserializer());
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+        inboundTopic.pipeInput("m1", inboundMessage("m1", "Alice", start + 600_000));
+        inboundTopic.pipeInput("m2", inboundMessage("m2", "Alice", start + 400_000)); // within 5m grace
+        String late = "{\"app\":\"TestApp\",\"version\":2," + inboundMessage("m3", "Alice", start).substring(1);
+        inboundTopic.pipeInput("m3", late);                                            // 10m behind stream time
+
+        assertEquals(start + 600_000, messageTopic.readRecord().timestamp());
+        assertEquals(start + 400_000, messageTopic.readRecord().timestamp());
+        assertTrue(messageTopic.isEmpty());
+        KeyValue<String, String> lateRecord = lateTopic.readKeyValue();
+        assertEquals("m3", lateRecord.key);
+        // Diverted as read, with every field of the original event
+        assertEquals(late, lateRecord.value);
+        assertEquals(1.0, streamsMetric(LateRecordRouter.METRICS_SCOPE, "late-total"));
+    }
+
+    private double streamsMetric(String scope, String name) {
+        return driver.metrics().entrySet().stream()
+                .filter(e -> e.getKey().name().equals(name)
+                        && e.getKey().group().equals("stream-" + scope + "-metrics"))
+                .mapToDouble(e -> ((Number) e.getValue().metricValue()).doubleValue())
+                .sum();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.kafkastream.config;
+
+import com.example.kafkastream.dlq.DeadLetterPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-use-case Kafka Streams application properties
+ */
+class StreamsApplicationFactoryTest {
+
+    private static final Map<String, Object> BASE = Map.of(
+            StreamsConfig.APPLICATION_ID_CONFIG, "kafka-streams-poc-app",
+            StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092",
+            StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 1000);
+
+    @Test
+    void testApplicationSettingsOverrideSharedProperties() {
+        StreamsApplicationProperties.Application inbound = new StreamsApplicationProperties.Application();
+        inbound.setApplicationId("inbound-app");
+        inbound.setNumStreamThreads(3);
+        inbound.setCommitIntervalMs(100L);
+        inbound.setCacheMaxBytes(0L);
+        inbound.getProperties().put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2);
+        StreamsApplicationProperties applications = new StreamsApplicationProperties();
+        applications.getApplications().put("inbound-message", inbound);
+
+        Map<String, Object> properties = new StreamsApplicationFactory(BASE, applications, new SimpleMeterRegistry()).properties("inbound-message");
+
+        assertEquals("inbound-app", properties.get(StreamsConfig.APPLICATION_ID_CONFIG));
+        assertEquals(3, properties.get(StreamsConfig.NUM_STREAM_THREADS_CONFIG));
+        assertEquals(100L, properties.get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG));
+        assertEquals(0L, properties.get(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG));
+        assertEquals(StreamsConfig.EXACTLY_ONCE_V2, properties.get(StreamsConfig.PROCESSING_GUARANTEE_CONFIG));
+        assertEquals("localhost:9092", properties.get(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG));
+    }
+
+    @Test
+    void testUnconfiguredApplicationDerivesItsIdFromSharedId() {
+        Map<String, Object> properties = new StreamsApplicationFactory(BASE, new StreamsApplicationProperties(), new SimpleMeterRegistry())
+                .properties("action-routing");
+
+        assertEquals("kafka-streams-poc-app-action-routing", properties.get(StreamsConfig.APPLICATION_ID_CONFIG));
+        assertEquals(1000, properties.get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG));
+        assertFalse(properties.containsKey(StreamsConfig.NUM_STREAM_THREADS_CONFIG));
+    }
+
+    @Test
+    void testEachApplicationHasItsOwnDeadLetterPublisher() {
+        StreamsApplicationFactory factory = new StreamsApplicationFactory(BASE, new StreamsApplicationProperties(), new SimpleMeterRegistry());
+
+        Properties inbound = factory.create("inbound-message", builder -> {}).getStreamsConfiguration();
+        Properties routing = factory.create("action-routing", builder -> {}).getStreamsConfiguration();
+
+        Object inboundPublisher = inbound.get(DeadLetterPublisher.PUBLISHER_CONFIG);
+        assertInstanceOf(DeadLetterPublisher.class, inboundPublisher);
+        assertInstanceOf(DeadLetterPublisher.class, routing.get(DeadLetterPublisher.PUBLISHER_CONFIG));
+        assertNotSame(inboundPublisher, routing.get(DeadLetterPublisher.PUBLISHER_CONFIG));
+    }
+}
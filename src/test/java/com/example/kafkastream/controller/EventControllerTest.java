@@ -0,0 +1,64 @@
+package com.example.kafkastream.controller;
+
+import com.example.kafkastream.config.DeliveryProperties;
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.service.DeliveryMode;
+import com.example.kafkastream.service.EventExportService;
+import com.example.kafkastream.service.EventIngestionService;
+import com.example.kafkastream.service.OriginalEventService;
+import com.example.kafkastream.service.ProcessedEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the publish endpoints
+ */
+class EventControllerTest {
+
+    private EventIngestionService eventIngestionService;
+    private EventController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        eventIngestionService = mock(EventIngestionService.class);
+        when(eventIngestionService.ingest(any(), eq(DeliveryMode.OUTBOX))).thenAnswer(invocation -> {
+            EventIngestionService.Event event = invocation.getArgument(0);
+            OriginalEvent originalEvent = new OriginalEvent(event.key(), event.eventType(), event.topic(), "{}");
+            originalEvent.setId(1L);
+            return CompletableFuture.completedFuture(
+                    new EventIngestionService.Delivery(originalEvent, DeliveryMode.OUTBOX, null, 0, null));
+        });
+        controller = new EventController(mock(ProcessedEventService.class), mock(OriginalEventService.class),
+                mock(EventExportService.class), eventIngestionService, new DeliveryProperties());
+        ReflectionTestUtils.setField(controller, "inboundMessageTopic", "inbound-message-topic");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInboundMessageWithoutSenderIsPublished() throws Exception {
+        InboundMessageEvent inboundMessageEvent = new InboundMessageEvent("TestApp", 1L, 2, "message",
+                new InboundMessageEvent.MessagePayload("m1", "chat-1", "text", new InboundMessageEvent.MessageContent("hi"), null));
+
+        ResponseEntity<Map<String, Object>> response = controller.publishInboundMessageEvent(inboundMessageEvent).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("success", response.getBody().get("status"));
+        assertEquals("", ((Map<String, Object>) response.getBody().get("data")).get("senderName"));
+        ArgumentCaptor<EventIngestionService.Event> published = ArgumentCaptor.forClass(EventIngestionService.Event.class);
+        verify(eventIngestionService).ingest(published.capture(), eq(DeliveryMode.OUTBOX));
+        assertEquals("m1", published.getValue().key());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.kafkastream.dlq;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.errors.DeserializationExceptionHandler.DeserializationHandlerResponse;
+import org.apache.kafka.streams.errors.ErrorHandlerContext;
+import org.apache.kafka.streams.errors.ProductionExceptionHandler.ProductionExceptionHandlerResponse;
+import org.apache.kafka.streams.errors.ProductionExceptionHandler.SerializationExceptionOrigin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the dead-letter deserialization and production exception handlers
+ */
+class DeadLetterExceptionHandlerTest {
+
+    private MockProducer<byte[], byte[]> producer;
+    private DeadLetterPublisher publisher;
+    private ErrorHandlerContext context;
+
+    @BeforeEach
+    void setUp() {
+        producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        publisher = new DeadLetterPublisher(() -> producer, "-dlq");
+        context = mock(ErrorHandlerContext.class);
+        when(context.topic()).thenReturn("input-topic");
+        when(context.partition()).thenReturn(2);
+        when(context.offset()).thenReturn(41L);
+        when(context.processorNodeId()).thenReturn("KSTREAM-SOURCE-0000000000");
+    }
+
+    @Test
+    void testUndecodableRecordIsDeadLetteredWithOriginalBytes() {
+        byte[] value = "{not json".getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>("input-topic", 2, 41L,
+                "k1".getBytes(StandardCharsets.UTF_8), value);
+
+        DeserializationHandlerResponse response = new DeadLetterDeserializationExceptionHandler(publisher)
+                .handle(context, record, new SerializationException("bad json"));
+
+        assertEquals(DeserializationHandlerResponse.CONTINUE, response);
+        ProducerRecord<byte[], byte[]> deadLetter = producer.history().get(0);
+        assertEquals("input-topic-dlq", deadLetter.topic());
+        assertArrayEquals(value, deadLetter.value());
+        assertEquals("DESERIALIZATION", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.ERROR_CATEGORY));
+        assertEquals(SerializationException.class.getName(),
+                DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.EXCEPTION_CLASS));
+        assertEquals("2", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.SOURCE_PARTITION));
+        assertEquals("41", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.SOURCE_OFFSET));
+        assertEquals("input-topic", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.REPLAY_TOPIC));
+    }
+
+    @Test
+    void testHandlerFailsWhenDeadLetterCannotBeWritten() {
+        producer.close();
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>("input-topic", 2, 41L, null, new byte[] {1});
+
+        assertEquals(DeserializationHandlerResponse.FAIL, new DeadLetterDeserializationExceptionHandler(publisher)
+                .handle(context, record, new SerializationException("bad json")));
+    }
+
+    @Test
+    void testRejectedOutputIsDeadLetteredWithSinkTopicAsReplayTarget() {
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>("output-topic-transformed", new byte[] {1, 2});
+        DeadLetterProductionExceptionHandler handler = new DeadLetterProductionExceptionHandler(publisher);
+
+        assertEquals(ProductionExceptionHandlerResponse.CONTINUE,
+                handler.handle(context, record, new RecordTooLargeException("too large")));
+        ProducerRecord<byte[], byte[]> deadLetter = producer.history().get(0);
+        assertEquals("input-topic-dlq", deadLetter.topic());
+        assertEquals("PRODUCTION", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.ERROR_CATEGORY));
+        assertEquals("output-topic-transformed", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.REPLAY_TOPIC));
+
+        // Retriable errors stay with Kafka Streams
+        assertEquals(ProductionExceptionHandlerResponse.FAIL,
+                handler.handle(context, record, new TimeoutException("timeout")));
+        assertEquals(1, producer.history().size());
+    }
+
+    @Test
+    void testUnencodableOutputIsDeadLetteredWithoutReplayTarget() {
+        ProducerRecord<String, Object> record = new ProducerRecord<>("output-topic-transformed", "k1", new Object());
+
+        assertEquals(ProductionExceptionHandlerResponse.CONTINUE, new DeadLetterProductionExceptionHandler(publisher)
+                .handleSerializationException(context, record, new SerializationException("no serializer"),
+                        SerializationExceptionOrigin.VALUE));
+        ProducerRecord<byte[], byte[]> deadLetter = producer.history().get(0);
+        assertEquals("SERIALIZATION", DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.ERROR_CATEGORY));
+        assertArrayEquals("k1".getBytes(StandardCharsets.UTF_8), deadLetter.key());
+        assertNull(deadLetter.value());
+        assertNull(DeadLetterHeaders.value(deadLetter.headers(), DeadLetterHeaders.REPLAY_TOPIC));
+    }
+
+    @Test
+    void testHandlersUseTheirApplicationsPublisherWhichReopensAfterClose() {
+        List<MockProducer<byte[], byte[]>> producers = new ArrayList<>();
+        DeadLetterPublisher applicationPublisher = new DeadLetterPublisher(() -> {
+            producers.add(new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer()));
+            return producers.get(producers.size() - 1);
+        }, "-dlq");
+        DeadLetterDeserializationExceptionHandler handler = new DeadLetterDeserializationExceptionHandler();
+        handler.configure(Map.of(DeadLetterPublisher.PUBLISHER_CONFIG, applicationPublisher));
+        ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>("input-topic", 2, 41L, null, new byte[] {1});
+
+        // No producer until the first dead letter
+        assertTrue(producers.isEmpty());
+        assertEquals(DeserializationHandlerResponse.CONTINUE, handler.handle(context, record, new SerializationException("bad json")));
+        assertEquals(1, producers.get(0).history().size());
+
+        applicationPublisher.close();
+        assertTrue(producers.get(0).closed());
+        assertEquals(DeserializationHandlerResponse.CONTINUE, handler.handle(context, record, new SerializationException("bad json")));
+        assertEquals(2, producers.size());
+    }
+
+    @Test
+    void testHandlerWithoutAPublisherFailsToConfigure() {
+        assertThrows(ConfigException.class, () -> new DeadLetterProductionExceptionHandler().configure(Map.of()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.kafkastream.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sampled pipeline stage logging
+ */
+class StageLoggerTest {
+
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        logger = (Logger) LoggerFactory.getLogger(StageLoggerTest.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void testUnsampledRecordsNeverEvaluateFields() {
+        StageLogger stage = new StageLogger(logger, "off", 0.0, Integer.MAX_VALUE);
+        AtomicInteger evaluated = new AtomicInteger();
+
+        for (int i = 0; i < 1000; i++) {
+            stage.log("received", "key-" + i, i, (value, event) -> evaluated.incrementAndGet());
+        }
+
+        assertEquals(0, evaluated.get());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void testSampledRecordCarriesStageKeyAndFields() {
+        StageLogger stage = new StageLogger(logger, "inbound-message", 1.0, Integer.MAX_VALUE);
+
+        stage.log("received", "chat-1", "msg-1", (value, event) -> event.field("messageId", value));
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals("received stage=inbound-message key=chat-1 messageId=msg-1", event.getFormattedMessage());
+        assertEquals(3, event.getKeyValuePairs().size());
+    }
+
+    @Test
+    void testRateLimitReportsSuppressedRecords() {
+        StageLogger stage = new StageLogger(logger, "limited", 1.0, 2);
+
+        for (int i = 0; i < 5; i++) {
+            stage.log("received", i, i, (value, event) -> { });
+        }
+
+        // Either all five land in one second (2 written, 3 suppressed) or the window rolls over
+        assertTrue(appender.list.size() >= 2 && appender.list.size() <= 5);
+        assertTrue(appender.list.size() < 5 || appender.list.stream()
+                .anyMatch(event -> event.getFormattedMessage().contains("suppressed=")));
+    }
+
+    @Test
+    void testRegistryRejectsUnknownStageAndInvalidRate() {
+        StageLogRegistry registry = new StageLogRegistry(0.01, 100, Map.of("inbound-message", 0.5));
+
+        assertEquals(0.5, registry.stage("inbound-message").getSampleRate());
+        assertEquals(0.01, registry.stage("route-actions").getSampleRate());
+        assertEquals(0.2, registry.setSampleRate("route-actions", 0.2).getSampleRate());
+        assertThrows(IllegalArgumentException.class, () -> registry.setSampleRate("unknown", 0.5));
+        assertThrows(IllegalArgumentException.class, () -> registry.setSampleRate("inbound-message", 1.5));
+    }
+}
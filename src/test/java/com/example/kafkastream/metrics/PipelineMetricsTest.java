@@ -0,0 +1,59 @@
+package com.example.kafkastream.metrics;
+
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.serde.WireFormatSerde;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the timed serde wrappers
+ */
+class PipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(registry, 1.0);
+
+    @Test
+    void testSerdeTimesBothDirections() {
+        Serde<SimpleEvent> serde = metrics.serde("content-transformation", "input-topic", new WireFormatSerde<>(SimpleEvent.class));
+
+        byte[] bytes = serde.serializer().serialize("input-topic", new RecordHeaders(), new SimpleEvent("1", "hello", 1L));
+        SimpleEvent event = serde.deserializer().deserialize("input-topic", new RecordHeaders(), bytes);
+
+        assertEquals("hello", event.getPayload());
+        assertEquals(1, registry.get(PipelineMetrics.LATENCY).tag("phase", "serialize").timer().count());
+        assertEquals(1, registry.get(PipelineMetrics.LATENCY).tag("phase", "deserialize").timer().count());
+    }
+
+    @Test
+    void testDeserializationFailureIsCountedAndRethrown() {
+        Serde<SimpleEvent> serde = metrics.serde("content-transformation", "input-topic", new WireFormatSerde<>(SimpleEvent.class));
+        byte[] garbage = "{not json".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(SerializationException.class,
+                () -> serde.deserializer().deserialize("input-topic", new RecordHeaders(), garbage));
+
+        assertEquals(1.0, registry.get(PipelineMetrics.ERRORS).tag("phase", "deserialize").counter().count());
+        assertEquals(1, registry.get(PipelineMetrics.LATENCY).tag("phase", "deserialize").timer().count());
+    }
+
+    @Test
+    void testUnsampledRecordsAreCountedButNotTimed() {
+        Serde<SimpleEvent> serde = new PipelineMetrics(registry, 0.0)
+                .serde("content-transformation", "transformed-sink", new WireFormatSerde<>(SimpleEvent.class));
+
+        for (int i = 0; i < 10; i++) {
+            serde.serializer().serialize("output-topic-transformed", new RecordHeaders(), new SimpleEvent("1", "hello", 1L));
+        }
+
+        assertEquals(10.0, registry.get(PipelineMetrics.RECORDS).tag("phase", "serialize").counter().count());
+        assertEquals(0, registry.get(PipelineMetrics.LATENCY).tag("phase", "serialize").timer().count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.kafkastream.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the virtual-thread pinning report
+ */
+class VirtualThreadPinningTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinning pinning;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pinning = new VirtualThreadPinning(meterRegistry, Duration.ofMillis(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pinning.stop();
+    }
+
+    @Test
+    void testSitesAreGroupedByTheFirstFrameOutsideTheJdk() {
+        List<String> stack = List.of("java.lang.VirtualThread.parkOnCarrierThread:675", "java.lang.Thread.sleep:590",
+                "org.h2.engine.SessionLocal.lock:120", "org.hibernate.Session.flush:10");
+        pinning.record(stack, Duration.ofMillis(30));
+        pinning.record(stack, Duration.ofMillis(10));
+
+        List<Map<String, Object>> report = pinning.report();
+        assertEquals(1, report.size());
+        assertEquals("org.h2.engine.SessionLocal.lock:120", report.get(0).get("site"));
+        assertEquals(2L, report.get(0).get("count"));
+        assertEquals(30.0, report.get(0).get("maxMs"));
+        assertEquals(2, meterRegistry.get(VirtualThreadPinning.PINNED_METER).timer().count());
+    }
+
+    @Test
+    void testBlockingInsideSynchronizedOnAVirtualThreadIsReported() throws InterruptedException {
+        pinning.start();
+        Object monitor = new Object();
+        ReentrantLock lock = new ReentrantLock();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pinning.report().isEmpty() && System.nanoTime() < deadline) {
+            Thread.ofVirtual().start(() -> {
+                // Not pinned: waiting on a j.u.c lock unmounts the virtual thread
+                lock.lock();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlock();
+                }
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+            // Recording streams deliver events about once a second
+            Thread.sleep(200);
+        }
+
+        List<Map<String, Object>> report = pinning.report();
+        assertEquals(1, report.size(), report.toString());
+        assertTrue(((String) report.get(0).get("site")).startsWith(VirtualThreadPinningTest.class.getName()), report.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.kafkastream.serde;
+
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.InboundMessageView;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming InboundMessageEvent decoder
+ */
+class InboundMessageViewSerdeTest {
+
+    private static final String TOPIC = "inbound-message-topic";
+
+    private final InboundMessageViewSerde serde = new InboundMessageViewSerde(WireFormat.JSON);
+
+    @Test
+    void testDecodesExamplePayload() throws Exception {
+        byte[] data = Files.readAllBytes(Path.of("examples/inbound-message-event.json"));
+
+        InboundMessageView view = serde.deserializer().deserialize(TOPIC, new RecordHeaders(), data);
+
+        assertEquals("wamid.HBgMNTkzxhgfjg3Nxc5NzU3FZCqEazxcE1ODg0QUIzQTg4NjUa4NUR1BQzYB", view.getMessageId());
+        assertEquals("123456789011", view.getChatId());
+        assertEquals("text", view.getMessageType());
+        assertEquals("3", view.getText());
+        assertEquals("123456789011", view.getSenderPhone());
+        assertEquals("Online UserName", view.getSenderName());
+        assertEquals("1", view.getSenderCountryCode());
+        assertEquals("23456789011", view.getSenderDialCode());
+        assertEquals(1747854609182L, view.getTimestamp());
+        assertTrue(view.hasPayload());
+        assertTrue(view.hasSender());
+        assertTrue(view.hasContent());
+    }
+
+    @Test
+    void testSkipsUnknownAndNestedSubtrees() {
+        String json = "{\"app\":\"TestApp\",\"extra\":{\"deep\":[1,2,{\"x\":\"y\"}]},\"timestamp\":42," +
+                "\"payload\":{\"context\":{\"a\":[{\"b\":1}]},\"id\":\"m1\",\"source\":\"c1\",\"type\":\"image\"," +
+                "\"payload\":{\"url\":\"http://x\",\"text\":\"caption\",\"meta\":{\"w\":1}}," +
+                "\"sender\":{\"phone\":\"p\",\"name\":\"n\",\"extra\":[\"z\"],\"country_code\":\"1\",\"dial_code\":\"2\"}}}";
+
+        InboundMessageView view = serde.deserializer().deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("m1", view.getMessageId());
+        assertEquals("c1", view.getChatId());
+        assertEquals("image", view.getMessageType());
+        assertEquals("caption", view.getText());
+        assertEquals("p", view.getSenderPhone());
+        assertEquals("2", view.getSenderDialCode());
+        assertEquals(42L, view.getTimestamp());
+    }
+
+    @Test
+    void testMissingSenderIsReported() {
+        String json = "{\"timestamp\":1,\"payload\":{\"id\":\"m1\",\"source\":\"c1\"}}";
+
+        InboundMessageView view = serde.deserializer().deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(view.hasPayload());
+        assertFalse(view.hasSender());
+        assertFalse(view.hasContent());
+    }
+
+    @Test
+    void testDecodesBinaryFormatFromHeader() {
+        InboundMessageEvent event = new InboundMessageEvent("TestApp", 7L, 2, "message",
+                new InboundMessageEvent.MessagePayload("m1", "c1", "text",
+                        new InboundMessageEvent.MessageContent("hi"),
+                        new InboundMessageEvent.Sender("p", "n", "1", "2")));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] smile = new WireFormatSerde<>(InboundMessageEvent.class, WireFormat.SMILE).serializer()
+                .serialize(TOPIC, headers, event);
+
+        InboundMessageView view = serde.deserializer().deserialize(TOPIC, headers, smile);
+
+        assertEquals("m1", view.getMessageId());
+        assertEquals("hi", view.getText());
+        assertEquals("n", view.getSenderName());
+        assertEquals(7L, view.getTimestamp());
+    }
+
+    @Test
+    void testDecodedViewIsWrittenBackAsTheOriginalRecord() {
+        InboundMessageEvent event = new InboundMessageEvent("TestApp", 7L, 2, "message",
+                new InboundMessageEvent.MessagePayload("m1", "c1", "text", null, null));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] smile = new WireFormatSerde<>(InboundMessageEvent.class, WireFormat.SMILE).serializer()
+                .serialize(TOPIC, headers, event);
+        InboundMessageView view = serde.deserializer().deserialize(TOPIC, headers, smile);
+
+        RecordHeaders written = new RecordHeaders();
+        assertSame(smile, serde.serializer().serialize(TOPIC, written, view));
+        assertEquals(WireFormat.SMILE, WireFormat.fromHeaders(written));
+    }
+
+    @Test
+    void testViewWithoutSourceIsWrittenAsAnEvent() {
+        InboundMessageView view = InboundMessageView.of(new InboundMessageEvent("TestApp", 7L, 2, "message",
+                new InboundMessageEvent.MessagePayload("m1", "c1", "text", null, null)));
+
+        byte[] data = serde.serializer().serialize(TOPIC, new RecordHeaders(), view);
+
+        assertEquals("m1", serde.deserializer().deserialize(TOPIC, data).getMessageId());
+    }
+
+    @Test
+    void testRejectsNonObjectPayload() {
+        assertThrows(SerializationException.class,
+                () -> serde.deserializer().deserialize(TOPIC, "[1,2]".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.kafkastream.serde;
+
+import com.example.kafkastream.dto.CreateChatEvent;
+import com.example.kafkastream.dto.CreateMessageEvent;
+import com.example.kafkastream.dto.GenericAction;
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.LegacyEvent;
+import com.example.kafkastream.dto.NewFormatEvent;
+import com.example.kafkastream.dto.SimpleEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JsonSerde byte-level serialization
+ */
+class JsonSerdeTest {
+
+    private static final String TOPIC = "test-topic";
+
+    private <T> T roundTrip(JsonSerde<T> serde, T value) {
+        byte[] bytes = serde.serializer().serialize(TOPIC, value);
+        assertNotNull(bytes);
+        return serde.deserializer().deserialize(TOPIC, bytes);
+    }
+
+    @Test
+    void testRoundTripAllEventTypes() {
+        SimpleEvent simple = roundTrip(new JsonSerde<>(SimpleEvent.class),
+                new SimpleEvent("simple-001", "hello", 1640995200000L));
+        assertEquals("simple-001", simple.getId());
+        assertEquals("hello", simple.getPayload());
+        assertEquals(1640995200000L, simple.getTimestamp());
+
+        LegacyEvent legacy = roundTrip(new JsonSerde<>(LegacyEvent.class),
+                new LegacyEvent("legacy_customer_name", "John Doe"));
+        assertEquals("legacy_customer_name", legacy.getOldFieldName());
+        assertEquals("John Doe", legacy.getValue());
+
+        NewFormatEvent newFormat = roundTrip(new JsonSerde<>(NewFormatEvent.class),
+                new NewFormatEvent("John Doe", "legacy-system", 1L));
+        assertEquals("John Doe", newFormat.getNewFieldName());
+        assertEquals(1L, newFormat.getConvertedAt());
+
+        GenericAction action = roundTrip(new JsonSerde<>(GenericAction.class),
+                new GenericAction("A", "details"));
+        assertEquals("A", action.getActionType());
+        assertEquals("details", action.getDetails());
+
+        CreateChatEvent chat = roundTrip(new JsonSerde<>(CreateChatEvent.class),
+                new CreateChatEvent("123", "User", "123", "1", "23", 1747854609182L));
+        assertEquals("123", chat.getChatId());
+        assertEquals(1747854609182L, chat.getCreatedAt());
+
+        CreateMessageEvent message = roundTrip(new JsonSerde<>(CreateMessageEvent.class),
+                new CreateMessageEvent("wamid.1", "123", "123", "text", "hi", 1747854609182L));
+        assertEquals("wamid.1", message.getMessageId());
+        assertEquals("hi", message.getContent());
+
+        InboundMessageEvent inbound = roundTrip(new JsonSerde<>(InboundMessageEvent.class),
+                new InboundMessageEvent("TestApp", 1747854609182L, 2, "message",
+                        new InboundMessageEvent.MessagePayload("wamid.1", "123", "text",
+                                new InboundMessageEvent.MessageContent("3"),
+                                new InboundMessageEvent.Sender("123", "User", "1", "23"))));
+        assertEquals("wamid.1", inbound.getPayload().getId());
+        assertEquals("User", inbound.getPayload().getSender().getName());
+        assertEquals("3", inbound.getPayload().getPayload().getText());
+    }
+
+    @Test
+    void testSerializesAsUtf8() {
+        JsonSerde<SimpleEvent> serde = new JsonSerde<>(SimpleEvent.class);
+        byte[] bytes = serde.serializer().serialize(TOPIC, new SimpleEvent("id", "ñandú €", 1L));
+
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("\"payload\":\"ñandú €\""));
+        assertEquals("ñandú €", serde.deserializer().deserialize(TOPIC, bytes).getPayload());
+    }
+
+    @Test
+    void testNullHandling() {
+        JsonSerde<SimpleEvent> serde = new JsonSerde<>(SimpleEvent.class);
+        assertNull(serde.serializer().serialize(TOPIC, null));
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.kafkastream.serde;
+
+import com.example.kafkastream.dto.InboundMessageEvent;
+import com.example.kafkastream.dto.SimpleEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WireFormatSerde content-type negotiation
+ */
+class WireFormatSerdeTest {
+
+    private static final String TOPIC = "test-topic";
+
+    @Test
+    void testBinaryFormatsRoundTripWithHeader() {
+        for (WireFormat format : WireFormat.values()) {
+            WireFormatSerde<SimpleEvent> serde = new WireFormatSerde<>(SimpleEvent.class, format);
+            RecordHeaders headers = new RecordHeaders();
+
+            byte[] bytes = serde.serializer().serialize(TOPIC, headers, new SimpleEvent("id-1", "hello", 1L));
+
+            assertArrayEquals(format.getContentType().getBytes(StandardCharsets.UTF_8),
+                    headers.lastHeader(WireFormat.CONTENT_TYPE_HEADER).value());
+            SimpleEvent decoded = serde.deserializer().deserialize(TOPIC, headers, bytes);
+            assertEquals("id-1", decoded.getId());
+            assertEquals("hello", decoded.getPayload());
+            assertEquals(1L, decoded.getTimestamp());
+        }
+    }
+
+    @Test
+    void testJsonAndBinaryProducersCoexist() {
+        WireFormatSerde<SimpleEvent> jsonSerde = new WireFormatSerde<>(SimpleEvent.class);
+        WireFormatSerde<SimpleEvent> smileSerde = new WireFormatSerde<>(SimpleEvent.class, WireFormat.SMILE);
+
+        // Legacy producer: plain JSON without content-type header
+        byte[] legacy = "{\"id\":\"legacy\",\"payload\":\"p\",\"timestamp\":5}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("legacy", smileSerde.deserializer().deserialize(TOPIC, new RecordHeaders(), legacy).getId());
+
+        // Binary producer read by a consumer configured to write JSON
+        RecordHeaders headers = new RecordHeaders();
+        byte[] smile = smileSerde.serializer().serialize(TOPIC, headers, new SimpleEvent("binary", "p", 5L));
+        assertEquals("binary", jsonSerde.deserializer().deserialize(TOPIC, headers, smile).getId());
+    }
+
+    @Test
+    void testSerializeWithoutHeadersFallsBackToJson() {
+        WireFormatSerde<SimpleEvent> serde = new WireFormatSerde<>(SimpleEvent.class, WireFormat.CBOR);
+        byte[] bytes = serde.serializer().serialize(TOPIC, new SimpleEvent("id", "p", 1L));
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).startsWith("{"));
+    }
+
+    @Test
+    void testUnknownContentTypeIsRejected() {
+        WireFormatSerde<SimpleEvent> serde = new WireFormatSerde<>(SimpleEvent.class);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.CONTENT_TYPE_HEADER, "application/x-protobuf".getBytes(StandardCharsets.UTF_8));
+        assertThrows(SerializationException.class,
+                () -> serde.deserializer().deserialize(TOPIC, headers, new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void testBinaryEncodingIsSmallerForInboundExample() throws Exception {
+        InboundMessageEvent event = WireFormat.JSON.getObjectMapper()
+                .readValue(Files.readAllBytes(Path.of("examples/inbound-message-event.json")), InboundMessageEvent.class);
+
+        int jsonSize = new WireFormatSerde<>(InboundMessageEvent.class, WireFormat.JSON).serializer()
+                .serialize(TOPIC, new RecordHeaders(), event).length;
+        int smileSize = new WireFormatSerde<>(InboundMessageEvent.class, WireFormat.SMILE).serializer()
+                .serialize(TOPIC, new RecordHeaders(), event).length;
+        int cborSize = new WireFormatSerde<>(InboundMessageEvent.class, WireFormat.CBOR).serializer()
+                .serialize(TOPIC, new RecordHeaders(), event).length;
+
+        assertTrue(smileSize < jsonSize, "smile=" + smileSize + " json=" + jsonSize);
+        assertTrue(cborSize < jsonSize, "cbor=" + cborSize + " json=" + jsonSize);
+    }
+}
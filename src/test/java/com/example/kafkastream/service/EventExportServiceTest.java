@@ -0,0 +1,72 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.repository.OriginalEventRepository;
+import com.example.kafkastream.repository.ProcessedEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the NDJSON table exports
+ */
+class EventExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private ProcessedEventRepository processedEventRepository;
+    private OriginalEventRepository originalEventRepository;
+    private EntityManager entityManager;
+    private EventExportService service;
+
+    @BeforeEach
+    void setUp() {
+        processedEventRepository = mock(ProcessedEventRepository.class);
+        originalEventRepository = mock(OriginalEventRepository.class);
+        entityManager = mock(EntityManager.class);
+        service = new EventExportService(processedEventRepository, originalEventRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void testEveryRowIsOneJsonLineAndIsDetachedOnceWritten() throws Exception {
+        ProcessedEvent first = new ProcessedEvent("SIMPLE_EVENT_TRANSFORMED", "k1", "line\nbreak", "output-topic-transformed");
+        ProcessedEvent second = new ProcessedEvent("CREATE_CHAT_EVENT", "k2", "data", "create-chat-topic");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(processedEventRepository.streamAll()).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = service.exportProcessedEvents(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals("k1", row.get("originalKey").asText());
+        assertEquals("line\nbreak", row.get("processedData").asText());
+        assertEquals("CREATE_CHAT_EVENT", objectMapper.readTree(lines[1]).get("eventType").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testEmptyTableWritesNothing() throws Exception {
+        when(originalEventRepository.streamAll()).thenReturn(Stream.<OriginalEvent>empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, service.exportOriginalEvents(out));
+        assertEquals(0, out.size());
+    }
+}
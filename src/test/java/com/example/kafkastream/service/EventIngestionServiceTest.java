@@ -0,0 +1,241 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.model.OutboxMessage;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the publish paths
+ */
+class EventIngestionServiceTest {
+
+    private static final Function<SimpleEvent, EventIngestionService.Event> SIMPLE = item -> {
+        if (item.getId() == null) {
+            throw new IllegalArgumentException("id is required");
+        }
+        return new EventIngestionService.Event("SimpleEvent", "input-topic", "content-transformation", item.getId(), item);
+    };
+
+    private MockProducer<String, byte[]> producer;
+    private OriginalEventService originalEventService;
+    private EventOutbox eventOutbox;
+    private SimpleMeterRegistry meterRegistry;
+    private EventIngestionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        originalEventService = mock(OriginalEventService.class);
+        when(originalEventService.saveOriginalEvents(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(originalEventService.saveOriginalEvent(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        eventOutbox = mock(EventOutbox.class);
+        useProducer(producer(false));
+    }
+
+    /**
+     * Every delivery mode sends through the same mock producer
+     */
+    private void useProducer(MockProducer<String, byte[]> mockProducer) {
+        producer = mockProducer;
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(() -> producer);
+        service = new EventIngestionService(Map.of(DeliveryMode.FIRE_AND_FORGET, template, DeliveryMode.LEADER, template,
+                DeliveryMode.ALL, template), originalEventService, eventOutbox, new ObjectMapper(),
+                new TraceLatencyRecorder(new SimpleMeterRegistry()), meterRegistry, 3, Duration.ofMillis(200));
+    }
+
+    /**
+     * KafkaTemplate closes the producer after every send, expecting the factory's shared producer to
+     * ignore it
+     */
+    private static MockProducer<String, byte[]> producer(boolean autoComplete) {
+        return new MockProducer<>(autoComplete, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testArrayIsSavedInOneCallAndEverySendIsIssuedBeforeWaiting() throws IOException {
+        // Acks arrive only once all records were handed to the producer
+        new Thread(() -> {
+            while (producer.history().size() < 2) {
+                Thread.onSpinWait();
+            }
+            producer.completeNext();
+            producer.completeNext();
+        }).start();
+
+        List<EventIngestionService.Result> results = service.ingestAll(body("[{\"id\":\"a\"},{\"id\":\"b\"}]"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join();
+
+        ArgumentCaptor<List<OriginalEvent>> saved = ArgumentCaptor.forClass(List.class);
+        verify(originalEventService).saveOriginalEvents(saved.capture());
+        verify(originalEventService, never()).saveOriginalEvent(any());
+        assertEquals(List.of("a", "b"), saved.getValue().stream().map(OriginalEvent::getEventId).toList());
+        assertEquals(List.of(EventIngestionService.Status.PUBLISHED, EventIngestionService.Status.PUBLISHED),
+                results.stream().map(EventIngestionService.Result::status).toList());
+        ProducerRecord<String, byte[]> sent = producer.history().get(0);
+        assertEquals(results.get(0).correlationId(), TraceHeaders.value(sent.headers(), TraceHeaders.CORRELATION_ID));
+    }
+
+    @Test
+    void testSingleEventIsSavedAndSentAsTheSameJson() throws IOException {
+        useProducer(producer(true));
+
+        EventIngestionService.Delivery delivery = service.ingest(new EventIngestionService.Event("SimpleEvent", "input-topic",
+                "content-transformation", "a", new SimpleEvent("a", "héllo", 1L)), DeliveryMode.LEADER).join();
+
+        assertNull(delivery.failure());
+        OriginalEvent originalEvent = delivery.originalEvent();
+        assertEquals("{\"id\":\"a\",\"payload\":\"héllo\",\"timestamp\":1}", originalEvent.getOriginalData());
+        ProducerRecord<String, byte[]> sent = producer.history().get(0);
+        assertArrayEquals(originalEvent.getOriginalData().getBytes(StandardCharsets.UTF_8), sent.value());
+        assertEquals(originalEvent.getCorrelationId(), TraceHeaders.value(sent.headers(), TraceHeaders.CORRELATION_ID));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOutboxModeWritesTheEventsWithTheirRecordsAndSendsNothing() throws IOException {
+        EventIngestionService.Delivery delivery = service.ingest(new EventIngestionService.Event("SimpleEvent", "input-topic",
+                "content-transformation", "a", new SimpleEvent("a", "hello", 1L)), DeliveryMode.OUTBOX).join();
+
+        assertNull(delivery.failure());
+        assertNull(delivery.metadata());
+        ArgumentCaptor<OutboxMessage> message = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(eventOutbox).enqueue(eq(delivery.originalEvent()), message.capture());
+        assertArrayEquals(delivery.originalEvent().getOriginalData().getBytes(StandardCharsets.UTF_8), message.getValue().getValue());
+        assertEquals(delivery.originalEvent().getCorrelationId(), message.getValue().getCorrelationId());
+
+        List<EventIngestionService.Result> results = service.ingestAll(body("[{\"id\":\"b\"},{\"id\":\"c\"}]"),
+                SimpleEvent.class, SIMPLE, DeliveryMode.OUTBOX).join();
+
+        ArgumentCaptor<List<OutboxMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(eventOutbox).enqueue(anyList(), messages.capture());
+        assertEquals(List.of("b", "c"), messages.getValue().stream().map(OutboxMessage::getKey).toList());
+        assertEquals(List.of(EventIngestionService.Status.QUEUED, EventIngestionService.Status.QUEUED),
+                results.stream().map(EventIngestionService.Result::status).toList());
+        verifyNoInteractions(originalEventService);
+        assertTrue(producer.history().isEmpty());
+    }
+
+    @Test
+    void testSingleEventCompletesWithTheAckOrReportsFailuresAndTimeouts() throws IOException {
+        EventIngestionService.Event event = new EventIngestionService.Event("SimpleEvent", "input-topic",
+                "content-transformation", "a", new SimpleEvent("a", "x", 1L));
+
+        var acked = service.ingest(event, DeliveryMode.ALL);
+        assertFalse(acked.isDone());
+        producer.completeNext();
+        assertNull(acked.join().failure());
+        assertEquals(DeliveryMode.ALL, acked.join().mode());
+
+        var failed = service.ingest(event, DeliveryMode.ALL);
+        producer.errorNext(new IllegalStateException("broker down"));
+        assertNotNull(failed.join().failure());
+        assertNull(failed.join().metadata());
+
+        EventIngestionService.Delivery unconfirmed = service.ingest(event, DeliveryMode.ALL).join();
+        assertInstanceOf(TimeoutException.class, unconfirmed.failure());
+        assertNotNull(unconfirmed.originalEvent().getCorrelationId());
+
+        Timer success = meterRegistry.get(EventIngestionService.ACK_METER)
+                .tags("mode", "all", "topic", "input-topic", "outcome", "success").timer();
+        Timer failure = meterRegistry.get(EventIngestionService.ACK_METER)
+                .tags("mode", "all", "topic", "input-topic", "outcome", "failure").timer();
+        assertEquals(1, success.count());
+        assertEquals(1, failure.count());
+    }
+
+    @Test
+    void testItemsThatDoNotBindAreInvalidAndTheRestArePublished() throws IOException {
+        useProducer(producer(true));
+
+        List<EventIngestionService.Result> results = service.ingestAll(
+                body("[{\"id\":\"a\",\"timestamp\":\"soon\"},\"b\",{\"id\":7,\"timestamp\":\"2\"}]"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join();
+
+        assertEquals(List.of(EventIngestionService.Status.INVALID, EventIngestionService.Status.INVALID,
+                EventIngestionService.Status.PUBLISHED), results.stream().map(EventIngestionService.Result::status).toList());
+        // Scalars are coerced as the endpoints always did: 7 to "7", "2" to 2
+        assertEquals("{\"id\":\"7\",\"payload\":null,\"timestamp\":2}",
+                new String(producer.history().get(0).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNdjsonItemsAreReportedOneByOneInRequestOrder() throws IOException {
+        useProducer(producer(true));
+
+        List<EventIngestionService.Result> results = service.ingestAll(body("{\"id\":\"a\"}\n{\"payload\":\"x\"}\n{\"id\":\"c\"}\n"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join();
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(EventIngestionService.Result::index).toList());
+        assertEquals(EventIngestionService.Status.PUBLISHED, results.get(0).status());
+        assertEquals(EventIngestionService.Status.INVALID, results.get(1).status());
+        assertEquals("id is required", results.get(1).message());
+        assertEquals(EventIngestionService.Status.PUBLISHED, results.get(2).status());
+        assertEquals(2, producer.history().size());
+    }
+
+    @Test
+    void testFailedBatchInsertOnlyLeavesOutTheRowsThatFailAgain() throws IOException {
+        when(originalEventService.saveOriginalEvents(anyList())).thenThrow(new IllegalStateException("duplicate event_id"));
+        when(originalEventService.saveOriginalEvent(any()))
+                .thenThrow(new RuntimeException("Failed to save original event", new IllegalStateException("duplicate event_id")))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EventIngestionService.Result> results = service.ingestAll(body("[{\"id\":\"a\"},{\"id\":\"b\"}]"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join();
+
+        assertEquals(EventIngestionService.Status.NOT_SAVED, results.get(0).status());
+        assertEquals("duplicate event_id", results.get(0).message());
+        assertEquals(EventIngestionService.Status.UNCONFIRMED, results.get(1).status());
+        assertEquals(1, producer.history().size());
+    }
+
+    @Test
+    void testSendErrorsAndTooLargeOrMalformedBodiesAreReported() throws IOException {
+        new Thread(() -> {
+            while (producer.history().isEmpty()) {
+                Thread.onSpinWait();
+            }
+            producer.errorNext(new IllegalStateException("broker down"));
+        }).start();
+
+        assertEquals(EventIngestionService.Status.SEND_FAILED, service.ingestAll(body("[{\"id\":\"a\"}]"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join().get(0).status());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.ingestAll(body("[{\"id\":\"a\"},{\"id\":\"b\"},{\"id\":\"c\"},{\"id\":\"d\"}]"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join());
+        assertThrows(IOException.class, () -> service.ingestAll(body("[{\"id\":\"a\"},"), SimpleEvent.class, SIMPLE, DeliveryMode.ALL).join());
+        verify(originalEventService, times(1)).saveOriginalEvents(anyList());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.repository.EventCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for keyset pages and their cursors
+ */
+class EventPageTest {
+
+    private static final Instant TIME = Instant.parse("2026-01-01T10:15:30.123456Z");
+
+    @Test
+    void testExtraRowMeansThereIsANextPageStartingAfterTheLastEvent() {
+        EventPage<Long> page = EventPage.of(List.of(5L, 4L, 3L), 2, id -> new EventCursor(TIME, id));
+
+        assertEquals(List.of(5L, 4L), page.events());
+        assertEquals(new EventCursor(TIME, 4L), page.next());
+    }
+
+    @Test
+    void testLastPageHasNoCursor() {
+        EventPage<Long> page = EventPage.of(List.of(5L, 4L), 2, id -> new EventCursor(TIME, id));
+
+        assertEquals(List.of(5L, 4L), page.events());
+        assertNull(page.next());
+    }
+
+    @Test
+    void testCursorSurvivesItsTokenWithNanosecondPrecision() {
+        EventCursor cursor = new EventCursor(TIME.plusNanos(789), 42L);
+
+        assertEquals(cursor, EventCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void testInvalidCursorAndLimitAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EventCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> EventPage.checkLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> EventPage.checkLimit(EventPage.MAX_LIMIT + 1));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.dto.SimpleEvent;
+import com.example.kafkastream.logging.StageLogRegistry;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the batch persistence listeners
+ */
+class KafkaPersistenceServiceTest {
+
+    private ProcessedEventService processedEventService;
+    private OriginalEventService originalEventService;
+    private SimpleMeterRegistry registry;
+    private ProcessedEventWriter writer;
+    private KafkaPersistenceService service;
+    private Acknowledgment acknowledgment;
+
+    @BeforeEach
+    void setUp() {
+        processedEventService = mock(ProcessedEventService.class);
+        originalEventService = mock(OriginalEventService.class);
+        acknowledgment = mock(Acknowledgment.class);
+        registry = new SimpleMeterRegistry();
+        writer = new ProcessedEventWriter(processedEventService, 10_000, 1_000, 1, Duration.ofMillis(10),
+                Duration.ofMillis(50), mock(ProcessedEventWriter.Backpressure.class));
+        writer.start();
+        service = new KafkaPersistenceService(originalEventService, writer,
+                new StageLogRegistry(0.0, Integer.MAX_VALUE, Map.of()), new PipelineMetrics(registry, 1.0),
+                new TraceLatencyRecorder(registry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    private static ConsumerRecord<String, SimpleEvent> record(String key, long offset) {
+        return new ConsumerRecord<>("output-topic-transformed", 0, offset, key, new SimpleEvent(key, "payload", 1L));
+    }
+
+    private double persistedRecords() {
+        return registry.get(PipelineMetrics.RECORDS).tag("node", "persist-transformed").counter().count();
+    }
+
+    private double persistErrors() {
+        return registry.get(PipelineMetrics.ERRORS).tag("node", "persist-transformed").counter().count();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchIsLinkedWithOneQueryAndSavedInOneCall() {
+        when(originalEventService.getExistingEventIds(any())).thenReturn(Set.of("k1"));
+
+        service.consumeTransformedEvents(List.of(record("k1", 0), record("k2", 1)), acknowledgment);
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+
+        verify(originalEventService, times(1)).getExistingEventIds(Set.of("k1", "k2"));
+        verify(originalEventService, never()).getOriginalEventByEventId(any());
+        ArgumentCaptor<List<ProcessedEvent>> saved = ArgumentCaptor.forClass(List.class);
+        verify(processedEventService, times(1)).saveProcessedEvents(saved.capture());
+        verify(processedEventService, never()).saveProcessedEvent(any(ProcessedEvent.class));
+
+        List<ProcessedEvent> events = saved.getValue();
+        assertEquals(2, events.size());
+        assertEquals("k1", events.get(0).getOriginalEventId());
+        assertNull(events.get(1).getOriginalEventId());
+        assertEquals("SIMPLE_EVENT_TRANSFORMED", events.get(0).getEventType());
+        assertEquals(2, persistedRecords());
+    }
+
+    @Test
+    void testTracedRecordsKeepTheirCorrelationId() {
+        when(originalEventService.getExistingEventIds(any())).thenReturn(Set.of());
+        RecordHeaders headers = new RecordHeaders();
+        TraceHeaders.start(headers, "trace-1", TraceHeaders.epochNanos());
+        ConsumerRecord<String, SimpleEvent> traced = new ConsumerRecord<>("output-topic-transformed", 0, 0, 0L,
+                null, 0, 0, "k1", new SimpleEvent("k1", "payload", 1L), headers, Optional.empty());
+        List<ProcessedEvent> saved = new ArrayList<>();
+        when(processedEventService.saveProcessedEvents(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return saved;
+        });
+
+        service.consumeTransformedEvents(List.of(traced), acknowledgment);
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+
+        assertEquals("trace-1", saved.get(0).getCorrelationId());
+        assertEquals(1, registry.get(TraceLatencyRecorder.METER).tags("stage", "end-to-end").timer().count());
+    }
+
+    @Test
+    void testFailedBatchFallsBackToOneTransactionPerRecordAndIsAcknowledgedOnceTheFailedOneIsRetried() {
+        when(originalEventService.getExistingEventIds(any())).thenReturn(Set.of());
+        when(processedEventService.saveProcessedEvents(anyList())).thenThrow(new IllegalStateException("constraint violation"));
+        when(processedEventService.saveProcessedEvent(any(ProcessedEvent.class)))
+                .thenThrow(new IllegalStateException("constraint violation"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.consumeTransformedEvents(List.of(record("bad", 0), record("good", 1)), acknowledgment);
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+
+        // bad, good, then bad again on the retry
+        verify(processedEventService, times(3)).saveProcessedEvent(any(ProcessedEvent.class));
+        assertEquals(2, persistedRecords());
+        assertEquals(1, persistErrors());
+    }
+
+    @Test
+    void testBatchIsSavedUnlinkedAndNotAcknowledgedBeforeCommitWhenTheLookupFails() throws Exception {
+        when(originalEventService.getExistingEventIds(any())).thenThrow(new IllegalStateException("database down"));
+        CountDownLatch commit = new CountDownLatch(1);
+        List<ProcessedEvent> saved = new ArrayList<>();
+        when(processedEventService.saveProcessedEvents(anyList())).thenAnswer(invocation -> {
+            commit.await();
+            saved.addAll(invocation.getArgument(0));
+            return saved;
+        });
+
+        service.consumeTransformedEvents(List.of(record("k1", 0)), acknowledgment);
+
+        verify(processedEventService, timeout(5_000)).saveProcessedEvents(anyList());
+        verify(acknowledgment, never()).acknowledge();
+        commit.countDown();
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+        assertEquals(1, saved.size());
+        assertNull(saved.get(0).getOriginalEventId());
+        assertEquals(0, persistErrors());
+    }
+
+    @Test
+    void testRecordsWithoutKeyAreSavedUnlinkedWhenTheLookupFails() {
+        when(originalEventService.getExistingEventIds(any())).thenThrow(new IllegalStateException("database down"));
+        List<ProcessedEvent> saved = new ArrayList<>();
+        when(processedEventService.saveProcessedEvents(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return saved;
+        });
+
+        service.consumeTransformedEvents(List.of(record(null, 0), record("k1", 1)), acknowledgment);
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+
+        assertEquals(2, saved.size());
+        assertNull(saved.get(0).getOriginalKey());
+        assertNull(saved.get(0).getOriginalEventId());
+        assertEquals(0, persistErrors());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OriginalEvent;
+import com.example.kafkastream.repository.OriginalEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the cached original-event correlation lookups
+ */
+class OriginalEventServiceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OriginalEventRepository repository;
+    private OriginalEventService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OriginalEventRepository.class);
+        when(repository.save(any(OriginalEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new OriginalEventService(repository,
+                new CorrelationCache(1_000, Duration.ofMinutes(10), Duration.ofSeconds(30), registry, nanos::get));
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tags("cache", CorrelationCache.NAME, "result", result).functionCounter().count();
+    }
+
+    @Test
+    void testSavedOriginalsAreFoundWithoutAQuery() {
+        service.saveOriginalEvent(new OriginalEvent("k1", "SimpleEvent", "input-topic", "{}"));
+
+        assertEquals(Set.of("k1"), service.getExistingEventIds(Set.of("k1")));
+        verify(repository, never()).findExistingEventIds(any());
+        assertEquals(1, gets("hit"));
+    }
+
+    @Test
+    void testMissesAreQueriedOnceAndCachedBothWays() {
+        when(repository.findExistingEventIds(any())).thenReturn(Set.of("k1"));
+
+        assertEquals(Set.of("k1"), service.getExistingEventIds(Set.of("k1", "k2")));
+        assertEquals(Set.of("k1"), service.getExistingEventIds(Set.of("k1", "k2")));
+
+        verify(repository, times(1)).findExistingEventIds(any());
+        assertEquals(2, gets("miss"));
+        assertEquals(2, gets("hit"));
+    }
+
+    @Test
+    void testAbsentEntriesExpireAfterTheNegativeTtl() {
+        when(repository.findExistingEventIds(any())).thenReturn(Set.of());
+        service.getExistingEventIds(Set.of("k1"));
+
+        nanos.addAndGet(Duration.ofSeconds(29).toNanos());
+        service.getExistingEventIds(Set.of("k1"));
+        verify(repository, times(1)).findExistingEventIds(any());
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        when(repository.findExistingEventIds(any())).thenReturn(Set.of("k1"));
+        assertEquals(Set.of("k1"), service.getExistingEventIds(Set.of("k1")));
+        verify(repository, times(2)).findExistingEventIds(any());
+    }
+
+    @Test
+    void testSavingAnOriginalReplacesAnAbsentEntry() {
+        when(repository.findExistingEventIds(any())).thenReturn(Set.of());
+        assertEquals(Set.of(), service.getExistingEventIds(Set.of("k1")));
+
+        service.saveOriginalEvent(new OriginalEvent("k1", "SimpleEvent", "input-topic", "{}"));
+
+        assertEquals(Set.of("k1"), service.getExistingEventIds(Set.of("k1")));
+        verify(repository, times(1)).findExistingEventIds(any());
+    }
+
+    @Test
+    void testLargeMissSetsAreQueriedInChunks() {
+        when(repository.findExistingEventIds(any())).thenReturn(Set.of());
+        List<String> ids = IntStream.range(0, OriginalEventService.LOOKUP_CHUNK_SIZE + 1)
+                .mapToObj(i -> "k" + i).toList();
+
+        service.getExistingEventIds(ids);
+
+        verify(repository, times(2)).findExistingEventIds(any());
+    }
+}
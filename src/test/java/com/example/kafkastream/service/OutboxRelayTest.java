@@ -0,0 +1,114 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.OutboxMessage;
+import com.example.kafkastream.repository.OutboxMessageRepository;
+import com.example.kafkastream.trace.TraceHeaders;
+import com.example.kafkastream.trace.TraceLatencyRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the outbox relay
+ */
+class OutboxRelayTest {
+
+    private OutboxMessageRepository outboxMessageRepository;
+    private MockProducer<String, byte[]> producer;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxMessageRepository = mock(OutboxMessageRepository.class);
+        producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public void close(Duration timeout) {
+                // KafkaTemplate closes its producer after every send
+            }
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxMessageRepository, new KafkaTemplate<>(() -> producer),
+                new TraceLatencyRecorder(new SimpleMeterRegistry()), meterRegistry, 3,
+                Duration.ofMillis(10), Duration.ofMillis(200), Duration.ofMillis(10));
+    }
+
+    private static List<OutboxMessage> messages(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> {
+            OutboxMessage message = new OutboxMessage("input-topic", "k" + id, ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8),
+                    "content-transformation", "c" + id, TraceHeaders.epochNanos());
+            message.setId(id);
+            return message;
+        }).toList();
+    }
+
+    private double relayed(String outcome) {
+        return meterRegistry.get(OutboxRelay.RELAYED_METER).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testBatchIsSentInIdOrderBeforeWaitingAndDeletedOnceAcknowledged() {
+        when(outboxMessageRepository.findAllByOrderByIdAsc(Limit.of(3))).thenReturn(messages(1, 2, 3));
+        // Acks arrive only once all records were handed to the producer
+        new Thread(() -> {
+            while (producer.history().size() < 3) {
+                Thread.onSpinWait();
+            }
+            while (producer.completeNext()) {
+            }
+        }).start();
+
+        assertEquals(3, relay.relayBatch());
+
+        List<ProducerRecord<String, byte[]>> sent = producer.history();
+        assertEquals(List.of("k1", "k2", "k3"), sent.stream().map(ProducerRecord::key).toList());
+        assertEquals("c1", TraceHeaders.value(sent.get(0).headers(), TraceHeaders.CORRELATION_ID));
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        assertEquals(3, relayed("success"));
+    }
+
+    @Test
+    void testRecordsThatFailOrAreNotAcknowledgedStayInTheOutbox() {
+        when(outboxMessageRepository.findAllByOrderByIdAsc(Limit.of(3))).thenReturn(messages(1, 2, 3));
+        new Thread(() -> {
+            while (producer.history().size() < 3) {
+                Thread.onSpinWait();
+            }
+            producer.completeNext();
+            producer.errorNext(new IllegalStateException("broker down"));
+            // The third is never acknowledged
+        }).start();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+
+        assertTrue(e.getMessage().contains("broker down"), e.getMessage());
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(1, relayed("success"));
+        assertEquals(2, relayed("failure"));
+    }
+
+    @Test
+    void testEmptyOutboxSendsAndDeletesNothing() {
+        when(outboxMessageRepository.findAllByOrderByIdAsc(any())).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        assertTrue(producer.history().isEmpty());
+        verify(outboxMessageRepository, never()).deleteAllByIdInBatch(any());
+    }
+}
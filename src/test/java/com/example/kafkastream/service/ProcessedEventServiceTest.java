@@ -0,0 +1,117 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.model.ProcessedEvent;
+import com.example.kafkastream.repository.ProcessedEventRepository;
+import com.example.kafkastream.repository.ProcessedEventRepository.TypeTopicCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the maintained processed event counters
+ */
+class ProcessedEventServiceTest {
+
+    private ProcessedEventRepository repository;
+    private ProcessedEventService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProcessedEventRepository.class);
+        when(repository.save(any(ProcessedEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new ProcessedEventService(repository, new ProcessedEventStats());
+    }
+
+    private static TypeTopicCount count(String eventType, String sourceTopic, long count) {
+        return new TypeTopicCount() {
+            public String getEventType() { return eventType; }
+            public String getSourceTopic() { return sourceTopic; }
+            public long getCount() { return count; }
+        };
+    }
+
+    @Test
+    void testSavedEventsAreCountedWithoutQueryingTheTable() {
+        service.saveProcessedEvents(List.of(
+                new ProcessedEvent("SIMPLE_EVENT_TRANSFORMED", "k1", "data", "output-topic-transformed"),
+                new ProcessedEvent("CREATE_CHAT_EVENT", "k2", "data", "output-topic-create-chat")));
+        service.saveProcessedEvent("SIMPLE_EVENT_TRANSFORMED", "k3", "data", "output-topic-transformed");
+
+        ProcessedEventStats.Snapshot stats = service.getStats();
+
+        assertEquals(3, stats.total());
+        assertEquals(Map.of("CREATE_CHAT_EVENT", 1L, "SIMPLE_EVENT_TRANSFORMED", 2L), stats.byEventType());
+        assertEquals(Map.of("output-topic-create-chat", 1L, "output-topic-transformed", 2L), stats.bySourceTopic());
+        verify(repository, never()).findAll();
+        verify(repository, never()).countByEventTypeAndSourceTopic();
+    }
+
+    @Test
+    void testReconciliationReplacesTheCountersWithTheGroupedCounts() {
+        service.saveProcessedEvent("LEGACY_EVENT_CONVERTED", "k1", "data", "output-topic-json");
+        when(repository.countByEventTypeAndSourceTopic()).thenReturn(List.of(
+                count("GENERIC_ACTION_TYPE_A", "output-topic-action-a", 4),
+                count("GENERIC_ACTION_TYPE_B", "output-topic-action-b", 1)));
+
+        service.afterSingletonsInstantiated();
+
+        ProcessedEventStats.Snapshot stats = service.getStats();
+        assertEquals(5, stats.total());
+        assertEquals(Map.of("GENERIC_ACTION_TYPE_A", 4L, "GENERIC_ACTION_TYPE_B", 1L), stats.byEventType());
+    }
+
+    @Test
+    void testDeletingAllEventsResetsTheCounters() {
+        service.saveProcessedEvent("SIMPLE_EVENT_TRANSFORMED", "k1", "data", "output-topic-transformed");
+
+        service.deleteAllProcessedEvents();
+
+        assertEquals(0, service.getStats().total());
+        assertTrue(service.getStats().byEventType().isEmpty());
+    }
+
+    @Test
+    void testConcurrentRecordAndReplaceLeaveConsistentCounters() throws Exception {
+        ProcessedEventStats stats = new ProcessedEventStats();
+        List<ProcessedEvent> batch = List.of(
+                new ProcessedEvent("SIMPLE_EVENT_TRANSFORMED", "k1", "data", "output-topic-transformed"),
+                new ProcessedEvent("CREATE_CHAT_EVENT", "k2", "data", "output-topic-create-chat"));
+        List<TypeTopicCount> grouped = List.of(count("SIMPLE_EVENT_TRANSFORMED", "output-topic-transformed", 1_000));
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> recorders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            recorders.add(Thread.ofPlatform().start(() -> {
+                while (!done.get()) {
+                    stats.record(batch);
+                }
+            }));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            stats.replace(grouped);
+            ProcessedEventStats.Snapshot snapshot = stats.snapshot();
+            // Recorders keep adding to the new generation, never below the grouped counts
+            assertTrue(snapshot.byEventType().get("SIMPLE_EVENT_TRANSFORMED") >= 1_000);
+        }
+        done.set(true);
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+
+        ProcessedEventStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(snapshot.total(), snapshot.byEventType().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(snapshot.total(), snapshot.bySourceTopic().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(snapshot.byEventType().get("SIMPLE_EVENT_TRANSFORMED") - 1_000,
+                snapshot.byEventType().getOrDefault("CREATE_CHAT_EVENT", 0L));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.kafkastream.service;
+
+import com.example.kafkastream.metrics.NodeMeters;
+import com.example.kafkastream.metrics.PipelineMetrics;
+import com.example.kafkastream.model.ProcessedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the write-behind group commit and its backpressure
+ */
+class ProcessedEventWriterTest {
+
+    private ProcessedEventService processedEventService;
+    private ProcessedEventWriter.Backpressure backpressure;
+    private NodeMeters meters;
+    private ProcessedEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        processedEventService = mock(ProcessedEventService.class);
+        backpressure = mock(ProcessedEventWriter.Backpressure.class);
+        meters = new PipelineMetrics(new SimpleMeterRegistry(), 1.0)
+                .node(PipelineMetrics.PERSISTENCE, "persist-test", PipelineMetrics.Phase.PERSIST);
+        writer = new ProcessedEventWriter(processedEventService, 10, 100, 1, Duration.ofMillis(10),
+                Duration.ofMillis(50), backpressure);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    private static List<ProcessedEvent> rows(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ProcessedEvent("TEST", "k" + i, "data", "test-topic"))
+                .toList();
+    }
+
+    @Test
+    void testQueuedBatchesAreCommittedTogetherBeforeBeingAcknowledged() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable first = mock(Runnable.class);
+        Runnable second = mock(Runnable.class);
+        writer.submit(new ProcessedEventWriter.Batch(rows(2), meters, (index, nanos) -> {}, () -> { first.run(); done.countDown(); }));
+        writer.submit(new ProcessedEventWriter.Batch(rows(3), meters, (index, nanos) -> {}, () -> { second.run(); done.countDown(); }));
+
+        writer.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        InOrder order = inOrder(processedEventService, first, second);
+        order.verify(processedEventService).saveProcessedEvents(argThat(rows -> rows.size() == 5));
+        order.verify(first).run();
+        order.verify(second).run();
+    }
+
+    @Test
+    void testFullQueuePausesAndDrainedQueueResumes() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        writer.submit(new ProcessedEventWriter.Batch(rows(6), meters, (index, nanos) -> {}, () -> {}));
+        verify(backpressure, never()).pause();
+
+        writer.submit(new ProcessedEventWriter.Batch(rows(6), meters, (index, nanos) -> {}, done::countDown));
+        verify(backpressure).pause();
+        assertEquals(12, writer.pendingRows());
+
+        writer.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        verify(backpressure, timeout(5_000)).resume();
+        assertEquals(0, writer.pendingRows());
+    }
+
+    @Test
+    void testBatchIsOnlyAcknowledgedOnceTheFailedRowsAreCommitted() throws InterruptedException {
+        doThrow(new RuntimeException("database down")).when(processedEventService).saveProcessedEvents(anyList());
+        when(processedEventService.saveProcessedEvent(any()))
+                .thenThrow(new RuntimeException("database down"))
+                .thenThrow(new RuntimeException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        CountDownLatch done = new CountDownLatch(1);
+        writer.start();
+
+        writer.submit(new ProcessedEventWriter.Batch(rows(2), meters, (index, nanos) -> {}, done::countDown));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // Both rows failed on their own, then both were saved on the retry
+        verify(processedEventService, times(4)).saveProcessedEvent(any());
+        assertEquals(0, writer.pendingRows());
+    }
+
+    @Test
+    void testEmptyBatchIsAcknowledgedRightAway() {
+        Runnable done = mock(Runnable.class);
+
+        writer.submit(new ProcessedEventWriter.Batch(List.of(), meters, (index, nanos) -> {}, done));
+
+        verify(done).run();
+        verify(processedEventService, never()).saveProcessedEvents(anyList());
+    }
+}
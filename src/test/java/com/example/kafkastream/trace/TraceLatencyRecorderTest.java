@@ -0,0 +1,69 @@
+package com.example.kafkastream.trace;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the trace headers and the per-stage latency recorder
+ */
+class TraceLatencyRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TraceLatencyRecorder recorder = new TraceLatencyRecorder(registry);
+
+    private double recordedMs(String stage) {
+        return registry.get(TraceLatencyRecorder.METER).tags("use_case", "action-routing", "stage", stage)
+                .timer().totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void testPersistedRecordIsSplitIntoStages() {
+        long ms = 1_000_000L;
+        PipelineTrace trace = new PipelineTrace("trace-1", 0, 3 * ms, 10 * ms);
+
+        recorder.recordPersisted("action-routing", trace, 15 * ms, 40 * ms);
+
+        assertEquals(3, recordedMs("stream-pickup"));
+        assertEquals(7, recordedMs("stream-process"));
+        assertEquals(5, recordedMs("sink"));
+        assertEquals(25, recordedMs("db-commit"));
+        assertEquals(40, recordedMs("end-to-end"));
+
+        Map<String, Object> endToEnd = recorder.summary().get("action-routing").get("end-to-end");
+        assertEquals(1L, endToEnd.get("count"));
+        assertTrue(endToEnd.containsKey("p50Ms"));
+        assertTrue(endToEnd.containsKey("p99Ms"));
+        assertTrue(endToEnd.containsKey("p999Ms"));
+        assertFalse(recorder.summary().get("action-routing").containsKey("broker-ack"));
+    }
+
+    @Test
+    void testNegativeDurationsAreDropped() {
+        recorder.record("action-routing", TraceLatencyRecorder.Stage.SINK, 1_000_000L);
+        recorder.record("action-routing", TraceLatencyRecorder.Stage.SINK, -1);
+
+        assertEquals(1, registry.get(TraceLatencyRecorder.METER).tags("stage", "sink").timer().count());
+    }
+
+    @Test
+    void testTraceIsReadBackFromRecordHeaders() {
+        RecordHeaders headers = new RecordHeaders();
+        TraceHeaders.start(headers, "trace-1", 42L);
+        TraceHeaders.stamp(headers, TraceHeaders.STREAM_IN_NANOS);
+
+        PipelineTrace trace = PipelineTrace.from(headers);
+
+        assertEquals("trace-1", trace.correlationId());
+        assertEquals(42L, trace.ingestNanos());
+        assertNotNull(trace.streamInNanos());
+        assertNull(trace.streamOutNanos());
+        assertNull(PipelineTrace.from(new RecordHeaders().add("other", "x".getBytes(StandardCharsets.UTF_8))));
+    }
+}